@@ -0,0 +1,121 @@
+package com.uber.nullaway.batch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+/**
+ * CLI for a nullness-only pass over a set of sources, spread over several threads. See {@link
+ * ParallelNullAwayRunner}.
+ *
+ * <p>Error Prone needs access to javac internals, so the JVM must be started with the {@code
+ * --add-exports} and {@code --add-opens} flags listed in the Error Prone installation docs.
+ */
+public class BatchChecker {
+  private static final String appName = BatchChecker.class.getName();
+
+  /**
+   * Parses the arguments, checks the given sources and directories of sources, and prints the
+   * diagnostics. Exits with status 1 if NullAway reports an error and 2 on invalid arguments.
+   *
+   * @param args Command line arguments.
+   */
+  public static void main(String[] args) throws Exception {
+    Options options = new Options();
+    HelpFormatter hf = new HelpFormatter();
+    hf.setWidth(100);
+    options.addOption(
+        Option.builder("t")
+            .argName("threads")
+            .longOpt("threads")
+            .hasArg()
+            .desc("number of threads (default: number of available processors)")
+            .build());
+    options.addOption(
+        Option.builder("cp")
+            .argName("classpath")
+            .longOpt("classpath")
+            .hasArg()
+            .desc("classpath of the sources, including their compiled classes")
+            .build());
+    options.addOption(
+        Option.builder("o")
+            .argName("option")
+            .longOpt("nullaway-option")
+            .hasArg()
+            .desc("NullAway option, e.g., AnnotatedPackages=com.uber (may be repeated)")
+            .build());
+    options.addOption(
+        Option.builder("h")
+            .argName("help")
+            .longOpt("help")
+            .desc("print usage information")
+            .build());
+    CommandLine line;
+    int threads;
+    try {
+      line = new DefaultParser().parse(options, args);
+      threads =
+          Integer.parseInt(
+              line.getOptionValue(
+                  't', String.valueOf(Runtime.getRuntime().availableProcessors())));
+    } catch (ParseException | NumberFormatException e) {
+      System.err.println(e.getMessage());
+      hf.printHelp(appName + " [options] <source files or directories>", options);
+      System.exit(2);
+      return;
+    }
+    if (line.hasOption('h')) {
+      hf.printHelp(appName + " [options] <source files or directories>", options);
+      return;
+    }
+    String[] nullAwayOptions = line.getOptionValues('o');
+    List<Path> sourceFiles = findSourceFiles(line.getArgList());
+    if (sourceFiles.isEmpty()) {
+      System.err.println("No Java source files given");
+      System.exit(2);
+    }
+    ParallelNullAwayRunner runner =
+        new ParallelNullAwayRunner(
+            threads,
+            line.getOptionValue("cp"),
+            nullAwayOptions == null ? List.of() : List.of(nullAwayOptions));
+    ParallelNullAwayRunner.Result result = runner.run(sourceFiles);
+    for (String diagnostic : result.getDiagnostics()) {
+      System.err.println(diagnostic);
+    }
+    if (!result.isSuccess()) {
+      System.exit(1);
+    }
+  }
+
+  private static List<Path> findSourceFiles(List<String> paths) throws IOException {
+    List<Path> result = new ArrayList<>();
+    for (String path : paths) {
+      Path p = Paths.get(path);
+      if (Files.isDirectory(p)) {
+        try (Stream<Path> files = Files.walk(p)) {
+          result.addAll(
+              files
+                  .filter(f -> f.toString().endsWith(".java") && Files.isRegularFile(f))
+                  .sorted()
+                  .collect(Collectors.toList()));
+        }
+      } else {
+        result.add(p);
+      }
+    }
+    return result;
+  }
+}
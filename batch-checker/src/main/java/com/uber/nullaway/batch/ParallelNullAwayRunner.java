@@ -0,0 +1,223 @@
+package com.uber.nullaway.batch;
+
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Runs NullAway over a set of source files using several threads.
+ *
+ * <p>javac symbols and types are completed lazily and are not thread-safe, so the files cannot be
+ * attributed once and then checked concurrently. Instead, the files are split into one shard per
+ * thread, balanced by file size, and each shard is compiled by its own javac task running Error
+ * Prone with only NullAway enabled. Each task has its own javac context, and hence its own {@code
+ * NullAway}, {@code AccessPathNullnessAnalysis} and {@code GenericsChecks} instances, which are
+ * confined to the thread running the task. Compilation stops after flow analysis, so no class
+ * files are written.
+ *
+ * <p>Since a shard only sees its own sources, types declared in other shards must be resolvable
+ * from the classpath; for a nullness-only pass on CI, this is the classpath of the regular build
+ * plus its output directory. Annotation processors are not run.
+ */
+public final class ParallelNullAwayRunner {
+
+  /** Outcome of a run. */
+  public static final class Result {
+    private final boolean success;
+    private final ImmutableList<String> diagnostics;
+
+    private Result(boolean success, ImmutableList<String> diagnostics) {
+      this.success = success;
+      this.diagnostics = diagnostics;
+    }
+
+    /** Returns true if no shard reported an error. */
+    public boolean isSuccess() {
+      return success;
+    }
+
+    /** Returns the diagnostics reported by all shards, in the order of the shards. */
+    public ImmutableList<String> getDiagnostics() {
+      return diagnostics;
+    }
+  }
+
+  private final int threads;
+  private final @Nullable String classpath;
+  private final ImmutableList<String> nullAwayOptions;
+
+  /**
+   * Creates a runner.
+   *
+   * @param threads number of threads, and hence of shards, to use
+   * @param classpath classpath of the sources to check, or {@code null} for none
+   * @param nullAwayOptions NullAway options without the {@code -XepOpt:NullAway:} prefix, e.g.,
+   *     {@code AnnotatedPackages=com.uber}
+   */
+  public ParallelNullAwayRunner(
+      int threads, @Nullable String classpath, List<String> nullAwayOptions) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("number of threads must be positive: " + threads);
+    }
+    this.threads = threads;
+    this.classpath = classpath;
+    this.nullAwayOptions = ImmutableList.copyOf(nullAwayOptions);
+  }
+
+  /**
+   * Checks the given source files.
+   *
+   * @param sourceFiles Java source files to check
+   * @return the diagnostics of all shards, and whether the check succeeded
+   * @throws InterruptedException if interrupted while waiting for the shards
+   */
+  public Result run(List<Path> sourceFiles) throws InterruptedException {
+    List<List<Path>> shards = shard(sourceFiles, Math.min(threads, sourceFiles.size()));
+    List<Callable<Result>> tasks = new ArrayList<>();
+    for (List<Path> shard : shards) {
+      tasks.add(() -> check(shard));
+    }
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    try {
+      boolean success = true;
+      ImmutableList.Builder<String> diagnostics = ImmutableList.builder();
+      for (Future<Result> future : pool.invokeAll(tasks)) {
+        Result result;
+        try {
+          result = future.get();
+        } catch (ExecutionException e) {
+          throw new IllegalStateException("NullAway failed on a shard", e.getCause());
+        }
+        success &= result.isSuccess();
+        diagnostics.addAll(result.getDiagnostics());
+      }
+      return new Result(success, diagnostics.build());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Splits files into at most {@code numShards} shards of similar total size, assigning each file,
+   * from the largest to the smallest, to the currently smallest shard.
+   */
+  static List<List<Path>> shard(List<Path> files, int numShards) {
+    List<List<Path>> shards = new ArrayList<>();
+    if (numShards < 1) {
+      return shards;
+    }
+    long[] shardSizes = new long[numShards];
+    PriorityQueue<Integer> smallestFirst =
+        new PriorityQueue<>(
+            Comparator.<Integer>comparingLong(i -> shardSizes[i]).thenComparingInt(i -> i));
+    for (int i = 0; i < numShards; i++) {
+      shards.add(new ArrayList<>());
+      smallestFirst.add(i);
+    }
+    List<Path> largestFirst = new ArrayList<>(files);
+    largestFirst.sort(Comparator.comparingLong(ParallelNullAwayRunner::size).reversed());
+    for (Path file : largestFirst) {
+      int smallest = smallestFirst.remove();
+      shards.get(smallest).add(file);
+      // re-insert after updating the size, so the queue order stays consistent
+      shardSizes[smallest] += Math.max(size(file), 1L);
+      smallestFirst.add(smallest);
+    }
+    shards.removeIf(List::isEmpty);
+    return shards;
+  }
+
+  private static long size(Path file) {
+    try {
+      return Files.size(file);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private Result check(List<Path> shard) throws IOException {
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> collector = new DiagnosticCollector<>();
+    boolean success;
+    // file managers are not thread-safe, so each shard gets its own
+    try (StandardJavaFileManager fileManager =
+        compiler.getStandardFileManager(collector, Locale.ROOT, null)) {
+      JavaCompiler.CompilationTask task =
+          compiler.getTask(
+              null,
+              fileManager,
+              collector,
+              javacOptions(),
+              null,
+              fileManager.getJavaFileObjectsFromPaths(shard));
+      success = task.call();
+    }
+    ImmutableList.Builder<String> diagnostics = ImmutableList.builder();
+    for (Diagnostic<? extends JavaFileObject> diagnostic : collector.getDiagnostics()) {
+      diagnostics.add(format(diagnostic));
+    }
+    return new Result(success, diagnostics.build());
+  }
+
+  private List<String> javacOptions() {
+    List<String> options = new ArrayList<>();
+    if (classpath != null) {
+      options.addAll(List.of("-classpath", classpath));
+    }
+    List<String> errorProneArgs = new ArrayList<>();
+    errorProneArgs.addAll(List.of("-Xplugin:ErrorProne", "-XepDisableAllChecks"));
+    errorProneArgs.add("-Xep:NullAway:ERROR");
+    for (String option : nullAwayOptions) {
+      errorProneArgs.add("-XepOpt:NullAway:" + option);
+    }
+    options.addAll(
+        List.of(
+            // NullAway and Error Prone are on our own classpath
+            "-processorpath",
+            System.getProperty("java.class.path"),
+            "-proc:none",
+            "-implicit:none",
+            "-XDcompilePolicy=simple",
+            "--should-stop=ifError=FLOW",
+            "--should-stop=ifNoError=FLOW",
+            // for JSpecify mode (benign outside JSpecify mode)
+            "-XDaddTypeAnnotationsToSymbol=true",
+            // Error Prone arguments must be passed space separated with -Xplugin:ErrorProne
+            String.join(" ", errorProneArgs)));
+    return options;
+  }
+
+  private static String format(Diagnostic<? extends JavaFileObject> diagnostic) {
+    StringBuilder result = new StringBuilder();
+    JavaFileObject source = diagnostic.getSource();
+    if (source != null) {
+      result.append(new File(source.toUri()).getPath());
+      if (diagnostic.getLineNumber() != Diagnostic.NOPOS) {
+        result.append(':').append(diagnostic.getLineNumber());
+      }
+      result.append(": ");
+    }
+    result.append(diagnostic.getKind().toString().toLowerCase(Locale.ROOT)).append(": ");
+    result.append(diagnostic.getMessage(Locale.ROOT));
+    return result.toString();
+  }
+}
@@ -0,0 +1,87 @@
+package com.uber.nullaway.batch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ParallelNullAwayRunnerTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path writeSource(String className, String source) throws IOException {
+    Path file = temporaryFolder.getRoot().toPath().resolve(className + ".java");
+    Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  @Test
+  public void reportsErrorsFromAllShards() throws Exception {
+    List<Path> files = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      files.add(
+          writeSource(
+              "Bad" + i,
+              """
+              package com.uber;
+              import org.jspecify.annotations.Nullable;
+              class Bad%d {
+                int len(@Nullable String s) {
+                  return s.length();
+                }
+              }
+              """
+                  .formatted(i)));
+    }
+    files.add(
+        writeSource(
+            "Good",
+            """
+            package com.uber;
+            class Good {
+              int len(String s) {
+                return s.length();
+              }
+            }
+            """));
+    ParallelNullAwayRunner runner =
+        new ParallelNullAwayRunner(
+            3, System.getProperty("java.class.path"), List.of("AnnotatedPackages=com.uber"));
+    ParallelNullAwayRunner.Result result = runner.run(files);
+    assertFalse(result.isSuccess());
+    for (int i = 0; i < 4; i++) {
+      String fileName = "Bad" + i + ".java:5";
+      assertTrue(
+          result.getDiagnostics().toString(),
+          result.getDiagnostics().stream()
+              .anyMatch(d -> d.contains(fileName) && d.contains("[NullAway]")));
+    }
+    assertTrue(result.getDiagnostics().stream().noneMatch(d -> d.contains("Good.java")));
+  }
+
+  @Test
+  public void shardsAreBalancedBySize() throws IOException {
+    List<Path> files = new ArrayList<>();
+    files.add(writeSource("A", "x".repeat(100)));
+    files.add(writeSource("B", "x".repeat(60)));
+    files.add(writeSource("C", "x".repeat(50)));
+    files.add(writeSource("D", "x".repeat(10)));
+    List<List<Path>> shards = ParallelNullAwayRunner.shard(files, 2);
+    assertEquals(
+        List.of(List.of(files.get(0), files.get(3)), List.of(files.get(1), files.get(2))), shards);
+    // never more shards than files
+    assertEquals(1, ParallelNullAwayRunner.shard(files.subList(0, 1), 4).size());
+  }
+}
@@ -16,6 +16,8 @@
 package com.uber.nullaway.jarinfer;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.List;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
@@ -72,6 +74,28 @@ public class JarInfer {
             .longOpt("strip-jar-signatures")
             .desc("handle signed jars by removing signature information from META-INF/")
             .build());
+    options.addOption(
+        Option.builder("m")
+            .argName("multi-jar")
+            .longOpt("multi-jar")
+            .desc(
+                "analyze the comma-separated input jars/aars together, writing a model jar per"
+                    + " input to the output directory")
+            .build());
+    options.addOption(
+        Option.builder("t")
+            .argName("num_threads")
+            .longOpt("threads")
+            .hasArg()
+            .desc("number of threads to analyze classes on (default: 1)")
+            .build());
+    options.addOption(
+        Option.builder("c")
+            .argName("cache_dir")
+            .longOpt("cache-dir")
+            .hasArg()
+            .desc("directory to cache per-class results in, to skip unchanged classes later")
+            .build());
     options.addOption(
         Option.builder("h")
             .argName("help")
@@ -99,12 +123,45 @@ public class JarInfer {
       boolean stripJarSignatures = line.hasOption('s');
       boolean debug = line.hasOption('d');
       boolean verbose = line.hasOption('v');
+      boolean multiJar = line.hasOption('m');
+      if (multiJar && annotateBytecode) {
+        System.out.println("Bytecode annotation is not supported in multi-jar mode");
+        hf.printHelp(appName, options, true);
+        return;
+      }
+      int numThreads;
+      try {
+        numThreads = Integer.parseInt(line.getOptionValue('t', "1"));
+      } catch (NumberFormatException e) {
+        numThreads = 0;
+      }
+      if (numThreads < 1) {
+        System.out.println("Invalid number of threads: " + line.getOptionValue('t'));
+        hf.printHelp(appName, options, true);
+        return;
+      }
       if (!pkgName.isEmpty()) {
         pkgName = "L" + pkgName.replaceAll("\\.", "/");
       }
-      DefinitelyDerefedParamsDriver driver = new DefinitelyDerefedParamsDriver();
-      driver.run(
-          jarPath, pkgName, outPath, annotateBytecode, stripJarSignatures, false, debug, verbose);
+      String cacheDir = line.getOptionValue('c');
+      DefinitelyDerefedParamsDriver driver =
+          new DefinitelyDerefedParamsDriver(numThreads, cacheDir);
+      if (multiJar) {
+        List<String> modelPaths =
+            driver.runBatch(
+                Arrays.asList(jarPath.split(",")), pkgName, outPath, false, debug, verbose);
+        System.out.println("Wrote " + modelPaths.size() + " model jars to: " + outPath);
+      } else {
+        driver.run(
+            jarPath, pkgName, outPath, annotateBytecode, stripJarSignatures, false, debug, verbose);
+      }
+      if (cacheDir != null) {
+        System.out.println(
+            "Class results cache hits: "
+                + driver.getCacheHits()
+                + ", misses: "
+                + driver.getCacheMisses());
+      }
       if (!new File(outPath).exists()) {
         System.out.println("Could not write jar file: " + outPath);
       }
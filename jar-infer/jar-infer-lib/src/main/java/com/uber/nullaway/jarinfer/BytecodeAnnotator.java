@@ -20,11 +20,11 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import java.io.BufferedReader;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
@@ -35,7 +35,7 @@ import java.util.jar.JarOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import java.util.zip.ZipOutputStream;
-import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.Opcodes;
@@ -143,16 +143,46 @@ public final class BytecodeAnnotator {
     return false;
   }
 
+  /**
+   * Returns the names of the classes declaring the given methods, so that classes without any
+   * inferred annotations can be copied without being parsed.
+   *
+   * @param nonnullParams Map from methods to their nonnull params.
+   * @param nullableReturns List of methods that return nullable.
+   * @return Set of qualified class names, as in the method signatures.
+   */
+  private static Set<String> annotatedClassNames(
+      MethodParamAnnotations nonnullParams, MethodReturnAnnotations nullableReturns) {
+    Set<String> classNames = new HashSet<>();
+    for (String methodSignature : Sets.union(nonnullParams.keySet(), nullableReturns)) {
+      // signatures are of the form pkg.Class.method(desc), and only the desc may contain '.'
+      int paren = methodSignature.indexOf('(');
+      int dot = methodSignature.lastIndexOf('.', paren < 0 ? methodSignature.length() : paren);
+      if (dot > 0) {
+        classNames.add(methodSignature.substring(0, dot));
+      }
+    }
+    return classNames;
+  }
+
   private static void annotateBytecode(
       InputStream is,
       OutputStream os,
       MethodParamAnnotations nonnullParams,
       MethodReturnAnnotations nullableReturns,
+      Set<String> annotatedClassNames,
       String nullableDesc,
       String nonnullDesc)
       throws IOException {
-    ClassReader cr = new ClassReader(is);
-    ClassWriter cw = new ClassWriter(0);
+    byte[] classBytes = is.readAllBytes();
+    ClassReader cr = new ClassReader(classBytes);
+    if (!annotatedClassNames.contains(cr.getClassName().replace('/', '.'))) {
+      // nothing to annotate, so copy the class as is
+      os.write(classBytes);
+      return;
+    }
+    // passing the reader lets the writer reuse the constant pool of the input class
+    ClassWriter cw = new ClassWriter(cr, 0);
     ClassNode cn = new ClassNode(Opcodes.ASM7);
     cr.accept(cn, 0);
 
@@ -207,7 +237,14 @@ public final class BytecodeAnnotator {
     BytecodeAnnotator.debug = debug;
     LOG(debug, "DEBUG", "nullableReturns: " + nullableReturns);
     LOG(debug, "DEBUG", "nonnullParams: " + nonnullParams);
-    annotateBytecode(is, os, nonnullParams, nullableReturns, javaxNullableDesc, javaxNonnullDesc);
+    annotateBytecode(
+        is,
+        os,
+        nonnullParams,
+        nullableReturns,
+        annotatedClassNames(nonnullParams, nullableReturns),
+        javaxNullableDesc,
+        javaxNonnullDesc);
   }
 
   /**
@@ -228,6 +265,7 @@ public final class BytecodeAnnotator {
       JarOutputStream jarOS,
       MethodParamAnnotations nonnullParams,
       MethodReturnAnnotations nullableReturns,
+      Set<String> annotatedClassNames,
       String nullableDesc,
       String nonnullDesc,
       boolean stripJarSignatures)
@@ -235,7 +273,14 @@ public final class BytecodeAnnotator {
     String entryName = jarEntry.getName();
     if (entryName.endsWith(".class")) {
       jarOS.putNextEntry(createZipEntry(jarEntry.getName()));
-      annotateBytecode(is, jarOS, nonnullParams, nullableReturns, nullableDesc, nonnullDesc);
+      annotateBytecode(
+          is,
+          jarOS,
+          nonnullParams,
+          nullableReturns,
+          annotatedClassNames,
+          nullableDesc,
+          nonnullDesc);
     } else if (entryName.equals("META-INF/MANIFEST.MF")) {
       // Read full file
       StringBuilder stringBuilder = new StringBuilder();
@@ -266,7 +311,7 @@ public final class BytecodeAnnotator {
       } // the case where stripJarSignatures==true is handled by default by skipping these files
     } else {
       jarOS.putNextEntry(createZipEntry(jarEntry.getName()));
-      jarOS.write(IOUtils.toByteArray(is));
+      is.transferTo(jarOS);
     }
     jarOS.closeEntry();
   }
@@ -298,6 +343,7 @@ public final class BytecodeAnnotator {
     // Reference: https://bugs.openjdk.java.net/browse/JDK-8215788
     // Note: we can't just put the code below inside stream().forach(), because it can throw
     // IOException.
+    Set<String> annotatedClassNames = annotatedClassNames(nonnullParams, nullableReturns);
     for (JarEntry jarEntry : (Iterable<JarEntry>) inputJar.stream()::iterator) {
       InputStream is = inputJar.getInputStream(jarEntry);
       copyAndAnnotateJarEntry(
@@ -306,6 +352,7 @@ public final class BytecodeAnnotator {
           jarOS,
           nonnullParams,
           nullableReturns,
+          annotatedClassNames,
           javaxNullableDesc,
           javaxNonnullDesc,
           stripJarSignatures);
@@ -339,6 +386,7 @@ public final class BytecodeAnnotator {
     // Additionally, inputZip.stream() returns a Stream<? extends ZipEntry>, and a for-each loop
     // has trouble handling the corresponding ::iterator  method reference. So this seems like the
     // best remaining way:
+    Set<String> annotatedClassNames = annotatedClassNames(nonnullParams, nullableReturns);
     Iterator<? extends ZipEntry> zipIterator = inputZip.stream().iterator();
     while (zipIterator.hasNext()) {
       ZipEntry zipEntry = zipIterator.next();
@@ -348,8 +396,9 @@ public final class BytecodeAnnotator {
         JarInputStream jarIS = new JarInputStream(is);
         JarEntry inputJarEntry = jarIS.getNextJarEntry();
 
-        ByteArrayOutputStream byteArrayOS = new ByteArrayOutputStream();
-        JarOutputStream jarOS = new JarOutputStream(byteArrayOS);
+        // Write the annotated classes.jar straight into its entry in the aar, rather than
+        // buffering it, shielding the aar stream from being closed along with the jar stream
+        JarOutputStream jarOS = new JarOutputStream(CloseShieldOutputStream.wrap(zipOS));
         while (inputJarEntry != null) {
           copyAndAnnotateJarEntry(
               inputJarEntry,
@@ -357,16 +406,15 @@ public final class BytecodeAnnotator {
               jarOS,
               nonnullParams,
               nullableReturns,
+              annotatedClassNames,
               androidNullableDesc,
               androidNonnullDesc,
               stripJarSignatures);
           inputJarEntry = jarIS.getNextJarEntry();
         }
-        jarOS.flush();
         jarOS.close();
-        zipOS.write(byteArrayOS.toByteArray());
       } else {
-        zipOS.write(IOUtils.toByteArray(is));
+        is.transferTo(zipOS);
       }
       zipOS.closeEntry();
     }
@@ -0,0 +1,179 @@
+package com.uber.nullaway.jarinfer;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.ibm.wala.classLoader.IClass;
+import com.ibm.wala.classLoader.ShrikeClass;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * On-disk cache of the results of analyzing a class with {@link DefinitelyDerefedParamsDriver},
+ * so that classes that did not change between two versions of a library are not analyzed again.
+ *
+ * <p>Results are keyed by a digest of the bytes of the class, of the bytes of the application
+ * classes it extends or implements, and of the options that affect the results. Each entry is
+ * stored in its own file in the cache directory, so the directory can be shared by several runs.
+ */
+final class ClassResultsCache {
+
+  /** The first four bytes of a cache entry, to be changed whenever its format changes. */
+  private static final int FILE_MAGIC_NUMBER = 0x4A494331;
+
+  /**
+   * Version of the analysis, part of every cache key. Must be bumped whenever the results of
+   * analyzing a class may change, e.g. with any change to the inference in {@link
+   * DefinitelyDerefedParams} or {@link StraightLineMethodAnalysis}, or to its list of null test
+   * APIs, so that results of older versions are not reused.
+   */
+  static final int ANALYSIS_VERSION = 1;
+
+  private static final String ENTRY_SUFFIX = ".bin";
+
+  private final Path directory;
+
+  /**
+   * Creates a cache in the given directory, which is created on first use if it does not exist.
+   *
+   * @param directory Directory of the cache entries.
+   */
+  ClassResultsCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Computes the cache key for a class.
+   *
+   * @param cls Class to analyze.
+   * @param annotateBytecode Whether results use JVM signatures, rather than astubx signatures.
+   * @param includeEmptyResults Whether results include methods without nonnull parameters.
+   * @return String The cache key, or null if the bytes of the class are not available.
+   */
+  static String key(IClass cls, boolean annotateBytecode, boolean includeEmptyResults) {
+    if (!(cls instanceof ShrikeClass shrikeClass)) {
+      return null;
+    }
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(FILE_MAGIC_NUMBER);
+    hasher.putInt(ANALYSIS_VERSION);
+    hasher.putBoolean(annotateBytecode);
+    hasher.putBoolean(includeEmptyResults);
+    hasher.putBytes(shrikeClass.getReader().getBytes());
+    // IR construction may consult the supertypes of the class, so their bytes are part of the key
+    // if they are analyzed along with it; other supertypes (e.g. from the JDK) are keyed by name
+    for (IClass superclass = cls.getSuperclass();
+        superclass != null;
+        superclass = superclass.getSuperclass()) {
+      putSupertype(hasher, superclass);
+    }
+    for (IClass iface : cls.getAllImplementedInterfaces()) {
+      putSupertype(hasher, iface);
+    }
+    return hasher.hash().toString();
+  }
+
+  private static void putSupertype(Hasher hasher, IClass supertype) {
+    hasher.putString(supertype.getName().toString(), StandardCharsets.UTF_8);
+    if (supertype instanceof ShrikeClass shrikeClass
+        && !supertype.getClassLoader().getName().toString().equals("Primordial")) {
+      hasher.putBytes(shrikeClass.getReader().getBytes());
+    }
+  }
+
+  /**
+   * Loads the cached results for a key.
+   *
+   * @param key Cache key, from {@link #key(IClass, boolean, boolean)}.
+   * @return ClassResults The cached results, or null if there are none or they cannot be read.
+   */
+  DefinitelyDerefedParamsDriver.ClassResults load(String key) {
+    Path entry = directory.resolve(key + ENTRY_SUFFIX);
+    if (!Files.exists(entry)) {
+      return null;
+    }
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+      if (in.readInt() != FILE_MAGIC_NUMBER) {
+        return null;
+      }
+      DefinitelyDerefedParamsDriver.ClassResults results =
+          new DefinitelyDerefedParamsDriver.ClassResults();
+      int numMethods = in.readInt();
+      for (int i = 0; i < numMethods; i++) {
+        String sign = in.readUTF();
+        ImmutableSet.Builder<Integer> params = ImmutableSet.builder();
+        int numParams = in.readInt();
+        for (int j = 0; j < numParams; j++) {
+          params.add(in.readInt());
+        }
+        results.nonnullParams.put(sign, params.build());
+      }
+      int numNullableReturns = in.readInt();
+      for (int i = 0; i < numNullableReturns; i++) {
+        results.nullableReturns.add(in.readUTF());
+      }
+      results.fromCache = true;
+      return results;
+    } catch (IOException e) {
+      // treat unreadable entries, e.g. truncated ones, as missing
+      return null;
+    }
+  }
+
+  /**
+   * Stores the results for a key. The entry is written to a temporary file first and then moved
+   * into place, so that concurrent runs never read a partially written entry. Failing to store an
+   * entry only costs analyzing the class again in a later run, so it is reported as a warning.
+   *
+   * @param key Cache key, from {@link #key(IClass, boolean, boolean)}.
+   * @param results Results of analyzing the class.
+   */
+  void store(String key, DefinitelyDerefedParamsDriver.ClassResults results) {
+    Path tmp = null;
+    try {
+      Files.createDirectories(directory);
+      tmp = Files.createTempFile(directory, key, ".tmp");
+      try (DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+        out.writeInt(FILE_MAGIC_NUMBER);
+        out.writeInt(results.nonnullParams.size());
+        for (Map.Entry<String, Set<Integer>> entry : results.nonnullParams.entrySet()) {
+          out.writeUTF(entry.getKey());
+          out.writeInt(entry.getValue().size());
+          for (int param : entry.getValue()) {
+            out.writeInt(param);
+          }
+        }
+        out.writeInt(results.nullableReturns.size());
+        for (String sign : results.nullableReturns) {
+          out.writeUTF(sign);
+        }
+      }
+      Files.move(
+          tmp,
+          directory.resolve(key + ENTRY_SUFFIX),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      System.err.println(
+          "[JI Warning] could not write cache entry to " + directory + ": " + e.getMessage());
+      if (tmp != null) {
+        try {
+          Files.deleteIfExists(tmp);
+        } catch (IOException deleteException) {
+          // nothing else to do, the temporary file is never read
+        }
+      }
+    }
+  }
+}
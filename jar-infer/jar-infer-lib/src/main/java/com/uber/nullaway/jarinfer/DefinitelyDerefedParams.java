@@ -65,7 +65,7 @@ public class DefinitelyDerefedParams {
   private PrunedCFG<SSAInstruction, ISSABasicBlock> prunedCFG;
 
   /** List of null test APIs and the parameter position. */
-  private static final ImmutableMap<String, Integer> NULL_TEST_APIS =
+  static final ImmutableMap<String, Integer> NULL_TEST_APIS =
       new ImmutableMap.Builder<String, Integer>()
           .put(
               "com.google.common.base.Preconditions.checkNotNull(Ljava/lang/Object;)Ljava/lang/Object;",
@@ -26,6 +26,7 @@ import com.ibm.wala.classLoader.IClassLoader;
 import com.ibm.wala.classLoader.IMethod;
 import com.ibm.wala.classLoader.PhantomClass;
 import com.ibm.wala.classLoader.ShrikeCTMethod;
+import com.ibm.wala.classLoader.ShrikeClass;
 import com.ibm.wala.core.util.config.AnalysisScopeReader;
 import com.ibm.wala.core.util.strings.StringStuff;
 import com.ibm.wala.core.util.warnings.Warnings;
@@ -71,12 +72,20 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.jar.JarFile;
 import java.util.jar.JarOutputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 import org.apache.commons.io.FilenameUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
 
 /** Driver for running {@link DefinitelyDerefedParams} */
 public class DefinitelyDerefedParamsDriver {
@@ -98,6 +107,24 @@ public class DefinitelyDerefedParamsDriver {
   private boolean annotateBytecode = false;
   private boolean stripJarSignatures = false;
 
+  /** Number of threads classes are analyzed on; 1 to analyze them on the calling thread. */
+  private final int numThreads;
+
+  /** Cache of the results of previously analyzed classes, or null if results are not cached. */
+  private final ClassResultsCache resultsCache;
+
+  private int cacheHits = 0;
+  private int cacheMisses = 0;
+
+  /**
+   * Whether methods without branches are analyzed directly on their bytecode, with {@link
+   * StraightLineMethodAnalysis}, rather than by building their IR. Both give the same results.
+   */
+  boolean analyzeStraightLineMethodsFromBytecode = true;
+
+  private int methodsAnalyzedFromBytecode = 0;
+  private int methodsAnalyzedWithIR = 0;
+
   private static final String DEFAULT_ASTUBX_LOCATION = "META-INF/nullaway/jarinfer.astubx";
   private static final String ASTUBX_JAR_SUFFIX = ".astubx.jar";
   // TODO: Exclusions-
@@ -105,23 +132,110 @@ public class DefinitelyDerefedParamsDriver {
   // com.ibm.wala.classLoader.ShrikeCTMethod.makeDecoder:110
   private static final String DEFAULT_EXCLUSIONS = "org\\/objectweb\\/asm\\/.*";
 
+  /**
+   * Results of analyzing the methods of a single class, kept separately so that classes can be
+   * analyzed concurrently and their results merged in a deterministic order.
+   */
+  static final class ClassResults {
+    /** Inferred nonnull parameters, in the order the methods were analyzed. */
+    final Map<String, Set<Integer>> nonnullParams = new LinkedHashMap<>();
+
+    /** Methods with inferred nullable returns, in the order the methods were analyzed. */
+    final List<String> nullableReturns = new ArrayList<>();
+
+    /** Bytecode size of the analyzed methods. */
+    long analyzedBytes = 0;
+
+    /** Number of methods analyzed with {@link StraightLineMethodAnalysis}. */
+    int methodsAnalyzedFromBytecode = 0;
+
+    /** Number of methods analyzed by building their IR, with {@link DefinitelyDerefedParams}. */
+    int methodsAnalyzedWithIR = 0;
+
+    /** Whether the results were loaded from the {@link ClassResultsCache}. */
+    boolean fromCache = false;
+  }
+
+  public DefinitelyDerefedParamsDriver() {
+    this(1);
+  }
+
+  public DefinitelyDerefedParamsDriver(int numThreads) {
+    this(numThreads, null);
+  }
+
+  /**
+   * Creates a driver that analyzes the classes of each input on the given number of threads. The
+   * inferred models are the same regardless of the number of threads.
+   *
+   * <p>If a cache directory is given, the results of each analyzed class are stored there, and
+   * classes whose bytes and supertypes are unchanged since they were stored, e.g. in a previous
+   * version of the library, are not analyzed again. See {@link ClassResultsCache}.
+   *
+   * @param numThreads Number of threads to analyze classes on.
+   * @param cacheDir Directory of the cache of analysis results, or null to not cache them.
+   */
+  public DefinitelyDerefedParamsDriver(int numThreads, String cacheDir) {
+    Preconditions.checkArgument(numThreads > 0, "invalid number of threads: %s", numThreads);
+    this.numThreads = numThreads;
+    this.resultsCache = cacheDir == null ? null : new ClassResultsCache(Paths.get(cacheDir));
+  }
+
+  /**
+   * Number of classes whose results were loaded from the cache of analysis results.
+   *
+   * @return int Number of cache hits, over all runs of this driver.
+   */
+  public int getCacheHits() {
+    return cacheHits;
+  }
+
+  /**
+   * Number of methods analyzed directly on their bytecode, as they have no branches.
+   *
+   * @return int Number of methods, over all runs of this driver.
+   */
+  int getMethodsAnalyzedFromBytecode() {
+    return methodsAnalyzedFromBytecode;
+  }
+
+  /**
+   * Number of methods analyzed by building their IR.
+   *
+   * @return int Number of methods, over all runs of this driver.
+   */
+  int getMethodsAnalyzedWithIR() {
+    return methodsAnalyzedWithIR;
+  }
+
+  /**
+   * Number of classes that were analyzed although there is a cache of analysis results.
+   *
+   * @return int Number of cache misses, over all runs of this driver.
+   */
+  public int getCacheMisses() {
+    return cacheMisses;
+  }
+
   /**
    * Accounts the bytecode size of analyzed method for statistics.
    *
    * @param mtd Analyzed method.
+   * @param results Results of the class of the method.
    */
-  private void accountCodeBytes(IMethod mtd) {
+  private static void accountCodeBytes(IMethod mtd, ClassResults results) {
     // Get method bytecode size
     if (mtd instanceof ShrikeCTMethod shrikeCtMethod) {
-      analyzedBytes += shrikeCtMethod.getBytecodes().length;
+      results.analyzedBytes += shrikeCtMethod.getBytecodes().length;
     }
   }
 
-  private DefinitelyDerefedParams getAnalysisDriver(
-      IMethod mtd, AnalysisOptions options, AnalysisCache cache) {
+  private static DefinitelyDerefedParams getAnalysisDriver(
+      IMethod mtd, AnalysisOptions options, AnalysisCache cache, ClassResults results) {
     IR ir = cache.getIRFactory().makeIR(mtd, Everywhere.EVERYWHERE, options.getSSAOptions());
     ControlFlowGraph<SSAInstruction, ISSABasicBlock> cfg = ir.getControlFlowGraph();
-    accountCodeBytes(mtd);
+    accountCodeBytes(mtd, results);
+    results.methodsAnalyzedWithIR++;
     return new DefinitelyDerefedParams(mtd, ir, cfg);
   }
 
@@ -238,10 +352,7 @@ public class DefinitelyDerefedParamsDriver {
     } else if (!new File(inPath).exists()) {
       return;
     }
-    AnalysisScope scope = AnalysisScopeReader.instance.makeBasePrimordialScope(null);
-    scope.setExclusions(
-        new PatternsFilter(
-            new ByteArrayInputStream(DEFAULT_EXCLUSIONS.getBytes(StandardCharsets.UTF_8))));
+    AnalysisScope scope = makeBaseScope();
     if (jarIS != null) {
       scope.addInputStreamForJarToScope(ClassLoaderReference.Application, jarIS);
     } else {
@@ -249,11 +360,147 @@ public class DefinitelyDerefedParamsDriver {
           inPath, scope, ClassLoaderReference.Application);
     }
     AnalysisOptions options = new AnalysisOptions(scope, null);
-    AnalysisCache cache = new AnalysisCacheImpl();
     IClassHierarchy cha = ClassHierarchyFactory.makeWithRoot(scope);
     Warnings.clear();
+    analyzeClasses(collectClasses(cha, pkgName, includeNonPublicClasses), options);
+    logStats(inPath);
+  }
+
+  /**
+   * Batch mode of the analysis, for a set of jar/aar files that depend on each other, e.g. the
+   * dependencies of a project. Unlike {@link #run(String, String, String, boolean, boolean,
+   * boolean, boolean, boolean)} with several input paths, which builds a class hierarchy per input
+   * and writes a single model, this builds one class hierarchy for all inputs, and writes a model
+   * jar per input, with the models of the classes in that input.
+   *
+   * @param inPaths Paths to input jar/aar files to be analyzed. If a class is in several inputs,
+   *     it is only analyzed for the first one.
+   * @param pkgName Qualified package name.
+   * @param outDir Directory for the output model jars. The model of 'a/b/c/x.jar' is written to
+   *     'outDir/x.astubx.jar'.
+   * @param includeNonPublicClasses Include non-public/ABI classes (e.g. for testing)
+   * @param dbg Output debug level logs
+   * @param vbs Output verbose level logs
+   * @return List of paths to the output model jars, in the order of the inputs. Inputs without any
+   *     inferred models have no model jar.
+   * @throws IOException on IO error.
+   * @throws ClassHierarchyException on Class Hierarchy factory error.
+   */
+  public List<String> runBatch(
+      List<String> inPaths,
+      String pkgName,
+      String outDir,
+      boolean includeNonPublicClasses,
+      boolean dbg,
+      boolean vbs)
+      throws IOException, ClassHierarchyException {
+    DEBUG = dbg;
+    VERBOSE = vbs;
+    this.annotateBytecode = false;
+    this.stripJarSignatures = false;
+    // Map from each input to its output, checked up front so that no model is written for a batch
+    // with invalid inputs
+    Map<String, String> outPathByInPath = new LinkedHashMap<>();
+    Set<String> usedOutPaths = new HashSet<>();
+    for (String inPath : inPaths) {
+      Preconditions.checkArgument(
+          inPath.endsWith(".jar") || inPath.endsWith(".aar"), "invalid input path - %s", inPath);
+      String outPath = outDir + "/" + FilenameUtils.getBaseName(inPath) + ASTUBX_JAR_SUFFIX;
+      Preconditions.checkArgument(
+          outPathByInPath.put(inPath, outPath) == null, "duplicate input path - %s", inPath);
+      Preconditions.checkArgument(
+          usedOutPaths.add(outPath), "inputs with the same file name - %s", outPath);
+    }
+    analysisStartTime = System.currentTimeMillis();
+    AnalysisScope scope = makeBaseScope();
+    // Map from each class, by its WALA name, to the first input containing it
+    Map<String, String> inPathByClassName = new HashMap<>();
+    Map<String, List<IClass>> classesByInPath = new LinkedHashMap<>();
+    for (String inPath : inPaths) {
+      classesByInPath.put(inPath, new ArrayList<>());
+      for (String className : getClassNames(inPath)) {
+        inPathByClassName.putIfAbsent(className, inPath);
+      }
+      InputStream jarIS = getInputStream(inPath);
+      if (jarIS != null) {
+        scope.addInputStreamForJarToScope(ClassLoaderReference.Application, jarIS);
+      }
+    }
+    AnalysisOptions options = new AnalysisOptions(scope, null);
+    IClassHierarchy cha = ClassHierarchyFactory.makeWithRoot(scope);
+    Warnings.clear();
+    for (IClass cls : collectClasses(cha, pkgName, includeNonPublicClasses)) {
+      String inPath = inPathByClassName.get(cls.getName().toString());
+      if (inPath != null) {
+        classesByInPath.get(inPath).add(cls);
+      }
+    }
+    new File(outDir).mkdirs();
+    List<String> outPaths = new ArrayList<>();
+    for (Map.Entry<String, List<IClass>> entry : classesByInPath.entrySet()) {
+      String outPath = outPathByInPath.get(entry.getKey());
+      // models are written per input, so start from empty ones
+      nonnullParams = new MethodParamAnnotations();
+      nullableReturns = new MethodReturnAnnotations();
+      analyzeClasses(entry.getValue(), options);
+      if (!nonnullParams.isEmpty()) {
+        writeModelJAR(outPath);
+        outPaths.add(outPath);
+      }
+    }
+    // the class hierarchy is shared by all inputs, so the stats are only meaningful for the batch
+    logStats(inPaths.size() + " inputs");
+    return outPaths;
+  }
+
+  /**
+   * Returns the WALA names (e.g. {@code Lcom/example/Foo}) of the classes in a jar/aar file.
+   *
+   * @param inPath Path to input jar/aar file.
+   * @return List of class names.
+   */
+  private static List<String> getClassNames(String inPath) throws IOException {
+    List<String> classNames = new ArrayList<>();
+    InputStream jarIS = getInputStream(inPath);
+    if (jarIS == null) {
+      return classNames;
+    }
+    try (ZipInputStream zis = new ZipInputStream(jarIS)) {
+      for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+        String name = entry.getName();
+        if (name.endsWith(".class") && !name.startsWith("META-INF/")) {
+          classNames.add("L" + name.substring(0, name.length() - ".class".length()));
+        }
+      }
+    }
+    return classNames;
+  }
+
+  /**
+   * Makes an analysis scope with the primordial classes and the default exclusions, to which the
+   * inputs are to be added.
+   *
+   * @return AnalysisScope The scope.
+   */
+  private static AnalysisScope makeBaseScope() throws IOException {
+    AnalysisScope scope = AnalysisScopeReader.instance.makeBasePrimordialScope(null);
+    scope.setExclusions(
+        new PatternsFilter(
+            new ByteArrayInputStream(DEFAULT_EXCLUSIONS.getBytes(StandardCharsets.UTF_8))));
+    return scope;
+  }
 
-    // Iterate over all classes:methods in the 'Application' and 'Extension' class loaders
+  /**
+   * Collects the classes to analyze in the 'Application' and 'Extension' class loaders.
+   *
+   * @param cha Class hierarchy.
+   * @param pkgName Qualified package name, or empty for all packages.
+   * @param includeNonPublicClasses Include non-public/ABI classes.
+   * @return List of classes, in the order of the class hierarchy.
+   */
+  private static List<IClass> collectClasses(
+      IClassHierarchy cha, String pkgName, boolean includeNonPublicClasses) {
+    List<IClass> classes = new ArrayList<>();
     for (IClassLoader cldr : cha.getLoaders()) {
       if (!cldr.getName().toString().equals("Primordial")) {
         for (IClass cls : Iterator2Iterable.make(cldr.iterateAllClasses())) {
@@ -269,67 +516,217 @@ public class DefinitelyDerefedParamsDriver {
           if (!cls.isPublic() && !includeNonPublicClasses) {
             continue;
           }
-          LOG(DEBUG, "DEBUG", "analyzing class: " + cls.getName().toString());
-          for (IMethod mtd : Iterator2Iterable.make(cls.getDeclaredMethods().iterator())) {
-            // Skip methods without parameters, abstract methods, native methods
-            // some Application classes are Primordial (why?)
-            if (shouldCheckMethod(mtd)) {
-              Preconditions.checkNotNull(mtd, "method not found");
-              DefinitelyDerefedParams analysisDriver = null;
-              String sign = "";
-              try {
-                // Parameter analysis
-                boolean isStatic = mtd.isStatic();
-                if (mtd.getNumberOfParameters() > (isStatic ? 0 : 1)) {
-                  // For inferring parameter nullability, our criteria is based on finding
-                  // unchecked dereferences of that parameter. We perform a quick bytecode
-                  // check and skip methods containing no dereferences (i.e. method calls
-                  // or field accesses) at all, avoiding the expensive IR/CFG generation
-                  // step for these methods.
-                  // Note that this doesn't apply to inferring return value nullability.
-                  if (bytecodeHasAnyDereferences(mtd)) {
-                    analysisDriver = getAnalysisDriver(mtd, options, cache);
-                    Set<Integer> result = analysisDriver.analyze();
-                    if (!isStatic) {
-                      // subtract 1 from each parameter index to account for 'this' parameter
-                      result =
-                          result.stream().map(i -> i - 1).collect(ImmutableSet.toImmutableSet());
-                    }
-                    sign = getSignature(mtd);
-                    LOG(DEBUG, "DEBUG", "analyzed method: " + sign);
-                    if (!result.isEmpty() || DEBUG) {
-                      nonnullParams.put(sign, result);
-                      LOG(
-                          DEBUG,
-                          "DEBUG",
-                          "Inferred Nonnull param for method: " + sign + " = " + result.toString());
-                    }
-                  }
-                }
-                // Return value analysis
-                analyzeReturnValue(options, cache, mtd, analysisDriver, sign);
-              } catch (Exception e) {
-                LOG(
-                    DEBUG,
-                    "DEBUG",
-                    "Exception while scanning bytecodes for " + mtd + " " + e.getMessage());
-              }
-            }
-          }
+          classes.add(cls);
         }
       }
     }
+    return classes;
+  }
+
+  /**
+   * Analyzes the given classes, on {@link #numThreads} threads, and adds their results.
+   *
+   * @param classes Classes to analyze.
+   * @param options Analysis options.
+   */
+  private void analyzeClasses(List<IClass> classes, AnalysisOptions options) {
+    if (numThreads == 1) {
+      AnalysisCache cache = new AnalysisCacheImpl();
+      for (IClass cls : classes) {
+        addResults(analyzeClassOrLoadResults(cls, options, cache));
+      }
+    } else {
+      analyzeClassesInParallel(classes, options);
+    }
+  }
+
+  private long percentOfMethodsAnalyzed(int methods) {
+    int total = methodsAnalyzedFromBytecode + methodsAnalyzedWithIR;
+    return total > 0 ? (methods * 100L) / total : 0;
+  }
+
+  private void logStats(String inputs) {
     long endTime = System.currentTimeMillis();
     LOG(
         VERBOSE,
         "Stats",
-        inPath
+        inputs
             + " >> time(ms): "
             + (endTime - analysisStartTime)
             + ", bytecode size: "
             + analyzedBytes
             + ", rate (ms/KB): "
-            + (analyzedBytes > 0 ? (((endTime - analysisStartTime) * 1000) / analyzedBytes) : 0));
+            + (analyzedBytes > 0 ? (((endTime - analysisStartTime) * 1000) / analyzedBytes) : 0)
+            + ", methods analyzed from bytecode: "
+            + methodsAnalyzedFromBytecode
+            + " ("
+            + percentOfMethodsAnalyzed(methodsAnalyzedFromBytecode)
+            + "%), with IR: "
+            + methodsAnalyzedWithIR
+            + " ("
+            + percentOfMethodsAnalyzed(methodsAnalyzedWithIR)
+            + "%)"
+            + (resultsCache != null
+                ? ", cache hits: " + cacheHits + ", cache misses: " + cacheMisses
+                : ""));
+  }
+
+  /**
+   * Analyzes the classes on {@link #numThreads} threads, and adds their results in the order of
+   * {@code classes}, so that the models are the same as when analyzing them sequentially. WALA's
+   * IR caches are not thread-safe, so each class is analyzed with its own cache; this loses no
+   * reuse, as the IR of each method is built at most once anyway.
+   *
+   * @param classes Classes to analyze.
+   * @param options Analysis options.
+   */
+  private void analyzeClassesInParallel(List<IClass> classes, AnalysisOptions options) {
+    List<Callable<ClassResults>> tasks = new ArrayList<>(classes.size());
+    for (IClass cls : classes) {
+      tasks.add(() -> analyzeClassOrLoadResults(cls, options, new AnalysisCacheImpl()));
+    }
+    ForkJoinPool pool = new ForkJoinPool(numThreads);
+    try {
+      for (Future<ClassResults> future : pool.invokeAll(tasks)) {
+        addResults(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("interrupted while analyzing classes", e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException("error while analyzing classes", e.getCause());
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  private void addResults(ClassResults results) {
+    nonnullParams.putAll(results.nonnullParams);
+    nullableReturns.addAll(results.nullableReturns);
+    analyzedBytes += results.analyzedBytes;
+    methodsAnalyzedFromBytecode += results.methodsAnalyzedFromBytecode;
+    methodsAnalyzedWithIR += results.methodsAnalyzedWithIR;
+    if (resultsCache != null) {
+      if (results.fromCache) {
+        cacheHits++;
+      } else {
+        cacheMisses++;
+      }
+    }
+  }
+
+  /**
+   * Loads the results of a class from the cache of analysis results, if any, or analyzes it and
+   * stores its results in the cache.
+   *
+   * @param cls Class to analyze.
+   * @param options Analysis options.
+   * @param cache Cache for the IR of the methods of the class.
+   * @return ClassResults Inferred annotations of the methods of the class.
+   */
+  private ClassResults analyzeClassOrLoadResults(
+      IClass cls, AnalysisOptions options, AnalysisCache cache) {
+    if (resultsCache == null) {
+      return analyzeClass(cls, options, cache);
+    }
+    String key = ClassResultsCache.key(cls, annotateBytecode, DEBUG);
+    if (key != null) {
+      ClassResults results = resultsCache.load(key);
+      if (results != null) {
+        LOG(DEBUG, "DEBUG", "loaded cached results for class: " + cls.getName().toString());
+        return results;
+      }
+    }
+    ClassResults results = analyzeClass(cls, options, cache);
+    if (key != null) {
+      resultsCache.store(key, results);
+    }
+    return results;
+  }
+
+  /**
+   * Analyzes the declared methods of a class. Only reads shared state, so it can be run
+   * concurrently for different classes with different caches.
+   *
+   * @param cls Class to analyze.
+   * @param options Analysis options.
+   * @param cache Cache for the IR of the methods of the class.
+   * @return ClassResults Inferred annotations of the methods of the class.
+   */
+  private ClassResults analyzeClass(IClass cls, AnalysisOptions options, AnalysisCache cache) {
+    ClassResults results = new ClassResults();
+    LOG(DEBUG, "DEBUG", "analyzing class: " + cls.getName().toString());
+    Map<String, MethodNode> methodNodes = null;
+    for (IMethod mtd : Iterator2Iterable.make(cls.getDeclaredMethods().iterator())) {
+      // Skip methods without parameters, abstract methods, native methods
+      // some Application classes are Primordial (why?)
+      if (shouldCheckMethod(mtd)) {
+        Preconditions.checkNotNull(mtd, "method not found");
+        DefinitelyDerefedParams analysisDriver = null;
+        String sign = "";
+        try {
+          boolean isStatic = mtd.isStatic();
+          boolean hasParams = mtd.getNumberOfParameters() > (isStatic ? 0 : 1);
+          boolean hasReferenceReturn = !mtd.getReturnType().isPrimitiveType();
+          StraightLineMethodAnalysis straightLineAnalysis = null;
+          if (analyzeStraightLineMethodsFromBytecode && (hasParams || hasReferenceReturn)) {
+            if (methodNodes == null) {
+              methodNodes = getMethodNodes(cls);
+            }
+            MethodNode methodNode = methodNodes.get(mtd.getSelector().toString());
+            if (methodNode != null) {
+              straightLineAnalysis = StraightLineMethodAnalysis.analyze(methodNode, isStatic);
+            }
+          }
+          boolean usedStraightLineAnalysis = straightLineAnalysis != null && hasReferenceReturn;
+          // Parameter analysis
+          if (hasParams) {
+            // For inferring parameter nullability, our criteria is based on finding
+            // unchecked dereferences of that parameter. We perform a quick bytecode
+            // check and skip methods containing no dereferences (i.e. method calls
+            // or field accesses) at all, avoiding the expensive IR/CFG generation
+            // step for these methods.
+            // Note that this doesn't apply to inferring return value nullability.
+            if (bytecodeHasAnyDereferences(mtd)) {
+              Set<Integer> result;
+              if (straightLineAnalysis != null) {
+                result = straightLineAnalysis.getDerefedParams();
+                usedStraightLineAnalysis = true;
+              } else {
+                analysisDriver = getAnalysisDriver(mtd, options, cache, results);
+                result = analysisDriver.analyze();
+              }
+              if (!isStatic) {
+                // subtract 1 from each parameter index to account for 'this' parameter
+                result = result.stream().map(i -> i - 1).collect(ImmutableSet.toImmutableSet());
+              }
+              sign = getSignature(mtd);
+              LOG(DEBUG, "DEBUG", "analyzed method: " + sign);
+              if (!result.isEmpty() || DEBUG) {
+                results.nonnullParams.put(sign, result);
+                LOG(
+                    DEBUG,
+                    "DEBUG",
+                    "Inferred Nonnull param for method: " + sign + " = " + result.toString());
+              }
+            }
+          }
+          // Return value analysis
+          analyzeReturnValue(
+              options, cache, mtd, analysisDriver, straightLineAnalysis, sign, results);
+          if (usedStraightLineAnalysis) {
+            accountCodeBytes(mtd, results);
+            results.methodsAnalyzedFromBytecode++;
+          }
+        } catch (Exception e) {
+          LOG(
+              DEBUG,
+              "DEBUG",
+              "Exception while scanning bytecodes for " + mtd + " " + e.getMessage());
+        }
+      }
+    }
+    return results;
   }
 
   private void analyzeReturnValue(
@@ -337,21 +734,55 @@ public class DefinitelyDerefedParamsDriver {
       AnalysisCache cache,
       IMethod mtd,
       DefinitelyDerefedParams analysisDriver,
-      String sign) {
+      StraightLineMethodAnalysis straightLineAnalysis,
+      String sign,
+      ClassResults results) {
     if (!mtd.getReturnType().isPrimitiveType()) {
-      if (analysisDriver == null) {
-        analysisDriver = getAnalysisDriver(mtd, options, cache);
+      boolean nullable;
+      if (straightLineAnalysis != null) {
+        nullable = straightLineAnalysis.returnsNull();
+      } else {
+        if (analysisDriver == null) {
+          analysisDriver = getAnalysisDriver(mtd, options, cache, results);
+        }
+        nullable =
+            analysisDriver.analyzeReturnType() == DefinitelyDerefedParams.NullnessHint.NULLABLE;
       }
-      if (analysisDriver.analyzeReturnType() == DefinitelyDerefedParams.NullnessHint.NULLABLE) {
+      if (nullable) {
         if (sign.isEmpty()) {
           sign = getSignature(mtd);
         }
-        nullableReturns.add(sign);
+        results.nullableReturns.add(sign);
         LOG(DEBUG, "DEBUG", "Inferred Nullable method return: " + sign);
       }
     }
   }
 
+  /**
+   * Parses the methods of a class with ASM, for {@link StraightLineMethodAnalysis}.
+   *
+   * @param cls Class to parse.
+   * @return Map from method selectors (name and descriptor) to methods, empty if the bytes of the
+   *     class are not available or cannot be parsed.
+   */
+  private static Map<String, MethodNode> getMethodNodes(IClass cls) {
+    Map<String, MethodNode> methodNodes = new HashMap<>();
+    if (cls instanceof ShrikeClass shrikeClass) {
+      ClassNode classNode = new ClassNode();
+      try {
+        new ClassReader(shrikeClass.getReader().getBytes())
+            .accept(classNode, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+      } catch (RuntimeException e) {
+        LOG(DEBUG, "DEBUG", "Could not parse " + cls.getName() + ": " + e.getMessage());
+        return methodNodes;
+      }
+      for (MethodNode methodNode : classNode.methods) {
+        methodNodes.put(methodNode.name + methodNode.desc, methodNode);
+      }
+    }
+    return methodNodes;
+  }
+
   private boolean shouldCheckMethod(IMethod mtd) {
     return !mtd.isPrivate()
         && !mtd.isAbstract()
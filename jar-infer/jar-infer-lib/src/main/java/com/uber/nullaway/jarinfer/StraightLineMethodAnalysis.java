@@ -0,0 +1,274 @@
+package com.uber.nullaway.jarinfer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.objectweb.asm.tree.AbstractInsnNode;
+import org.objectweb.asm.tree.FieldInsnNode;
+import org.objectweb.asm.tree.LdcInsnNode;
+import org.objectweb.asm.tree.MethodInsnNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.objectweb.asm.tree.VarInsnNode;
+
+/**
+ * Analysis of methods without any branches, e.g. getters, setters and methods delegating to other
+ * methods, directly on their bytecode. For these methods, it computes the same results as {@link
+ * DefinitelyDerefedParams}, without building their IR: as every instruction of such a method runs
+ * on its only normal path, a parameter is definitely dereferenced iff any instruction dereferences
+ * it, and the method returns null iff its only return instruction returns the null constant.
+ *
+ * <p>Values are tracked through the operand stack and local variables the way WALA's SSA
+ * construction numbers them, i.e. loads and stores are copies, while e.g. casts produce new values.
+ * Only a subset of instructions is supported; methods with any other instruction, or with
+ * exception handlers, are left to {@link DefinitelyDerefedParams}.
+ */
+final class StraightLineMethodAnalysis {
+
+  // Abstract values: a parameter is its WALA value number (1-indexed, including 'this'), and any
+  // other value is one of the following
+  private static final int OTHER = 0;
+  private static final int NULL = -1;
+
+  /** Second slot of a long or double value. */
+  private static final int TOP = -2;
+
+  private final Set<Integer> derefedParams;
+  private final boolean returnsNull;
+
+  private StraightLineMethodAnalysis(Set<Integer> derefedParams, boolean returnsNull) {
+    this.derefedParams = derefedParams;
+    this.returnsNull = returnsNull;
+  }
+
+  /**
+   * Returns the definitely-dereferenced parameters, indexed as in {@link
+   * DefinitelyDerefedParams#analyze()}.
+   */
+  Set<Integer> getDerefedParams() {
+    return derefedParams;
+  }
+
+  /**
+   * Returns whether the return value is inferred to be nullable, as in {@link
+   * DefinitelyDerefedParams#analyzeReturnType()}.
+   */
+  boolean returnsNull() {
+    return returnsNull;
+  }
+
+  /**
+   * Analyzes a method, if it has no branches and only supported instructions.
+   *
+   * @param method The method, with its code.
+   * @param isStatic Whether the method is static.
+   * @return StraightLineMethodAnalysis The results, or null if the method is not supported.
+   */
+  static StraightLineMethodAnalysis analyze(MethodNode method, boolean isStatic) {
+    if (method.instructions.size() == 0 || !method.tryCatchBlocks.isEmpty()) {
+      return null;
+    }
+    int[] locals = new int[method.maxLocals];
+    Arrays.fill(locals, OTHER);
+    int slot = 0;
+    int valueNumber = 1;
+    if (!isStatic) {
+      locals[slot++] = valueNumber++;
+    }
+    for (Type argType : Type.getArgumentTypes(method.desc)) {
+      if (slot + argType.getSize() > locals.length) {
+        return null;
+      }
+      locals[slot] = valueNumber++;
+      if (argType.getSize() == 2) {
+        locals[slot + 1] = TOP;
+      }
+      slot += argType.getSize();
+    }
+    int firstParamIndex = isStatic ? 1 : 2;
+    List<Integer> stack = new ArrayList<>();
+    Set<Integer> derefed = new HashSet<>();
+    Boolean returnsNull = null;
+    for (AbstractInsnNode insn : method.instructions) {
+      int opcode = insn.getOpcode();
+      if (opcode < 0) {
+        // labels, line numbers and frames
+        continue;
+      }
+      if (returnsNull != null) {
+        // instructions after the return are unreachable, and not worth supporting
+        return null;
+      }
+      try {
+        switch (opcode) {
+          case Opcodes.NOP:
+            break;
+          case Opcodes.ACONST_NULL:
+            push(stack, NULL, 1);
+            break;
+          case Opcodes.ICONST_M1:
+          case Opcodes.ICONST_0:
+          case Opcodes.ICONST_1:
+          case Opcodes.ICONST_2:
+          case Opcodes.ICONST_3:
+          case Opcodes.ICONST_4:
+          case Opcodes.ICONST_5:
+          case Opcodes.FCONST_0:
+          case Opcodes.FCONST_1:
+          case Opcodes.FCONST_2:
+          case Opcodes.BIPUSH:
+          case Opcodes.SIPUSH:
+            push(stack, OTHER, 1);
+            break;
+          case Opcodes.LCONST_0:
+          case Opcodes.LCONST_1:
+          case Opcodes.DCONST_0:
+          case Opcodes.DCONST_1:
+            push(stack, OTHER, 2);
+            break;
+          case Opcodes.LDC:
+            {
+              Object cst = ((LdcInsnNode) insn).cst;
+              push(stack, OTHER, cst instanceof Long || cst instanceof Double ? 2 : 1);
+              break;
+            }
+          case Opcodes.ALOAD:
+            push(stack, locals[((VarInsnNode) insn).var], 1);
+            break;
+          case Opcodes.ILOAD:
+          case Opcodes.FLOAD:
+            push(stack, OTHER, 1);
+            break;
+          case Opcodes.LLOAD:
+          case Opcodes.DLOAD:
+            push(stack, OTHER, 2);
+            break;
+          case Opcodes.ASTORE:
+            locals[((VarInsnNode) insn).var] = pop(stack, 1);
+            break;
+          case Opcodes.ISTORE:
+          case Opcodes.FSTORE:
+            pop(stack, 1);
+            locals[((VarInsnNode) insn).var] = OTHER;
+            break;
+          case Opcodes.LSTORE:
+          case Opcodes.DSTORE:
+            pop(stack, 2);
+            locals[((VarInsnNode) insn).var] = OTHER;
+            locals[((VarInsnNode) insn).var + 1] = TOP;
+            break;
+          case Opcodes.POP:
+            pop(stack, 1);
+            break;
+          case Opcodes.POP2:
+            stack.remove(stack.size() - 1);
+            stack.remove(stack.size() - 1);
+            break;
+          case Opcodes.DUP:
+            {
+              int value = pop(stack, 1);
+              push(stack, value, 1);
+              push(stack, value, 1);
+              break;
+            }
+          case Opcodes.NEW:
+            push(stack, OTHER, 1);
+            break;
+          case Opcodes.CHECKCAST:
+          case Opcodes.INSTANCEOF:
+          case Opcodes.ANEWARRAY:
+          case Opcodes.NEWARRAY:
+          case Opcodes.ARRAYLENGTH:
+            pop(stack, 1);
+            push(stack, OTHER, 1);
+            break;
+          case Opcodes.GETSTATIC:
+            push(stack, OTHER, Type.getType(((FieldInsnNode) insn).desc).getSize());
+            break;
+          case Opcodes.PUTSTATIC:
+            pop(stack, Type.getType(((FieldInsnNode) insn).desc).getSize());
+            break;
+          case Opcodes.GETFIELD:
+            deref(derefed, pop(stack, 1), firstParamIndex);
+            push(stack, OTHER, Type.getType(((FieldInsnNode) insn).desc).getSize());
+            break;
+          case Opcodes.PUTFIELD:
+            pop(stack, Type.getType(((FieldInsnNode) insn).desc).getSize());
+            deref(derefed, pop(stack, 1), firstParamIndex);
+            break;
+          case Opcodes.INVOKEVIRTUAL:
+          case Opcodes.INVOKESPECIAL:
+          case Opcodes.INVOKEINTERFACE:
+          case Opcodes.INVOKESTATIC:
+            {
+              MethodInsnNode call = (MethodInsnNode) insn;
+              Type[] argTypes = Type.getArgumentTypes(call.desc);
+              int[] args = new int[argTypes.length];
+              for (int i = argTypes.length - 1; i >= 0; i--) {
+                args[i] = pop(stack, argTypes[i].getSize());
+              }
+              if (opcode == Opcodes.INVOKESTATIC) {
+                Integer nullTestArg =
+                    DefinitelyDerefedParams.NULL_TEST_APIS.get(
+                        call.owner.replace('/', '.') + "." + call.name + call.desc);
+                if (nullTestArg != null) {
+                  deref(derefed, args[nullTestArg], firstParamIndex);
+                }
+              } else {
+                deref(derefed, pop(stack, 1), firstParamIndex);
+              }
+              int returnSize = Type.getReturnType(call.desc).getSize();
+              if (returnSize > 0) {
+                push(stack, OTHER, returnSize);
+              }
+              break;
+            }
+          case Opcodes.ARETURN:
+            returnsNull = pop(stack, 1) == NULL;
+            break;
+          case Opcodes.IRETURN:
+          case Opcodes.FRETURN:
+          case Opcodes.LRETURN:
+          case Opcodes.DRETURN:
+          case Opcodes.RETURN:
+            returnsNull = false;
+            break;
+          default:
+            // branches, throws, and instructions not worth supporting
+            return null;
+        }
+      } catch (IndexOutOfBoundsException e) {
+        // inconsistent stack or locals, leave the method to the IR-based analysis
+        return null;
+      }
+    }
+    if (returnsNull == null) {
+      return null;
+    }
+    return new StraightLineMethodAnalysis(derefed, returnsNull);
+  }
+
+  private static void push(List<Integer> stack, int value, int size) {
+    stack.add(value);
+    if (size == 2) {
+      stack.add(TOP);
+    }
+  }
+
+  private static int pop(List<Integer> stack, int size) {
+    if (size == 2) {
+      stack.remove(stack.size() - 1);
+    }
+    return stack.remove(stack.size() - 1);
+  }
+
+  private static void deref(Set<Integer> derefed, int value, int firstParamIndex) {
+    if (value >= firstParamIndex) {
+      // Translate from WALA 1-indexed params, to 0-indexed
+      derefed.add(value - 1);
+    }
+  }
+}
@@ -18,9 +18,13 @@ package com.uber.nullaway.jarinfer;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import java.io.BufferedReader;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
@@ -99,6 +103,71 @@ public class EntriesComparator {
     return jar1Entries.equals(jar2Entries);
   }
 
+  /**
+   * Finds the classes whose bytes differ between the given 2 jar files.
+   *
+   * @param jarFile1 Path to the first jar file.
+   * @param jarFile2 Path to the second jar file.
+   * @return Names of the class entries present in both jar files with different contents.
+   * @throws IOException if an error happens when reading jar files.
+   */
+  public static Set<String> changedClassesInJars(String jarFile1, String jarFile2)
+      throws IOException {
+    Preconditions.checkArgument(jarFile1.endsWith(".jar"), "invalid jar file: %s", jarFile1);
+    Preconditions.checkArgument(jarFile2.endsWith(".jar"), "invalid jar file: %s", jarFile2);
+    try (JarInputStream jarIS1 = new JarInputStream(new FileInputStream(jarFile1));
+        JarInputStream jarIS2 = new JarInputStream(new FileInputStream(jarFile2))) {
+      return changedClasses(readClasses(jarIS1), readClasses(jarIS2));
+    }
+  }
+
+  /**
+   * Finds the classes whose bytes differ between the "classes.jar" entries of the given 2 aar
+   * files.
+   *
+   * @param aarFile1 Path to the first aar file.
+   * @param aarFile2 Path to the second aar file.
+   * @return Names of the class entries present in both "classes.jar" with different contents.
+   * @throws IOException if an error happens when reading aar files.
+   */
+  public static Set<String> changedClassesInAars(String aarFile1, String aarFile2)
+      throws IOException {
+    Preconditions.checkArgument(aarFile1.endsWith(".aar"), "invalid aar file: %s", aarFile1);
+    Preconditions.checkArgument(aarFile2.endsWith(".aar"), "invalid aar file: %s", aarFile2);
+    try (ZipFile zip1 = new ZipFile(aarFile1);
+        ZipFile zip2 = new ZipFile(aarFile2)) {
+      ZipEntry zip1Jar = Preconditions.checkNotNull(zip1.getEntry(classesJarInAar));
+      ZipEntry zip2Jar = Preconditions.checkNotNull(zip2.getEntry(classesJarInAar));
+      return changedClasses(
+          readClasses(new JarInputStream(zip1.getInputStream(zip1Jar))),
+          readClasses(new JarInputStream(zip2.getInputStream(zip2Jar))));
+    }
+  }
+
+  private static Map<String, byte[]> readClasses(JarInputStream jarIS) throws IOException {
+    Map<String, byte[]> classes = new HashMap<>();
+    for (JarEntry entry = jarIS.getNextJarEntry();
+        entry != null;
+        entry = jarIS.getNextJarEntry()) {
+      if (entry.getName().endsWith(".class")) {
+        classes.put(entry.getName(), jarIS.readAllBytes());
+      }
+    }
+    return classes;
+  }
+
+  private static Set<String> changedClasses(
+      Map<String, byte[]> classes1, Map<String, byte[]> classes2) {
+    Set<String> changed = new HashSet<>();
+    for (Map.Entry<String, byte[]> entry : classes1.entrySet()) {
+      byte[] bytes2 = classes2.get(entry.getKey());
+      if (bytes2 != null && !Arrays.equals(entry.getValue(), bytes2)) {
+        changed.add(entry.getKey());
+      }
+    }
+    return changed;
+  }
+
   private static String readManifestFromJar(String jarfile) throws IOException {
     JarFile jar = new JarFile(jarfile);
     ZipEntry manifestEntry = jar.getEntry("META-INF/MANIFEST.MF");
@@ -19,17 +19,21 @@ package com.uber.nullaway.jarinfer;
 import static com.google.errorprone.BugPattern.SeverityLevel.WARNING;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ObjectArrays;
 import com.google.common.collect.Sets;
 import com.google.errorprone.BugPattern;
 import com.google.errorprone.CompilationTestHelper;
 import com.google.errorprone.bugpatterns.BugChecker;
 import com.sun.tools.javac.main.Main;
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
 import java.security.MessageDigest;
@@ -38,8 +42,12 @@ import java.security.UnrecoverableEntryException;
 import java.security.cert.CertificateException;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 import java.util.zip.ZipFile;
 import jdk.security.jarsigner.JarSigner;
 import org.apache.commons.io.FilenameUtils;
@@ -55,6 +63,32 @@ import org.junit.runners.JUnit4;
 @RunWith(JUnit4.class)
 public class JarInferTest {
 
+  /** The toy library the driver tests below run on, and the prefix of the classes to analyze. */
+  private static final String TOY_JAR_PATH =
+      "../test-java-lib-jarinfer/build/libs/test-java-lib-jarinfer.jar";
+
+  private static final String TOY_PKG_PREFIX = "Lcom/uber/nullaway/jarinfer/toys/unannotated";
+
+  /**
+   * Classes of the toy libraries without any method to annotate, which must be copied as is when
+   * annotating them.
+   */
+  private static final ImmutableSet<String> TOY_UNANNOTATED_CLASSES =
+      ImmutableSet.of(
+          "com/uber/nullaway/jarinfer/toys/unannotated/ExpectNonnull.class",
+          "com/uber/nullaway/jarinfer/toys/unannotated/ExpectNullable.class");
+
+  /** Inferred nonnull parameters and checksum of the model written by a run on the toy jar. */
+  private static final class ToyJarRun {
+    final Map<String, Set<Integer>> result;
+    final byte[] checksum;
+
+    ToyJarRun(Map<String, Set<Integer>> result, byte[] checksum) {
+      this.result = result;
+      this.checksum = checksum;
+    }
+  }
+
   @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
   @Rule public TemporaryFolder outputFolder = new TemporaryFolder();
 
@@ -125,7 +159,8 @@ public class JarInferTest {
       String testName,
       String pkg,
       String inputJarPath,
-      Map<String, String> expectedToActualAnnotationsMap)
+      Map<String, String> expectedToActualAnnotationsMap,
+      Set<String> unannotatedClasses)
       throws Exception {
     String outputFolderPath = outputFolder.newFolder(pkg).getAbsolutePath();
     String inputJarName = FilenameUtils.getBaseName(inputJarPath);
@@ -140,13 +175,20 @@ public class JarInferTest {
     Assert.assertTrue(
         testName + ": generated jar does not have all the entries present in the input jar!",
         EntriesComparator.compareEntriesInJars(outputJarPath, inputJarPath));
+    Set<String> changedClasses =
+        EntriesComparator.changedClassesInJars(inputJarPath, outputJarPath);
+    Assert.assertFalse(testName + ": no class was annotated!", changedClasses.isEmpty());
+    Assert.assertTrue(
+        testName + ": classes without annotations were rewritten: " + changedClasses,
+        Sets.intersection(changedClasses, unannotatedClasses).isEmpty());
   }
 
   private void testAnnotationInAarTemplate(
       String testName,
       String pkg,
       String inputAarPath,
-      Map<String, String> expectedToActualAnnotationMap)
+      Map<String, String> expectedToActualAnnotationMap,
+      Set<String> unannotatedClasses)
       throws Exception {
     String outputFolderPath = outputFolder.newFolder(pkg).getAbsolutePath();
     String inputAarName = FilenameUtils.getBaseName(inputAarPath);
@@ -161,6 +203,12 @@ public class JarInferTest {
     Assert.assertTrue(
         testName + ": generated aar does not have all the entries present in the input aar!",
         EntriesComparator.compareEntriesInAars(outputAarPath, inputAarPath));
+    Set<String> changedClasses =
+        EntriesComparator.changedClassesInAars(inputAarPath, outputAarPath);
+    Assert.assertFalse(testName + ": no class was annotated!", changedClasses.isEmpty());
+    Assert.assertTrue(
+        testName + ": classes without annotations were rewritten: " + changedClasses,
+        Sets.intersection(changedClasses, unannotatedClasses).isEmpty());
   }
 
   /**
@@ -588,7 +636,8 @@ public class JarInferTest {
             "Lcom/uber/nullaway/jarinfer/toys/unannotated/ExpectNullable;",
             BytecodeAnnotator.javaxNullableDesc,
             "Lcom/uber/nullaway/jarinfer/toys/unannotated/ExpectNonnull;",
-            BytecodeAnnotator.javaxNonnullDesc));
+            BytecodeAnnotator.javaxNonnullDesc),
+        TOY_UNANNOTATED_CLASSES);
   }
 
   @Test
@@ -605,7 +654,8 @@ public class JarInferTest {
             "Lcom/uber/nullaway/jarinfer/toys/unannotated/ExpectNullable;",
             BytecodeAnnotator.androidNullableDesc,
             "Lcom/uber/nullaway/jarinfer/toys/unannotated/ExpectNonnull;",
-            BytecodeAnnotator.androidNonnullDesc));
+            BytecodeAnnotator.androidNonnullDesc),
+        TOY_UNANNOTATED_CLASSES);
   }
 
   @Test
@@ -622,6 +672,154 @@ public class JarInferTest {
     Assert.assertArrayEquals(checksumBytes1, checksumBytes2);
   }
 
+  @Test
+  public void parallelOutputJarIsSameAsSequential() throws Exception {
+    ToyJarRun sequential = runOnToyJar(new DefinitelyDerefedParamsDriver());
+    ToyJarRun parallel = runOnToyJar(new DefinitelyDerefedParamsDriver(4));
+    assertSameOutput(sequential, parallel);
+  }
+
+  @Test
+  public void straightLineMethodsFromBytecodeGiveSameResultsAsIR() throws Exception {
+    DefinitelyDerefedParamsDriver irDriver = new DefinitelyDerefedParamsDriver();
+    irDriver.analyzeStraightLineMethodsFromBytecode = false;
+    ToyJarRun irRun = runOnToyJar(irDriver);
+    Assert.assertEquals(0, irDriver.getMethodsAnalyzedFromBytecode());
+    DefinitelyDerefedParamsDriver driver = new DefinitelyDerefedParamsDriver();
+    ToyJarRun run = runOnToyJar(driver);
+    Assert.assertTrue(driver.getMethodsAnalyzedFromBytecode() > 0);
+    // every method is counted once, on the path its results come from
+    Assert.assertEquals(
+        irDriver.getMethodsAnalyzedWithIR(),
+        driver.getMethodsAnalyzedFromBytecode() + driver.getMethodsAnalyzedWithIR());
+    assertSameOutput(irRun, run);
+  }
+
+  @Test
+  public void cachedResultsAreReusedForUnchangedClasses() throws Exception {
+    String cacheDir = outputFolder.newFolder("jarinfer_cache").getAbsolutePath();
+    DefinitelyDerefedParamsDriver driver1 = new DefinitelyDerefedParamsDriver(1, cacheDir);
+    ToyJarRun run1 = runOnToyJar(driver1);
+    Assert.assertEquals(0, driver1.getCacheHits());
+    Assert.assertTrue(driver1.getCacheMisses() > 0);
+    DefinitelyDerefedParamsDriver driver2 = new DefinitelyDerefedParamsDriver(1, cacheDir);
+    ToyJarRun run2 = runOnToyJar(driver2);
+    Assert.assertEquals(driver1.getCacheMisses(), driver2.getCacheHits());
+    Assert.assertEquals(0, driver2.getCacheMisses());
+    assertSameOutput(run1, run2);
+  }
+
+  @Test
+  public void unwritableCacheDoesNotFailTheRun() throws Exception {
+    ToyJarRun uncached = runOnToyJar(new DefinitelyDerefedParamsDriver());
+    // a regular file where the cache directory should be, so no entry can be stored
+    String cacheDir = outputFolder.newFile("jarinfer_cache").getAbsolutePath();
+    DefinitelyDerefedParamsDriver driver = new DefinitelyDerefedParamsDriver(1, cacheDir);
+    ToyJarRun run = runOnToyJar(driver);
+    Assert.assertEquals(0, driver.getCacheHits());
+    Assert.assertTrue(driver.getCacheMisses() > 0);
+    assertSameOutput(uncached, run);
+  }
+
+  @Test
+  public void batchModeWritesSameModelAsSingleJarMode() throws Exception {
+    ToyJarRun singleJar = runOnToyJar(new DefinitelyDerefedParamsDriver());
+    String outDir = outputFolder.newFolder("batch").getAbsolutePath();
+    DefinitelyDerefedParamsDriver batchDriver = new DefinitelyDerefedParamsDriver();
+    List<String> modelPaths =
+        batchDriver.runBatch(
+            Arrays.asList(TOY_JAR_PATH), TOY_PKG_PREFIX, outDir, false, false, false);
+    Assert.assertEquals(Arrays.asList(outDir + "/test-java-lib-jarinfer.astubx.jar"), modelPaths);
+    Assert.assertArrayEquals(singleJar.checksum, sha1sum(modelPaths.get(0)));
+  }
+
+  @Test
+  public void batchModeWritesModelPerInputOfDependentJars() throws Exception {
+    compilationTestHelper
+        .addSourceLines(
+            "Base.java",
+            "package com.uber.nullaway.jarinfer.batch;",
+            "public class Base {",
+            "  public String id(Object o) {",
+            "    return o.toString();",
+            "  }",
+            "}")
+        .addSourceLines(
+            "Shared.java",
+            "package com.uber.nullaway.jarinfer.batch;",
+            "public class Shared {",
+            "  public static int len(String s) {",
+            "    return s.length();",
+            "  }",
+            "}")
+        .addSourceLines(
+            "Derived.java",
+            "package com.uber.nullaway.jarinfer.batch;",
+            "public class Derived extends Base {",
+            "  public int size(Object o) {",
+            "    return Shared.len(id(o)) + o.hashCode();",
+            "  }",
+            "}")
+        .addSourceLines(
+            "NoModel.java",
+            "package com.uber.nullaway.jarinfer.batch;",
+            "public class NoModel {",
+            "  public static int one() {",
+            "    return 1;",
+            "  }",
+            "}")
+        .expectResult(Main.Result.OK)
+        .doTest();
+    String jarDir = outputFolder.newFolder("batch_inputs").getAbsolutePath();
+    // Derived extends Base from a later input, and Shared is in both inputs
+    String derivedJarPath = jarDir + "/derived.jar";
+    writeBatchJar(derivedJarPath, "Derived", "Shared");
+    String baseJarPath = jarDir + "/base.jar";
+    writeBatchJar(baseJarPath, "Base", "Shared");
+    String noModelJarPath = jarDir + "/nomodel.jar";
+    writeBatchJar(noModelJarPath, "NoModel");
+    String outDir = outputFolder.newFolder("batch_dependent").getAbsolutePath();
+    DefinitelyDerefedParamsDriver batchDriver = new DefinitelyDerefedParamsDriver();
+    List<String> modelPaths =
+        batchDriver.runBatch(
+            Arrays.asList(derivedJarPath, baseJarPath, noModelJarPath),
+            "Lcom/uber/nullaway/jarinfer/batch",
+            outDir,
+            false,
+            false,
+            false);
+    Assert.assertEquals(
+        Arrays.asList(outDir + "/derived.astubx.jar", outDir + "/base.astubx.jar"), modelPaths);
+    Assert.assertEquals(
+        ImmutableSet.of(
+            "com.uber.nullaway.jarinfer.batch.Derived", "com.uber.nullaway.jarinfer.batch.Shared"),
+        modelledClasses(modelPaths.get(0)));
+    Assert.assertEquals(
+        ImmutableSet.of("com.uber.nullaway.jarinfer.batch.Base"),
+        modelledClasses(modelPaths.get(1)));
+    Assert.assertFalse(new File(outDir + "/nomodel.astubx.jar").exists());
+  }
+
+  @Test
+  public void batchModeRejectsInputsWithSameFileNameBeforeWritingModels() throws Exception {
+    String otherJarPath =
+        outputFolder.newFolder("other").getAbsolutePath() + "/test-java-lib-jarinfer.jar";
+    Files.copy(Paths.get(TOY_JAR_PATH), Paths.get(otherJarPath));
+    File outDir = outputFolder.newFolder("batch_same_name");
+    DefinitelyDerefedParamsDriver batchDriver = new DefinitelyDerefedParamsDriver();
+    Assert.assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            batchDriver.runBatch(
+                Arrays.asList(TOY_JAR_PATH, otherJarPath),
+                TOY_PKG_PREFIX,
+                outDir.getAbsolutePath(),
+                false,
+                false,
+                false));
+    Assert.assertArrayEquals(new String[0], outDir.list());
+  }
+
   @Test
   public void testSignedJars() throws Exception {
     // Set test configuration paths / options
@@ -690,6 +888,68 @@ public class JarInferTest {
     }
   }
 
+  /**
+   * Runs a driver on the toy jar.
+   *
+   * @param driver The driver, configured by the test.
+   * @return ToyJarRun A copy of the results, which the driver reuses across runs, and the checksum
+   *     of the written model.
+   */
+  private ToyJarRun runOnToyJar(DefinitelyDerefedParamsDriver driver) throws Exception {
+    Map<String, Set<Integer>> result = new HashMap<>(driver.run(TOY_JAR_PATH, TOY_PKG_PREFIX));
+    return new ToyJarRun(result, sha1sum(driver.lastOutPath));
+  }
+
+  private static void assertSameOutput(ToyJarRun expected, ToyJarRun actual) {
+    Assert.assertEquals(expected.result, actual.result);
+    Assert.assertArrayEquals(expected.checksum, actual.checksum);
+  }
+
+  /**
+   * Writes a jar with classes of the {@code com.uber.nullaway.jarinfer.batch} package compiled by
+   * {@link #compilationTestHelper}.
+   *
+   * @param jarPath Path to the jar to write.
+   * @param classNames Simple names of the classes to add to the jar.
+   */
+  private void writeBatchJar(String jarPath, String... classNames) throws IOException {
+    try (JarOutputStream jarOS = new JarOutputStream(new FileOutputStream(jarPath))) {
+      for (String className : classNames) {
+        String entryName = "com/uber/nullaway/jarinfer/batch/" + className + ".class";
+        jarOS.putNextEntry(new JarEntry(entryName));
+        Files.copy(temporaryFolder.getRoot().toPath().resolve(entryName), jarOS);
+        jarOS.closeEntry();
+      }
+    }
+  }
+
+  /**
+   * Returns the fully qualified names of the classes with methods in a model jar, read from the
+   * method signatures in the string dictionary of its astubx file.
+   *
+   * @param modelJarPath Path to the model jar.
+   * @return Set of class names.
+   */
+  private static Set<String> modelledClasses(String modelJarPath) throws IOException {
+    Set<String> classNames = new HashSet<>();
+    try (ZipFile zip = new ZipFile(modelJarPath);
+        DataInputStream in =
+            new DataInputStream(
+                zip.getInputStream(zip.getEntry("META-INF/nullaway/jarinfer.astubx")))) {
+      in.readInt(); // magic number
+      int numStringEntries = in.readInt();
+      for (int i = 0; i < numStringEntries; i++) {
+        String entry = in.readUTF();
+        // method signatures are '{FullyQualifiedEnclosingType}: {ReturnType} {name}(...)'
+        int colon = entry.indexOf(':');
+        if (colon > 0) {
+          classNames.add(entry.substring(0, colon));
+        }
+      }
+    }
+    return classNames;
+  }
+
   private byte[] sha1sum(String path) throws Exception {
     File file = new File(path);
     MessageDigest digest = MessageDigest.getInstance("SHA-1");
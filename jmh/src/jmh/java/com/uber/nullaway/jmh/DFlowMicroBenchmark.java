@@ -1,7 +1,9 @@
 package com.uber.nullaway.jmh;
 
 import java.io.IOException;
+import java.util.List;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -10,11 +12,17 @@ import org.openjdk.jmh.infra.Blackhole;
 @State(Scope.Benchmark)
 public class DFlowMicroBenchmark {
 
+  /** Value for {@code -XepOpt:NullAway:NullnessStoreRepresentation}, to compare store types */
+  @Param({"IMMUTABLE_MAP", "PERSISTENT_MAP", "BITSET"})
+  public String storeRepresentation;
+
   private DataFlowMicroBenchmarkCompiler compiler;
 
   @Setup
   public void setup() throws IOException {
-    compiler = new DataFlowMicroBenchmarkCompiler();
+    compiler =
+        new DataFlowMicroBenchmarkCompiler(
+            List.of("-XepOpt:NullAway:NullnessStoreRepresentation=" + storeRepresentation));
   }
 
   @Benchmark
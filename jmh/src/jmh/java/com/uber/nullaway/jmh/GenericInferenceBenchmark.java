@@ -0,0 +1,29 @@
+package com.uber.nullaway.jmh;
+
+import java.io.IOException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Benchmark)
+public class GenericInferenceBenchmark {
+
+  /** Nesting depth of the generic calls, i.e., number of type variables per inference problem */
+  @Param({"8", "16", "32"})
+  public int depth;
+
+  private GenericInferenceBenchmarkCompiler compiler;
+
+  @Setup
+  public void setup() throws IOException {
+    compiler = new GenericInferenceBenchmarkCompiler(depth);
+  }
+
+  @Benchmark
+  public void compile(Blackhole bh) {
+    bh.consume(compiler.compile());
+  }
+}
@@ -5,13 +5,27 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 public class DataFlowMicroBenchmarkCompiler {
 
   private final NullawayJavac nullawayJavac;
 
   public DataFlowMicroBenchmarkCompiler() throws IOException {
-    nullawayJavac = NullawayJavac.createFromSourceString("DFlowBench", SOURCE, "com.uber");
+    this(List.of());
+  }
+
+  /**
+   * Creates a compiler for the benchmark that passes extra arguments to Error Prone, e.g., to
+   * compare NullAway options against each other.
+   *
+   * @param extraErrorProneArgs extra arguments to pass to Error Prone
+   * @throws IOException if a temporary output directory cannot be created
+   */
+  public DataFlowMicroBenchmarkCompiler(List<String> extraErrorProneArgs) throws IOException {
+    nullawayJavac =
+        NullawayJavac.createFromSourceString(
+            "DFlowBench", SOURCE, "com.uber", extraErrorProneArgs);
   }
 
   public boolean compile() {
@@ -0,0 +1,73 @@
+package com.uber.nullaway.jmh;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Compiles a generated class with many calls to generic methods nested {@code depth} levels deep,
+ * in JSpecify mode, to benchmark inference of type argument nullability for large constraint
+ * systems. The type variables of the nested calls are all constrained to be equal to each other.
+ */
+public class GenericInferenceBenchmarkCompiler {
+
+  /** Number of methods in the generated class, each containing one nested call. */
+  private static final int NUM_METHODS = 50;
+
+  private final NullawayJavac nullawayJavac;
+
+  /**
+   * Creates a compiler for the benchmark.
+   *
+   * @param depth nesting depth of the generic calls in the generated source
+   * @throws IOException if a temporary output directory cannot be created
+   */
+  public GenericInferenceBenchmarkCompiler(int depth) throws IOException {
+    nullawayJavac =
+        NullawayJavac.createFromSourceString(
+            "GenericInferenceBench",
+            generateSource(depth),
+            "com.uber",
+            List.of("-XepOpt:NullAway:JSpecifyMode=true"));
+  }
+
+  public boolean compile() {
+    return nullawayJavac.compile();
+  }
+
+  /**
+   * Generates a class with a generic method {@code box0} wrapping its argument in a {@code Box},
+   * generic methods {@code rebox1} to {@code rebox<depth-1>} passing a {@code Box} through, and
+   * methods containing calls {@code rebox<depth-1>(...rebox1(box0(s))...)}.
+   */
+  static String generateSource(int depth) {
+    StringBuilder source = new StringBuilder();
+    source.append("package com.uber;\n");
+    source.append("import org.jspecify.annotations.Nullable;\n");
+    source.append("class GenericInferenceBench {\n");
+    source.append("  static class Box<T extends @Nullable Object> {}\n");
+    source.append("  static <T0 extends @Nullable Object> Box<T0> box0(T0 t) {\n");
+    source.append("    return new Box<>();\n");
+    source.append("  }\n");
+    for (int i = 1; i < depth; i++) {
+      source.append(
+          String.format(
+              "  static <T%d extends @Nullable Object> Box<T%d> rebox%d(Box<T%d> b) {\n",
+              i, i, i, i));
+      source.append("    return b;\n");
+      source.append("  }\n");
+    }
+    StringBuilder call = new StringBuilder("box0(s)");
+    for (int i = 1; i < depth; i++) {
+      call.insert(0, "rebox" + i + "(").append(")");
+    }
+    for (int m = 0; m < NUM_METHODS; m++) {
+      source.append("  static Box<@Nullable String> test").append(m);
+      source.append("(@Nullable String s) {\n");
+      source.append("    Box<@Nullable String> b = ").append(call).append(";\n");
+      source.append("    return b;\n");
+      source.append("  }\n");
+    }
+    source.append("}\n");
+    return source.toString();
+  }
+}
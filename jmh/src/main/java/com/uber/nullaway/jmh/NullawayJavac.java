@@ -129,11 +129,27 @@ public class NullawayJavac {
    */
   public static NullawayJavac createFromSourceString(
       String className, String source, String annotatedPackages) throws IOException {
+    return createFromSourceString(className, source, annotatedPackages, Collections.emptyList());
+  }
+
+  /**
+   * Like {@link #createFromSourceString(String, String, String)}, but passing additional arguments
+   * to Error Prone, e.g., to benchmark NullAway with different options.
+   *
+   * @param className name of the class to compile
+   * @param source source code of the class to compile
+   * @param annotatedPackages argument to pass for "-XepOpt:NullAway:AnnotatedPackages" option
+   * @param extraErrorProneArgs extra arguments to pass to Error Prone
+   * @throws IOException if a temporary output directory cannot be created
+   */
+  public static NullawayJavac createFromSourceString(
+      String className, String source, String annotatedPackages, List<String> extraErrorProneArgs)
+      throws IOException {
     return new NullawayJavac(
         Collections.singletonList(new JavaSourceFromString(className, source)),
         annotatedPackages,
         null,
-        Collections.emptyList(),
+        extraErrorProneArgs,
         "");
   }
 
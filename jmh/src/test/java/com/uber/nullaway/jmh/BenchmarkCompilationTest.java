@@ -27,4 +27,9 @@ public class BenchmarkCompilationTest {
   public void testDFlowMicro() throws IOException {
     assertTrue(new DataFlowMicroBenchmarkCompiler().compile());
   }
+
+  @Test
+  public void testGenericInference() throws IOException {
+    assertTrue(new GenericInferenceBenchmarkCompiler(8).compile());
+  }
 }
@@ -24,6 +24,7 @@ package com.uber.nullaway;
 
 import com.google.common.collect.ImmutableSet;
 import com.sun.tools.javac.code.Symbol;
+import com.uber.nullaway.dataflow.NullnessStore;
 import com.uber.nullaway.fixserialization.FixSerializationConfig;
 import java.util.Set;
 import org.jspecify.annotations.Nullable;
@@ -269,6 +270,14 @@ public interface Config {
    */
   boolean isSkippedLibraryModel(String classDotMethod);
 
+  /**
+   * Gets the library models that should be skipped/ignored.
+   *
+   * @return The methods for which {@link #isSkippedLibraryModel(String)} returns true, in
+   *     [fully_qualified_class_name].[method_name] format
+   */
+  Set<String> getSkippedLibraryModels();
+
   /**
    * Gets the set of classes that should be treated as equivalent to a Guava fluent futures class.
    *
@@ -318,4 +327,35 @@ public interface Config {
    * @return true if a warning should be issued when generic type inference fails
    */
   boolean warnOnGenericInferenceFailure();
+
+  /**
+   * Gets the budget for the dataflow control flow graph and analysis caches.
+   *
+   * @return maximum total weight of each of the dataflow caches, where the weight of an entry is
+   *     the number of nodes in its control flow graph
+   */
+  long getDataflowCacheMaxWeight();
+
+  /**
+   * Gets the representation to use for the contents of {@link NullnessStore}s during dataflow
+   * analysis.
+   *
+   * @return the store representation
+   */
+  NullnessStore.Representation getNullnessStoreRepresentation();
+
+  /**
+   * Checks if dataflow analysis should be skipped for methods whose bodies contain no possible
+   * source of a nullable value, answering all their dataflow queries with non-null.
+   *
+   * @return true if such methods should not be analyzed
+   */
+  boolean skipDataflowWithoutNullableSources();
+
+  /**
+   * Gets the directory where performance telemetry reports are written, one per compilation unit.
+   *
+   * @return the output directory, or {@code null} if telemetry is disabled
+   */
+  @Nullable String getPerfTelemetryOutputDir();
 }
@@ -27,6 +27,7 @@ import static com.uber.nullaway.ErrorProneCLIFlagsConfig.FL_ANNOTATED_PACKAGES;
 
 import com.google.common.collect.ImmutableSet;
 import com.sun.tools.javac.code.Symbol;
+import com.uber.nullaway.dataflow.NullnessStore;
 import com.uber.nullaway.fixserialization.FixSerializationConfig;
 import java.util.Set;
 import org.jspecify.annotations.Nullable;
@@ -194,6 +195,11 @@ public class DummyOptionsConfig implements Config {
     throw new IllegalStateException(ERROR_MESSAGE);
   }
 
+  @Override
+  public Set<String> getSkippedLibraryModels() {
+    throw new IllegalStateException(ERROR_MESSAGE);
+  }
+
   @Override
   public Set<String> getExtraFuturesClasses() {
     throw new IllegalStateException(ERROR_MESSAGE);
@@ -228,4 +234,24 @@ public class DummyOptionsConfig implements Config {
   public boolean warnOnGenericInferenceFailure() {
     throw new IllegalStateException(ERROR_MESSAGE);
   }
+
+  @Override
+  public long getDataflowCacheMaxWeight() {
+    throw new IllegalStateException(ERROR_MESSAGE);
+  }
+
+  @Override
+  public NullnessStore.Representation getNullnessStoreRepresentation() {
+    throw new IllegalStateException(ERROR_MESSAGE);
+  }
+
+  @Override
+  public boolean skipDataflowWithoutNullableSources() {
+    throw new IllegalStateException(ERROR_MESSAGE);
+  }
+
+  @Override
+  public @Nullable String getPerfTelemetryOutputDir() {
+    throw new IllegalStateException(ERROR_MESSAGE);
+  }
 }
@@ -29,6 +29,7 @@ import com.google.common.collect.Iterables;
 import com.google.errorprone.ErrorProneFlags;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.tools.javac.code.Symbol;
+import com.uber.nullaway.dataflow.NullnessStore;
 import com.uber.nullaway.fixserialization.FixSerializationConfig;
 import com.uber.nullaway.fixserialization.adapters.SerializationAdapter;
 import java.util.Collections;
@@ -104,6 +105,16 @@ final class ErrorProneCLIFlagsConfig implements Config {
   static final String FL_WARN_ON_GENERIC_INFERENCE_FAILURE =
       EP_FL_NAMESPACE + ":WarnOnGenericInferenceFailure";
 
+  static final String FL_DATAFLOW_CACHE_MAX_WEIGHT = EP_FL_NAMESPACE + ":DataflowCacheMaxWeight";
+
+  static final String FL_NULLNESS_STORE_REPRESENTATION =
+      EP_FL_NAMESPACE + ":NullnessStoreRepresentation";
+
+  static final String FL_SKIP_DATAFLOW_WITHOUT_NULLABLE_SOURCES =
+      EP_FL_NAMESPACE + ":SkipDataflowWithoutNullableSources";
+
+  static final String FL_PERF_TELEMETRY_OUTPUT_DIR = EP_FL_NAMESPACE + ":PerfTelemetryOutputDir";
+
   static final String ANNOTATED_PACKAGES_ONLY_NULLMARKED_ERROR_MSG =
       "DO NOT report an issue to Error Prone for this crash!  NullAway configuration is "
           + "incorrect.  "
@@ -192,6 +203,12 @@ final class ErrorProneCLIFlagsConfig implements Config {
 
   private static final String DEFAULT_URL = "http://t.uber.com/nullaway";
 
+  /**
+   * Default budget for the dataflow caches, in control flow graph nodes. Large enough to hold the
+   * CFGs of all methods and lambdas of a typical top-level class.
+   */
+  static final long DEFAULT_DATAFLOW_CACHE_MAX_WEIGHT = 100_000;
+
   /**
    * Packages that we assume have appropriate nullability annotations.
    *
@@ -230,6 +247,10 @@ final class ErrorProneCLIFlagsConfig implements Config {
   private final boolean jspecifyMode;
   private final boolean legacyAnnotationLocation;
   private final boolean warnOnInferenceFailure;
+  private final long dataflowCacheMaxWeight;
+  private final NullnessStore.Representation nullnessStoreRepresentation;
+  private final boolean skipDataflowWithoutNullableSources;
+  private final @Nullable String perfTelemetryOutputDir;
   private final ImmutableSet<MethodClassAndName> knownInitializers;
   private final ImmutableSet<String> excludedClassAnnotations;
   private final ImmutableSet<String> generatedCodeAnnotations;
@@ -315,6 +336,26 @@ final class ErrorProneCLIFlagsConfig implements Config {
               + " is set ");
     }
     warnOnInferenceFailure = flags.getBoolean(FL_WARN_ON_GENERIC_INFERENCE_FAILURE).orElse(false);
+    dataflowCacheMaxWeight =
+        flags
+            .getInteger(FL_DATAFLOW_CACHE_MAX_WEIGHT)
+            .map(Integer::longValue)
+            .orElse(DEFAULT_DATAFLOW_CACHE_MAX_WEIGHT);
+    if (dataflowCacheMaxWeight <= 0) {
+      throw new IllegalStateException(
+          "Invalid -XepOpt:"
+              + FL_DATAFLOW_CACHE_MAX_WEIGHT
+              + " value "
+              + dataflowCacheMaxWeight
+              + ". Must be a positive number of CFG nodes.");
+    }
+    nullnessStoreRepresentation =
+        flags
+            .getEnum(FL_NULLNESS_STORE_REPRESENTATION, NullnessStore.Representation.class)
+            .orElse(NullnessStore.Representation.IMMUTABLE_MAP);
+    skipDataflowWithoutNullableSources =
+        flags.getBoolean(FL_SKIP_DATAFLOW_WITHOUT_NULLABLE_SOURCES).orElse(false);
+    perfTelemetryOutputDir = flags.get(FL_PERF_TELEMETRY_OUTPUT_DIR).orElse(null);
     autofixSuppressionComment = flags.get(FL_SUPPRESS_COMMENT).orElse("");
     optionalClassPaths =
         new ImmutableSet.Builder<String>()
@@ -576,6 +617,11 @@ final class ErrorProneCLIFlagsConfig implements Config {
     return skippedLibraryModels.contains(classDotMethod);
   }
 
+  @Override
+  public ImmutableSet<String> getSkippedLibraryModels() {
+    return skippedLibraryModels;
+  }
+
   @Override
   public ImmutableSet<String> getExtraFuturesClasses() {
     return extraFuturesClasses;
@@ -612,6 +658,26 @@ final class ErrorProneCLIFlagsConfig implements Config {
     return warnOnInferenceFailure;
   }
 
+  @Override
+  public long getDataflowCacheMaxWeight() {
+    return dataflowCacheMaxWeight;
+  }
+
+  @Override
+  public NullnessStore.Representation getNullnessStoreRepresentation() {
+    return nullnessStoreRepresentation;
+  }
+
+  @Override
+  public boolean skipDataflowWithoutNullableSources() {
+    return skipDataflowWithoutNullableSources;
+  }
+
+  @Override
+  public @Nullable String getPerfTelemetryOutputDir() {
+    return perfTelemetryOutputDir;
+  }
+
   record MethodClassAndName(String enclosingClass, String methodName) {
 
     static MethodClassAndName create(String enclosingClass, String methodName) {
@@ -67,6 +67,7 @@ import com.sun.source.tree.ForLoopTree;
 import com.sun.source.tree.IdentifierTree;
 import com.sun.source.tree.IfTree;
 import com.sun.source.tree.LambdaExpressionTree;
+import com.sun.source.tree.LiteralTree;
 import com.sun.source.tree.MemberReferenceTree;
 import com.sun.source.tree.MemberSelectTree;
 import com.sun.source.tree.MethodInvocationTree;
@@ -86,6 +87,7 @@ import com.sun.source.tree.UnaryTree;
 import com.sun.source.tree.VariableTree;
 import com.sun.source.tree.WhileLoopTree;
 import com.sun.source.util.TreePath;
+import com.sun.source.util.TreeScanner;
 import com.sun.source.util.Trees;
 import com.sun.tools.javac.code.Symbol;
 import com.sun.tools.javac.code.Symbol.ClassSymbol;
@@ -96,6 +98,7 @@ import com.sun.tools.javac.tree.JCTree;
 import com.uber.nullaway.ErrorMessage.MessageTypes;
 import com.uber.nullaway.dataflow.AccessPathNullnessAnalysis;
 import com.uber.nullaway.dataflow.EnclosingEnvironmentNullness;
+import com.uber.nullaway.fixserialization.Serializer;
 import com.uber.nullaway.generics.GenericsChecks;
 import com.uber.nullaway.generics.JSpecifyJavacConfig;
 import com.uber.nullaway.handlers.Handler;
@@ -250,6 +253,14 @@ public class NullAway extends BugChecker
     return handler;
   }
 
+  /** Opt-in performance counters; {@link PerfTelemetry#DISABLED} unless configured */
+  private final PerfTelemetry telemetry;
+
+  /** Returns the performance telemetry for this analysis */
+  public PerfTelemetry getPerfTelemetry() {
+    return telemetry;
+  }
+
   /**
    * entities relevant to field initialization per class. cached for performance. nulled out in
    * {@link #matchClass(ClassTree, VisitorState)}
@@ -272,6 +283,24 @@ public class NullAway extends BugChecker
   private final Map<Symbol.ClassSymbol, Multimap<Tree, Element>> initTree2PrevFieldInit =
       new LinkedHashMap<>();
 
+  /**
+   * maps each initialization member (constructor, init block, initializer method, safe init method)
+   * to the instance fields of the receiver known to be @NonNull at its exit. Each exit store is
+   * queried once across the checks of a class, even if the dataflow result of the member has been
+   * evicted from the dataflow cache in the meantime.
+   *
+   * <p>cached for performance. nulled out in {@link #matchClass(ClassTree, VisitorState)}
+   */
+  private final Map<Tree, ImmutableSet<Element>> initTree2NonnullFieldsAtExit =
+      new LinkedHashMap<>();
+
+  /**
+   * like {@link #initTree2NonnullFieldsAtExit}, but for the static fields known to be @NonNull at
+   * the exit of each static initialization member.
+   */
+  private final Map<Tree, ImmutableSet<Element>> initTree2NonnullStaticFieldsAtExit =
+      new LinkedHashMap<>();
+
   /**
    * dynamically computer/overriden nullness facts for certain expressions, such as specific method
    * calls where we can infer a more precise set of facts than those given by the method's
@@ -279,6 +308,13 @@ public class NullAway extends BugChecker
    */
   private final Map<ExpressionTree, Nullness> computedNullnessMap = new LinkedHashMap<>();
 
+  /**
+   * whether each method body analyzed so far may contain a source of nullable values, for {@link
+   * Config#skipDataflowWithoutNullableSources()}. nulled out in {@link #matchClass(ClassTree,
+   * VisitorState)}
+   */
+  private final Map<MethodTree, Boolean> methodHasNullableSources = new LinkedHashMap<>();
+
   /** Logic and state for generics checking */
   private final GenericsChecks genericsChecks;
 
@@ -295,6 +331,7 @@ public class NullAway extends BugChecker
    */
   public NullAway() {
     config = new DummyOptionsConfig();
+    telemetry = PerfTelemetry.DISABLED;
     handler = Handlers.buildEmpty();
     errorBuilder = new ErrorBuilder(config, "", ImmutableSet.of());
     // annoying to leak `this` here; we assign the field last to make it as safe as possible
@@ -304,7 +341,8 @@ public class NullAway extends BugChecker
   @Inject // For future Error Prone versions in which checkers are loaded using Guice
   public NullAway(ErrorProneFlags flags) {
     config = new ErrorProneCLIFlagsConfig(flags);
-    handler = Handlers.buildDefault(config);
+    telemetry = PerfTelemetry.create(config);
+    handler = Handlers.buildDefault(config, telemetry);
     Set<String> allSuppressionNames =
         config.getSuppressionNameAliases().isEmpty()
             ? allNames()
@@ -387,73 +425,88 @@ public class NullAway extends BugChecker
    */
   @Override
   public Description matchReturn(ReturnTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
-    }
-    handler.onMatchReturn(this, tree, state);
-    ExpressionTree retExpr = tree.getExpression();
-    // let's do quick checks on returned expression first
-    if (retExpr == null) {
-      return Description.NO_MATCH;
-    }
-    // now let's check the enclosing method
-    TreePath enclosingMethodOrLambda =
-        NullabilityUtil.findEnclosingMethodOrLambdaOrInitializer(state.getPath());
-    if (enclosingMethodOrLambda == null) {
-      throw new RuntimeException("no enclosing method, lambda or initializer!");
-    }
-    if (!(enclosingMethodOrLambda.getLeaf() instanceof MethodTree
-        || enclosingMethodOrLambda.getLeaf() instanceof LambdaExpressionTree)) {
-      throw new RuntimeException(
-          "return statement outside of a method or lambda! (e.g. in an initializer block)");
-    }
-    Tree leaf = enclosingMethodOrLambda.getLeaf();
-    Symbol.MethodSymbol methodSymbol;
-    LambdaExpressionTree lambdaTree = null;
-    if (leaf instanceof MethodTree enclosingMethod) {
-      methodSymbol = ASTHelpers.getSymbol(enclosingMethod);
-    } else {
-      // we have a lambda
-      lambdaTree = (LambdaExpressionTree) leaf;
-      methodSymbol = NullabilityUtil.getFunctionalInterfaceMethod(lambdaTree, state.getTypes());
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      handler.onMatchReturn(this, tree, state);
+      ExpressionTree retExpr = tree.getExpression();
+      // let's do quick checks on returned expression first
+      if (retExpr == null) {
+        return Description.NO_MATCH;
+      }
+      // now let's check the enclosing method
+      TreePath enclosingMethodOrLambda =
+          NullabilityUtil.findEnclosingMethodOrLambdaOrInitializer(state.getPath());
+      if (enclosingMethodOrLambda == null) {
+        throw new RuntimeException("no enclosing method, lambda or initializer!");
+      }
+      if (!(enclosingMethodOrLambda.getLeaf() instanceof MethodTree
+          || enclosingMethodOrLambda.getLeaf() instanceof LambdaExpressionTree)) {
+        throw new RuntimeException(
+            "return statement outside of a method or lambda! (e.g. in an initializer block)");
+      }
+      Tree leaf = enclosingMethodOrLambda.getLeaf();
+      Symbol.MethodSymbol methodSymbol;
+      LambdaExpressionTree lambdaTree = null;
+      if (leaf instanceof MethodTree enclosingMethod) {
+        methodSymbol = ASTHelpers.getSymbol(enclosingMethod);
+      } else {
+        // we have a lambda
+        lambdaTree = (LambdaExpressionTree) leaf;
+        methodSymbol = NullabilityUtil.getFunctionalInterfaceMethod(lambdaTree, state.getTypes());
+      }
+      return checkReturnExpression(retExpr, methodSymbol, lambdaTree, tree, state);
+    } finally {
+      telemetry.record("NullAway.matchReturn", start);
     }
-    return checkReturnExpression(retExpr, methodSymbol, lambdaTree, tree, state);
   }
 
   @Override
   public Description matchMethodInvocation(MethodInvocationTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      Symbol.MethodSymbol methodSymbol = ASTHelpers.getSymbol(tree);
+      handler.onMatchMethodInvocation(tree, new MethodAnalysisContext(this, state, methodSymbol));
+      // assuming this list does not include the receiver
+      List<? extends ExpressionTree> actualParams = tree.getArguments();
+      return handleInvocation(tree, state, methodSymbol, actualParams);
+    } finally {
+      telemetry.record("NullAway.matchMethodInvocation", start);
     }
-    Symbol.MethodSymbol methodSymbol = ASTHelpers.getSymbol(tree);
-    handler.onMatchMethodInvocation(tree, new MethodAnalysisContext(this, state, methodSymbol));
-    // assuming this list does not include the receiver
-    List<? extends ExpressionTree> actualParams = tree.getArguments();
-    return handleInvocation(tree, state, methodSymbol, actualParams);
   }
 
   @Override
   public Description matchNewClass(NewClassTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
-    }
-    Symbol.MethodSymbol methodSymbol = ASTHelpers.getSymbol(tree);
-    ExpressionTree enclosingExpression = tree.getEnclosingExpression();
-    if (enclosingExpression != null) {
-      // technically this is not a dereference; there is a requireNonNull() call in the
-      // bytecode.  but it's close enough for error reporting
-      state.reportMatch(matchDereference(enclosingExpression, tree, state));
-    }
-    List<? extends ExpressionTree> actualParams = tree.getArguments();
-    if (tree.getClassBody() != null) {
-      // invoking constructor of anonymous class
-      // this constructor just invokes the constructor of the superclass, and
-      // in the AST does not have the parameter nullability annotations from the superclass.
-      // so, treat as if the superclass constructor is being invoked directly
-      // see https://github.com/uber/NullAway/issues/102
-      methodSymbol = getSymbolOfSuperConstructor(methodSymbol, state);
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      Symbol.MethodSymbol methodSymbol = ASTHelpers.getSymbol(tree);
+      ExpressionTree enclosingExpression = tree.getEnclosingExpression();
+      if (enclosingExpression != null) {
+        // technically this is not a dereference; there is a requireNonNull() call in the
+        // bytecode.  but it's close enough for error reporting
+        state.reportMatch(matchDereference(enclosingExpression, tree, state));
+      }
+      List<? extends ExpressionTree> actualParams = tree.getArguments();
+      if (tree.getClassBody() != null) {
+        // invoking constructor of anonymous class
+        // this constructor just invokes the constructor of the superclass, and
+        // in the AST does not have the parameter nullability annotations from the superclass.
+        // so, treat as if the superclass constructor is being invoked directly
+        // see https://github.com/uber/NullAway/issues/102
+        methodSymbol = getSymbolOfSuperConstructor(methodSymbol, state);
+      }
+      return handleInvocation(tree, state, methodSymbol, actualParams);
+    } finally {
+      telemetry.record("NullAway.matchNewClass", start);
     }
-    return handleInvocation(tree, state, methodSymbol, actualParams);
   }
 
   /**
@@ -496,127 +549,147 @@ public class NullAway extends BugChecker
 
   @Override
   public Description matchAssignment(AssignmentTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
-    }
-    Type lhsType = ASTHelpers.getType(tree.getVariable());
-    if (lhsType != null && lhsType.isPrimitive()) {
-      doUnboxingCheck(state, tree.getExpression());
-    }
-    Symbol assigned = ASTHelpers.getSymbol(tree.getVariable());
-    if (assigned instanceof Symbol.MethodSymbol) {
-      // javac generates an AssignmentTree for setting an annotation attribute value.  E.g., for
-      // `@SuppressWarnings("foo")`, javac generates an AssignmentTree of the form `value() =
-      // "foo"`, where the LHS is a MethodSymbol.  We don't want to analyze these.
-      return Description.NO_MATCH;
-    }
-    if (assigned != null && codeAnnotationInfo.isSymbolUnannotated(assigned, config, handler)) {
-      // assigning to symbol that is unannotated
-      return Description.NO_MATCH;
-    }
-    // generics check
-    if (lhsType != null && config.isJSpecifyMode()) {
-      genericsChecks.checkTypeParameterNullnessForAssignability(tree, state);
-    }
-
-    if (config.isJSpecifyMode() && tree.getVariable() instanceof ArrayAccessTree arrayAccess) {
-      // check for a write of a @Nullable value into @NonNull array contents
-      ExpressionTree arrayExpr = arrayAccess.getExpression();
-      ExpressionTree expression = tree.getExpression();
-      Symbol arraySymbol = ASTHelpers.getSymbol(arrayExpr);
-      if (arraySymbol != null) {
-        boolean isElementNullable = isArrayElementNullable(arraySymbol, config);
-        if (!isElementNullable && mayBeNullExpr(state, expression)) {
-          String message = "Writing @Nullable expression into array with @NonNull contents.";
-          ErrorMessage errorMessage =
-              new ErrorMessage(MessageTypes.ASSIGN_NULLABLE_TO_NONNULL_ARRAY, message);
-          return errorBuilder.createErrorDescription(
-              errorMessage, buildDescription(tree), state, arraySymbol);
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      Type lhsType = ASTHelpers.getType(tree.getVariable());
+      if (lhsType != null && lhsType.isPrimitive()) {
+        doUnboxingCheck(state, tree.getExpression());
+      }
+      Symbol assigned = ASTHelpers.getSymbol(tree.getVariable());
+      if (assigned instanceof Symbol.MethodSymbol) {
+        // javac generates an AssignmentTree for setting an annotation attribute value.  E.g., for
+        // `@SuppressWarnings("foo")`, javac generates an AssignmentTree of the form `value() =
+        // "foo"`, where the LHS is a MethodSymbol.  We don't want to analyze these.
+        return Description.NO_MATCH;
+      }
+      if (assigned != null && codeAnnotationInfo.isSymbolUnannotated(assigned, config, handler)) {
+        // assigning to symbol that is unannotated
+        return Description.NO_MATCH;
+      }
+      // generics check
+      if (lhsType != null && config.isJSpecifyMode()) {
+        genericsChecks.checkTypeParameterNullnessForAssignability(tree, state);
+      }
+
+      if (config.isJSpecifyMode() && tree.getVariable() instanceof ArrayAccessTree arrayAccess) {
+        // check for a write of a @Nullable value into @NonNull array contents
+        ExpressionTree arrayExpr = arrayAccess.getExpression();
+        ExpressionTree expression = tree.getExpression();
+        Symbol arraySymbol = ASTHelpers.getSymbol(arrayExpr);
+        if (arraySymbol != null) {
+          boolean isElementNullable = isArrayElementNullable(arraySymbol, config);
+          if (!isElementNullable && mayBeNullExpr(state, expression)) {
+            String message = "Writing @Nullable expression into array with @NonNull contents.";
+            ErrorMessage errorMessage =
+                new ErrorMessage(MessageTypes.ASSIGN_NULLABLE_TO_NONNULL_ARRAY, message);
+            return errorBuilder.createErrorDescription(
+                errorMessage, buildDescription(tree), state, arraySymbol);
+          }
         }
       }
-    }
 
-    if (assigned == null || assigned.getKind() != ElementKind.FIELD) {
-      // not a field of nullable type
-      return Description.NO_MATCH;
-    }
+      if (assigned == null || assigned.getKind() != ElementKind.FIELD) {
+        // not a field of nullable type
+        return Description.NO_MATCH;
+      }
 
-    if (Nullness.hasNullableAnnotation(assigned, config)
-        || handler.onOverrideFieldNullability(assigned)) {
-      // field already annotated
+      if (Nullness.hasNullableAnnotation(assigned, config)
+          || handler.onOverrideFieldNullability(assigned)) {
+        // field already annotated
+        return Description.NO_MATCH;
+      }
+      ExpressionTree expression = tree.getExpression();
+      if (mayBeNullExpr(state, expression)) {
+        String message = "assigning @Nullable expression to @NonNull field";
+        return errorBuilder.createErrorDescriptionForNullAssignment(
+            new ErrorMessage(MessageTypes.ASSIGN_FIELD_NULLABLE, message),
+            expression,
+            buildDescription(tree),
+            state,
+            ASTHelpers.getSymbol(tree.getVariable()));
+      }
+      handler.onNonNullFieldAssignment(assigned, getNullnessAnalysis(state), state);
       return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchAssignment", start);
     }
-    ExpressionTree expression = tree.getExpression();
-    if (mayBeNullExpr(state, expression)) {
-      String message = "assigning @Nullable expression to @NonNull field";
-      return errorBuilder.createErrorDescriptionForNullAssignment(
-          new ErrorMessage(MessageTypes.ASSIGN_FIELD_NULLABLE, message),
-          expression,
-          buildDescription(tree),
-          state,
-          ASTHelpers.getSymbol(tree.getVariable()));
-    }
-    handler.onNonNullFieldAssignment(assigned, getNullnessAnalysis(state), state);
-    return Description.NO_MATCH;
   }
 
   @Override
   public Description matchCompoundAssignment(CompoundAssignmentTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      Type lhsType = ASTHelpers.getType(tree.getVariable());
+      Type stringType = Suppliers.STRING_TYPE.get(state);
+      if (lhsType != null && !state.getTypes().isSameType(lhsType, stringType)) {
+        // both LHS and RHS could get unboxed
+        doUnboxingCheck(state, tree.getVariable(), tree.getExpression());
+      }
       return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchCompoundAssignment", start);
     }
-    Type lhsType = ASTHelpers.getType(tree.getVariable());
-    Type stringType = Suppliers.STRING_TYPE.get(state);
-    if (lhsType != null && !state.getTypes().isSameType(lhsType, stringType)) {
-      // both LHS and RHS could get unboxed
-      doUnboxingCheck(state, tree.getVariable(), tree.getExpression());
-    }
-    return Description.NO_MATCH;
   }
 
   @Override
   public Description matchArrayAccess(ArrayAccessTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      Description description = matchDereference(tree.getExpression(), tree, state);
+      // also check for unboxing of array index expression
+      doUnboxingCheck(state, tree.getIndex());
+      return description;
+    } finally {
+      telemetry.record("NullAway.matchArrayAccess", start);
     }
-    Description description = matchDereference(tree.getExpression(), tree, state);
-    // also check for unboxing of array index expression
-    doUnboxingCheck(state, tree.getIndex());
-    return description;
   }
 
   @Override
   public Description matchMemberSelect(MemberSelectTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
-    }
-    Symbol symbol = ASTHelpers.getSymbol(tree);
-    // Some checks for cases where we know this cannot be a null dereference.  The tree's symbol may
-    // be null in cases where the tree represents part of a package name, e.g., in the package
-    // declaration in a class, or in a requires clause in a module-info.java file; it should never
-    // be null for a real field dereference or method call
-    if (symbol == null
-        || symbol.getSimpleName().toString().equals("class")
-        || symbol.isEnum()
-        || symbol instanceof ModuleElement) {
-      return Description.NO_MATCH;
-    }
-    if ((tree.getExpression() instanceof AnnotatedTypeTree)
-        && !config.isLegacyAnnotationLocation()) {
-      checkNullableAnnotationPositionInType(
-          ((AnnotatedTypeTree) tree.getExpression()).getAnnotations(), tree, state);
-    }
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      Symbol symbol = ASTHelpers.getSymbol(tree);
+      // Some checks for cases where we know this cannot be a null dereference.  The tree's symbol
+      // may be null in cases where the tree represents part of a package name, e.g., in the package
+      // declaration in a class, or in a requires clause in a module-info.java file; it should
+      // never be null for a real field dereference or method call
+      if (symbol == null
+          || symbol.getSimpleName().toString().equals("class")
+          || symbol.isEnum()
+          || symbol instanceof ModuleElement) {
+        return Description.NO_MATCH;
+      }
+      if ((tree.getExpression() instanceof AnnotatedTypeTree)
+          && !config.isLegacyAnnotationLocation()) {
+        checkNullableAnnotationPositionInType(
+            ((AnnotatedTypeTree) tree.getExpression()).getAnnotations(), tree, state);
+      }
 
-    Description badDeref = matchDereference(tree.getExpression(), tree, state);
-    if (!badDeref.equals(Description.NO_MATCH)) {
-      return badDeref;
-    }
-    // if we're accessing a field of this, make sure we're not reading the field before init
-    if (tree.getExpression() instanceof IdentifierTree
-        && ((IdentifierTree) tree.getExpression()).getName().toString().equals("this")) {
-      return checkForReadBeforeInit(tree, state);
+      Description badDeref = matchDereference(tree.getExpression(), tree, state);
+      if (!badDeref.equals(Description.NO_MATCH)) {
+        return badDeref;
+      }
+      // if we're accessing a field of this, make sure we're not reading the field before init
+      if (tree.getExpression() instanceof IdentifierTree
+          && ((IdentifierTree) tree.getExpression()).getName().toString().equals("this")) {
+        return checkForReadBeforeInit(tree, state);
+      }
+      return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchMemberSelect", start);
     }
-    return Description.NO_MATCH;
   }
 
   /**
@@ -670,56 +743,71 @@ public class NullAway extends BugChecker
 
   @Override
   public Description matchMethod(MethodTree tree, VisitorState state) {
-    checkForMethodNullMarkedness(tree, state);
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
-    }
-    if (!config.isLegacyAnnotationLocation()) {
-      checkNullableAnnotationPositionInType(
-          tree.getModifiers().getAnnotations(), tree.getReturnType(), state);
-    }
-    // if the method is overriding some other method,
-    // check that nullability annotations are consistent with
-    // overridden method (if overridden method is in an annotated
-    // package)
-    Symbol.MethodSymbol methodSymbol = ASTHelpers.getSymbol(tree);
-    handler.onMatchMethod(tree, new MethodAnalysisContext(this, state, methodSymbol));
-    boolean isOverriding = ASTHelpers.hasAnnotation(methodSymbol, "java.lang.Override", state);
-    boolean exhaustiveOverride = config.exhaustiveOverride();
-    if (isOverriding || !exhaustiveOverride) {
-      Symbol.MethodSymbol closestOverriddenMethod =
-          NullabilityUtil.getClosestOverriddenMethod(methodSymbol, state.getTypes());
-      if (closestOverriddenMethod != null) {
-        if (config.isJSpecifyMode()) {
-          // Check that any generic type parameters in the return type and parameter types are
-          // identical (invariant) across the overriding and overridden methods
-          genericsChecks.checkTypeParameterNullnessForMethodOverriding(
-              tree, methodSymbol, closestOverriddenMethod, state);
+    long start = telemetry.start();
+    try {
+      checkForMethodNullMarkedness(tree, state);
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      if (!config.isLegacyAnnotationLocation()) {
+        checkNullableAnnotationPositionInType(
+            tree.getModifiers().getAnnotations(), tree.getReturnType(), state);
+      }
+      // if the method is overriding some other method,
+      // check that nullability annotations are consistent with
+      // overridden method (if overridden method is in an annotated
+      // package)
+      Symbol.MethodSymbol methodSymbol = ASTHelpers.getSymbol(tree);
+      handler.onMatchMethod(tree, new MethodAnalysisContext(this, state, methodSymbol));
+      boolean isOverriding = ASTHelpers.hasAnnotation(methodSymbol, "java.lang.Override", state);
+      boolean exhaustiveOverride = config.exhaustiveOverride();
+      if (isOverriding || !exhaustiveOverride) {
+        Symbol.MethodSymbol closestOverriddenMethod =
+            NullabilityUtil.getClosestOverriddenMethod(methodSymbol, state.getTypes());
+        if (closestOverriddenMethod != null) {
+          if (config.isJSpecifyMode()) {
+            // Check that any generic type parameters in the return type and parameter types are
+            // identical (invariant) across the overriding and overridden methods
+            genericsChecks.checkTypeParameterNullnessForMethodOverriding(
+                tree, methodSymbol, closestOverriddenMethod, state);
+          }
+          return checkOverriding(closestOverriddenMethod, methodSymbol, null, state);
         }
-        return checkOverriding(closestOverriddenMethod, methodSymbol, null, state);
       }
+      return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchMethod", start);
     }
-    return Description.NO_MATCH;
   }
 
   @Override
   public Description matchSwitch(SwitchTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
-    }
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
 
-    return checkSwitchSelectorExpression(
-        tree.getExpression(), TreeUtils.hasNullCaseLabel(tree), state);
+      return checkSwitchSelectorExpression(
+          tree.getExpression(), TreeUtils.hasNullCaseLabel(tree), state);
+    } finally {
+      telemetry.record("NullAway.matchSwitch", start);
+    }
   }
 
   @Override
   public Description matchSwitchExpression(SwitchExpressionTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
-    }
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
 
-    return checkSwitchSelectorExpression(
-        tree.getExpression(), TreeUtils.hasNullCaseLabel(tree), state);
+      return checkSwitchSelectorExpression(
+          tree.getExpression(), TreeUtils.hasNullCaseLabel(tree), state);
+    } finally {
+      telemetry.record("NullAway.matchSwitchExpression", start);
+    }
   }
 
   private Description checkSwitchSelectorExpression(
@@ -750,31 +838,41 @@ public class NullAway extends BugChecker
 
   @Override
   public Description matchTypeCast(TypeCastTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      Type castExprType = ASTHelpers.getType(tree);
+      if (castExprType != null && castExprType.isPrimitive()) {
+        // casting to a primitive type performs unboxing
+        doUnboxingCheck(state, tree.getExpression());
+      }
       return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchTypeCast", start);
     }
-    Type castExprType = ASTHelpers.getType(tree);
-    if (castExprType != null && castExprType.isPrimitive()) {
-      // casting to a primitive type performs unboxing
-      doUnboxingCheck(state, tree.getExpression());
-    }
-    return Description.NO_MATCH;
   }
 
   @Override
   public Description matchParameterizedType(ParameterizedTypeTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
-    }
-    if (config.isJSpecifyMode()) {
-      Symbol baseClass = ASTHelpers.getSymbol(tree);
-      boolean isNullUnmarked =
-          baseClass != null && codeAnnotationInfo.isSymbolUnannotated(baseClass, config, handler);
-      if (!isNullUnmarked) {
-        genericsChecks.checkInstantiationForParameterizedTypedTree(tree, state);
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
       }
+      if (config.isJSpecifyMode()) {
+        Symbol baseClass = ASTHelpers.getSymbol(tree);
+        boolean isNullUnmarked =
+            baseClass != null && codeAnnotationInfo.isSymbolUnannotated(baseClass, config, handler);
+        if (!isNullUnmarked) {
+          genericsChecks.checkInstantiationForParameterizedTypedTree(tree, state);
+        }
+      }
+      return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchParameterizedType", start);
     }
-    return Description.NO_MATCH;
   }
 
   /**
@@ -1048,38 +1146,43 @@ public class NullAway extends BugChecker
 
   @Override
   public Description matchLambdaExpression(LambdaExpressionTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
-    }
-    Symbol.MethodSymbol funcInterfaceMethod =
-        NullabilityUtil.getFunctionalInterfaceMethod(tree, state.getTypes());
-    // we need to update environment mapping before running the handler, as some handlers
-    // (like Rx nullability) run dataflow analysis
-    updateEnvironmentMapping(state.getPath(), state);
-    handler.onMatchLambdaExpression(
-        tree, new MethodAnalysisContext(this, state, funcInterfaceMethod));
-    if (codeAnnotationInfo.isSymbolUnannotated(funcInterfaceMethod, config, handler)) {
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      Symbol.MethodSymbol funcInterfaceMethod =
+          NullabilityUtil.getFunctionalInterfaceMethod(tree, state.getTypes());
+      // we need to update environment mapping before running the handler, as some handlers
+      // (like Rx nullability) run dataflow analysis
+      updateEnvironmentMapping(state.getPath(), state);
+      handler.onMatchLambdaExpression(
+          tree, new MethodAnalysisContext(this, state, funcInterfaceMethod));
+      if (codeAnnotationInfo.isSymbolUnannotated(funcInterfaceMethod, config, handler)) {
+        return Description.NO_MATCH;
+      }
+      Description description =
+          checkParamOverriding(
+              tree.getParameters().stream().map(ASTHelpers::getSymbol).collect(Collectors.toList()),
+              funcInterfaceMethod,
+              tree,
+              null,
+              state,
+              null);
+      if (description != Description.NO_MATCH) {
+        return description;
+      }
+      // if the body has a return statement, that gets checked in matchReturn().  We need this code
+      // for lambdas with expression bodies
+      if (tree.getBodyKind() == LambdaExpressionTree.BodyKind.EXPRESSION
+          && funcInterfaceMethod.getReturnType().getKind() != TypeKind.VOID) {
+        ExpressionTree resExpr = (ExpressionTree) tree.getBody();
+        return checkReturnExpression(resExpr, funcInterfaceMethod, tree, tree, state);
+      }
       return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchLambdaExpression", start);
     }
-    Description description =
-        checkParamOverriding(
-            tree.getParameters().stream().map(ASTHelpers::getSymbol).collect(Collectors.toList()),
-            funcInterfaceMethod,
-            tree,
-            null,
-            state,
-            null);
-    if (description != Description.NO_MATCH) {
-      return description;
-    }
-    // if the body has a return statement, that gets checked in matchReturn().  We need this code
-    // for lambdas with expression bodies
-    if (tree.getBodyKind() == LambdaExpressionTree.BodyKind.EXPRESSION
-        && funcInterfaceMethod.getReturnType().getKind() != TypeKind.VOID) {
-      ExpressionTree resExpr = (ExpressionTree) tree.getBody();
-      return checkReturnExpression(resExpr, funcInterfaceMethod, tree, tree, state);
-    }
-    return Description.NO_MATCH;
   }
 
   /**
@@ -1088,22 +1191,28 @@ public class NullAway extends BugChecker
    */
   @Override
   public Description matchMemberReference(MemberReferenceTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
-    }
-    // Technically the qualifier expression of a method reference gets passed to
-    // Objects.requireNonNull, but it's fine to treat it as a dereference for error-checking
-    // purposes.  The error message will be slightly inaccurate
-    Description derefErrorDescription =
-        matchDereference(tree.getQualifierExpression(), tree, state);
-    if (derefErrorDescription != Description.NO_MATCH) {
-      state.reportMatch(derefErrorDescription);
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      // Technically the qualifier expression of a method reference gets passed to
+      // Objects.requireNonNull, but it's fine to treat it as a dereference for error-checking
+      // purposes.  The error message will be slightly inaccurate
+      Description derefErrorDescription =
+          matchDereference(tree.getQualifierExpression(), tree, state);
+      if (derefErrorDescription != Description.NO_MATCH) {
+        state.reportMatch(derefErrorDescription);
+      }
+      Symbol.MethodSymbol referencedMethod = ASTHelpers.getSymbol(tree);
+      Symbol.MethodSymbol funcInterfaceSymbol =
+          NullabilityUtil.getFunctionalInterfaceMethod(tree, state.getTypes());
+      handler.onMatchMethodReference(
+          tree, new MethodAnalysisContext(this, state, referencedMethod));
+      return checkOverriding(funcInterfaceSymbol, referencedMethod, tree, state);
+    } finally {
+      telemetry.record("NullAway.matchMemberReference", start);
     }
-    Symbol.MethodSymbol referencedMethod = ASTHelpers.getSymbol(tree);
-    Symbol.MethodSymbol funcInterfaceSymbol =
-        NullabilityUtil.getFunctionalInterfaceMethod(tree, state.getTypes());
-    handler.onMatchMethodReference(tree, new MethodAnalysisContext(this, state, referencedMethod));
-    return checkOverriding(funcInterfaceSymbol, referencedMethod, tree, state);
   }
 
   /**
@@ -1209,10 +1318,15 @@ public class NullAway extends BugChecker
 
   @Override
   public Description matchIdentifier(IdentifierTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      return checkForReadBeforeInit(tree, state);
+    } finally {
+      telemetry.record("NullAway.matchIdentifier", start);
     }
-    return checkForReadBeforeInit(tree, state);
   }
 
   private Description checkForReadBeforeInit(ExpressionTree tree, VisitorState state) {
@@ -1426,8 +1540,7 @@ public class NullAway extends BugChecker
         }
       }
     }
-    addGuaranteedNonNullFromInvokes(
-        state, getTreesInstance(state), safeInitMethods, getNullnessAnalysis(state), resultBuilder);
+    addGuaranteedNonNullFromInvokes(state, getTreesInstance(state), safeInitMethods, resultBuilder);
     return resultBuilder.build();
   }
 
@@ -1466,7 +1579,6 @@ public class NullAway extends BugChecker
     // NOTE: this set includes both instance and static fields
     Set<Element> initThusFar = new LinkedHashSet<>();
     Set<MethodTree> constructors = new LinkedHashSet<>();
-    AccessPathNullnessAnalysis nullnessAnalysis = getNullnessAnalysis(state);
     // NOTE: we assume the members are returned in their syntactic order.  This has held
     // true in our testing
     for (Tree memberTree : enclosingClass.getMembers()) {
@@ -1478,11 +1590,9 @@ public class NullAway extends BugChecker
         // add whatever gets initialized here
         TreePath memberPath = new TreePath(enclosingClassPath, memberTree);
         if (blockTree.isStatic()) {
-          initThusFar.addAll(
-              nullnessAnalysis.getNonnullStaticFieldsAtExit(memberPath, state.context));
+          initThusFar.addAll(nonnullStaticFieldsAtExit(memberPath, state));
         } else {
-          initThusFar.addAll(
-              nullnessAnalysis.getNonnullFieldsOfReceiverAtExit(memberPath, state.context));
+          initThusFar.addAll(nonnullFieldsOfReceiverAtExit(memberPath, state));
         }
       }
       if (memberTree instanceof MethodTree methodTree) {
@@ -1558,38 +1668,43 @@ public class NullAway extends BugChecker
 
   @Override
   public Description matchVariable(VariableTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
-    }
-    VarSymbol symbol = ASTHelpers.getSymbol(tree);
-    if (tree.getInitializer() != null && config.isJSpecifyMode()) {
-      genericsChecks.checkTypeParameterNullnessForAssignability(tree, state);
-    }
-    if (!config.isLegacyAnnotationLocation()) {
-      checkNullableAnnotationPositionInType(
-          tree.getModifiers().getAnnotations(), tree.getType(), state);
-    }
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      VarSymbol symbol = ASTHelpers.getSymbol(tree);
+      if (tree.getInitializer() != null && config.isJSpecifyMode()) {
+        genericsChecks.checkTypeParameterNullnessForAssignability(tree, state);
+      }
+      if (!config.isLegacyAnnotationLocation()) {
+        checkNullableAnnotationPositionInType(
+            tree.getModifiers().getAnnotations(), tree.getType(), state);
+      }
 
-    if (symbol.type.isPrimitive() && tree.getInitializer() != null) {
-      doUnboxingCheck(state, tree.getInitializer());
-    }
-    if (!symbol.getKind().equals(ElementKind.FIELD)) {
-      return Description.NO_MATCH;
-    }
-    ExpressionTree initializer = tree.getInitializer();
-    if (initializer != null) {
-      if (!symbol.type.isPrimitive() && !skipFieldInitializationCheckingDueToAnnotation(symbol)) {
-        if (mayBeNullExpr(state, initializer)) {
-          ErrorMessage errorMessage =
-              new ErrorMessage(
-                  MessageTypes.ASSIGN_FIELD_NULLABLE,
-                  "assigning @Nullable expression to @NonNull field");
-          return errorBuilder.createErrorDescriptionForNullAssignment(
-              errorMessage, initializer, buildDescription(tree), state, symbol);
+      if (symbol.type.isPrimitive() && tree.getInitializer() != null) {
+        doUnboxingCheck(state, tree.getInitializer());
+      }
+      if (!symbol.getKind().equals(ElementKind.FIELD)) {
+        return Description.NO_MATCH;
+      }
+      ExpressionTree initializer = tree.getInitializer();
+      if (initializer != null) {
+        if (!symbol.type.isPrimitive() && !skipFieldInitializationCheckingDueToAnnotation(symbol)) {
+          if (mayBeNullExpr(state, initializer)) {
+            ErrorMessage errorMessage =
+                new ErrorMessage(
+                    MessageTypes.ASSIGN_FIELD_NULLABLE,
+                    "assigning @Nullable expression to @NonNull field");
+            return errorBuilder.createErrorDescriptionForNullAssignment(
+                errorMessage, initializer, buildDescription(tree), state, symbol);
+          }
         }
       }
+      return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchVariable", start);
     }
-    return Description.NO_MATCH;
   }
 
   /**
@@ -1695,215 +1810,272 @@ public class NullAway extends BugChecker
 
   @Override
   public Description matchClass(ClassTree tree, VisitorState state) {
-    // Ensure codeAnnotationInfo is initialized here since it requires access to the Context,
-    // which is not available in the constructor
-    if (codeAnnotationInfo == null) {
-      codeAnnotationInfo = CodeAnnotationInfo.instance(state.context);
-    }
-    if (!checkedJDKVersionForJSpecifyMode) {
-      checkedJDKVersionForJSpecifyMode = true;
-      if (config.isJSpecifyMode()
-          && !JSpecifyJavacConfig.isValidJavacConfigForJSpecifyMode(state)) {
-        String msg =
-            "Running NullAway in JSpecify mode requires either JDK 22+"
-                + " or passing the flag -XDaddTypeAnnotationsToSymbol=true to an older JDK that supports it;"
-                + " see https://github.com/uber/NullAway/wiki/JSpecify-Support#supported-jdk-versions for details.";
-        throw new IllegalStateException(msg);
-      }
-    }
-    // Check if the class is excluded according to the filter
-    // if so, set the flag to match within the class to false
-    // NOTE: for this mechanism to work, we rely on the enclosing ClassTree
-    // always being visited before code within that class.  We also
-    // assume that a single checker object is not being
-    // used from multiple threads
-    // We don't want to update the flag for nested classes.
-    // Ideally we would keep a stack of flags to handle nested types,
-    // but this is not easy within the Error Prone APIs.
-    // Instead, we use this flag as an optimization, skipping work if the
-    // top-level class is to be skipped. If a nested class should be
-    // skipped, we instead rely on last-minute suppression of the
-    // error message, using the mechanism in
-    // ErrorBuilder.hasPathSuppression(...)
-    Symbol.ClassSymbol classSymbol = ASTHelpers.getSymbol(tree);
-    NestingKind nestingKind = classSymbol.getNestingKind();
-    if (!nestingKind.isNested()) {
-      // Here we optimistically set the marking to either FULLY_UNMARKED or FULLY_MARKED.  If a
-      // nested entity has a contradicting annotation, at that point we update the marking level to
-      // PARTIALLY_MARKED, which will increase checking overhead for the remainder of the top-level
-      // class
-      nullMarkingForTopLevelClass =
-          isExcludedClass(classSymbol) ? NullMarking.FULLY_UNMARKED : NullMarking.FULLY_MARKED;
-      // since we are processing a new top-level class, invalidate any cached
-      // results for previous classes
-      handler.onMatchTopLevelClass(this, tree, state, classSymbol);
-      getNullnessAnalysis(state).invalidateCaches();
-      initTree2PrevFieldInit.clear();
-      class2Entities.clear();
-      class2ConstructorUninit.clear();
-      computedNullnessMap.clear();
-      genericsChecks.clearCache();
-      EnclosingEnvironmentNullness.instance(state.context).clear();
-    } else if (classAnnotationIntroducesPartialMarking(classSymbol)) {
-      // Handle the case where the top-class is unannotated, but there is a @NullMarked annotation
-      // on a nested class, or, conversely the top-level is annotated but there is a @NullUnmarked
-      // annotation on a nested class.
-      nullMarkingForTopLevelClass = NullMarking.PARTIALLY_MARKED;
-    }
-    if (withinAnnotatedCode(state)) {
-      // we need to update the environment before checking field initialization, as the latter
-      // may run dataflow analysis
-      if (nestingKind.equals(NestingKind.LOCAL) || nestingKind.equals(NestingKind.ANONYMOUS)) {
-        updateEnvironmentMapping(state.getPath(), state);
+    long start = telemetry.start();
+    try {
+      // Ensure codeAnnotationInfo is initialized here since it requires access to the Context,
+      // which is not available in the constructor
+      if (codeAnnotationInfo == null) {
+        codeAnnotationInfo = CodeAnnotationInfo.instance(state.context);
+      }
+      if (!checkedJDKVersionForJSpecifyMode) {
+        checkedJDKVersionForJSpecifyMode = true;
+        if (config.isJSpecifyMode()
+            && !JSpecifyJavacConfig.isValidJavacConfigForJSpecifyMode(state)) {
+          String msg =
+              "Running NullAway in JSpecify mode requires either JDK 22+"
+                  + " or passing the flag -XDaddTypeAnnotationsToSymbol=true to an older JDK that supports it;"
+                  + " see https://github.com/uber/NullAway/wiki/JSpecify-Support#supported-jdk-versions for details.";
+          throw new IllegalStateException(msg);
+        }
       }
-      checkFieldInitialization(tree, state);
+      // Check if the class is excluded according to the filter
+      // if so, set the flag to match within the class to false
+      // NOTE: for this mechanism to work, we rely on the enclosing ClassTree
+      // always being visited before code within that class.  We also
+      // assume that a single checker object is not being
+      // used from multiple threads
+      // We don't want to update the flag for nested classes.
+      // Ideally we would keep a stack of flags to handle nested types,
+      // but this is not easy within the Error Prone APIs.
+      // Instead, we use this flag as an optimization, skipping work if the
+      // top-level class is to be skipped. If a nested class should be
+      // skipped, we instead rely on last-minute suppression of the
+      // error message, using the mechanism in
+      // ErrorBuilder.hasPathSuppression(...)
+      Symbol.ClassSymbol classSymbol = ASTHelpers.getSymbol(tree);
+      NestingKind nestingKind = classSymbol.getNestingKind();
+      if (!nestingKind.isNested()) {
+        // Here we optimistically set the marking to either FULLY_UNMARKED or FULLY_MARKED.  If a
+        // nested entity has a contradicting annotation, at that point we update the marking level
+        // to PARTIALLY_MARKED, which will increase checking overhead for the remainder of the
+        // top-level class
+        nullMarkingForTopLevelClass =
+            isExcludedClass(classSymbol) ? NullMarking.FULLY_UNMARKED : NullMarking.FULLY_MARKED;
+        telemetry.onCompilationUnit(state.getPath().getCompilationUnit(), state.context);
+        if (config.serializationIsActive()) {
+          Serializer serializer = config.getSerializationConfig().getSerializer();
+          if (serializer != null) {
+            // serialized rows are buffered until the end of the compilation
+            serializer.closeAtEndOfCompilation(state.context);
+          }
+        }
+        // since we are processing a new top-level class, invalidate any cached
+        // results for previous classes
+        handler.onMatchTopLevelClass(this, tree, state, classSymbol);
+        getNullnessAnalysis(state).invalidateCaches();
+        initTree2PrevFieldInit.clear();
+        initTree2NonnullFieldsAtExit.clear();
+        initTree2NonnullStaticFieldsAtExit.clear();
+        class2Entities.clear();
+        class2ConstructorUninit.clear();
+        computedNullnessMap.clear();
+        methodHasNullableSources.clear();
+        genericsChecks.clearCache();
+        EnclosingEnvironmentNullness.instance(state.context).clear();
+      } else if (classAnnotationIntroducesPartialMarking(classSymbol)) {
+        // Handle the case where the top-class is unannotated, but there is a @NullMarked annotation
+        // on a nested class, or, conversely the top-level is annotated but there is a @NullUnmarked
+        // annotation on a nested class.
+        nullMarkingForTopLevelClass = NullMarking.PARTIALLY_MARKED;
+      }
+      if (withinAnnotatedCode(state)) {
+        // we need to update the environment before checking field initialization, as the latter
+        // may run dataflow analysis
+        if (nestingKind.equals(NestingKind.LOCAL) || nestingKind.equals(NestingKind.ANONYMOUS)) {
+          updateEnvironmentMapping(state.getPath(), state);
+        }
+        checkFieldInitialization(tree, state);
+      }
+      return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchClass", start);
     }
-    return Description.NO_MATCH;
   }
 
   // UNBOXING CHECKS
 
   @Override
   public Description matchBinary(BinaryTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
-    }
-    // Perform unboxing checks on operands if needed
-    Type binaryExprType = ASTHelpers.getType(tree);
-    // If the type of the expression is not primitive, we do not need to do unboxing checks.  This
-    // handles the case of `+` used for string concatenation
-    if (binaryExprType == null || !binaryExprType.isPrimitive()) {
-      return Description.NO_MATCH;
-    }
-    Tree.Kind kind = tree.getKind();
-    ExpressionTree leftOperand = tree.getLeftOperand();
-    ExpressionTree rightOperand = tree.getRightOperand();
-    if (kind.equals(Tree.Kind.EQUAL_TO) || kind.equals(Tree.Kind.NOT_EQUAL_TO)) {
-      // here we need a check if one operand is of primitive type and the other is not, as that will
-      // cause unboxing of the non-primitive operand
-      Type leftType = ASTHelpers.getType(leftOperand);
-      Type rightType = ASTHelpers.getType(rightOperand);
-      if (leftType == null || rightType == null) {
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      // Perform unboxing checks on operands if needed
+      Type binaryExprType = ASTHelpers.getType(tree);
+      // If the type of the expression is not primitive, we do not need to do unboxing checks.  This
+      // handles the case of `+` used for string concatenation
+      if (binaryExprType == null || !binaryExprType.isPrimitive()) {
         return Description.NO_MATCH;
       }
-      if (leftType.isPrimitive() && !rightType.isPrimitive()) {
-        doUnboxingCheck(state, rightOperand);
-      } else if (rightType.isPrimitive() && !leftType.isPrimitive()) {
-        doUnboxingCheck(state, leftOperand);
+      Tree.Kind kind = tree.getKind();
+      ExpressionTree leftOperand = tree.getLeftOperand();
+      ExpressionTree rightOperand = tree.getRightOperand();
+      if (kind.equals(Tree.Kind.EQUAL_TO) || kind.equals(Tree.Kind.NOT_EQUAL_TO)) {
+        // here we need a check if one operand is of primitive type and the other is not, as that
+        // will cause unboxing of the non-primitive operand
+        Type leftType = ASTHelpers.getType(leftOperand);
+        Type rightType = ASTHelpers.getType(rightOperand);
+        if (leftType == null || rightType == null) {
+          return Description.NO_MATCH;
+        }
+        if (leftType.isPrimitive() && !rightType.isPrimitive()) {
+          doUnboxingCheck(state, rightOperand);
+        } else if (rightType.isPrimitive() && !leftType.isPrimitive()) {
+          doUnboxingCheck(state, leftOperand);
+        }
+      } else {
+        // in all other cases, both operands should be checked
+        doUnboxingCheck(state, leftOperand, rightOperand);
       }
-    } else {
-      // in all other cases, both operands should be checked
-      doUnboxingCheck(state, leftOperand, rightOperand);
+      return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchBinary", start);
     }
-    return Description.NO_MATCH;
   }
 
   @Override
   public Description matchUnary(UnaryTree tree, VisitorState state) {
-    if (withinAnnotatedCode(state)) {
-      doUnboxingCheck(state, tree.getExpression());
+    long start = telemetry.start();
+    try {
+      if (withinAnnotatedCode(state)) {
+        doUnboxingCheck(state, tree.getExpression());
+      }
+      return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchUnary", start);
     }
-    return Description.NO_MATCH;
   }
 
   @Override
   public Description matchConditionalExpression(
       ConditionalExpressionTree tree, VisitorState state) {
-    if (withinAnnotatedCode(state)) {
-      if (config.isJSpecifyMode()) {
-        genericsChecks.checkTypeParameterNullnessForConditionalExpression(tree, state);
+    long start = telemetry.start();
+    try {
+      if (withinAnnotatedCode(state)) {
+        if (config.isJSpecifyMode()) {
+          genericsChecks.checkTypeParameterNullnessForConditionalExpression(tree, state);
+        }
+        doUnboxingCheck(state, tree.getCondition());
       }
-      doUnboxingCheck(state, tree.getCondition());
+      return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchConditionalExpression", start);
     }
-    return Description.NO_MATCH;
   }
 
   @Override
   public Description matchIf(IfTree tree, VisitorState state) {
-    if (withinAnnotatedCode(state)) {
-      doUnboxingCheck(state, tree.getCondition());
+    long start = telemetry.start();
+    try {
+      if (withinAnnotatedCode(state)) {
+        doUnboxingCheck(state, tree.getCondition());
+      }
+      return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchIf", start);
     }
-    return Description.NO_MATCH;
   }
 
   @Override
   public Description matchWhileLoop(WhileLoopTree tree, VisitorState state) {
-    if (withinAnnotatedCode(state)) {
-      doUnboxingCheck(state, tree.getCondition());
+    long start = telemetry.start();
+    try {
+      if (withinAnnotatedCode(state)) {
+        doUnboxingCheck(state, tree.getCondition());
+      }
+      return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchWhileLoop", start);
     }
-    return Description.NO_MATCH;
   }
 
   @Override
   public Description matchForLoop(ForLoopTree tree, VisitorState state) {
-    if (withinAnnotatedCode(state) && tree.getCondition() != null) {
-      doUnboxingCheck(state, tree.getCondition());
+    long start = telemetry.start();
+    try {
+      if (withinAnnotatedCode(state) && tree.getCondition() != null) {
+        doUnboxingCheck(state, tree.getCondition());
+      }
+      return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchForLoop", start);
     }
-    return Description.NO_MATCH;
   }
 
   @Override
   public Description matchEnhancedForLoop(EnhancedForLoopTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
-      return Description.NO_MATCH;
-    }
-    ExpressionTree expr = tree.getExpression();
-    ErrorMessage errorMessage =
-        new ErrorMessage(
-            MessageTypes.DEREFERENCE_NULLABLE,
-            "enhanced-for expression " + state.getSourceForNode(expr) + " is @Nullable");
-    if (mayBeNullExpr(state, expr)) {
-      return errorBuilder.createErrorDescription(errorMessage, buildDescription(expr), state, null);
-    }
-    // auto-unboxing check in JSpecify mode
-    if (!config.isJSpecifyMode()) {
-      return Description.NO_MATCH;
-    }
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      ExpressionTree expr = tree.getExpression();
+      ErrorMessage errorMessage =
+          new ErrorMessage(
+              MessageTypes.DEREFERENCE_NULLABLE,
+              "enhanced-for expression " + state.getSourceForNode(expr) + " is @Nullable");
+      if (mayBeNullExpr(state, expr)) {
+        return errorBuilder.createErrorDescription(
+            errorMessage, buildDescription(expr), state, null);
+      }
+      // auto-unboxing check in JSpecify mode
+      if (!config.isJSpecifyMode()) {
+        return Description.NO_MATCH;
+      }
 
-    VariableTree loopVariable = tree.getVariable();
-    Type loopVariableType = ASTHelpers.getType(loopVariable);
-    // Only relevant when the loop variable is a primitive (implies unboxing of elements).
-    if (loopVariableType == null || !loopVariableType.isPrimitive()) {
-      return Description.NO_MATCH;
-    }
-    Type expressionType = ASTHelpers.getType(expr);
-    if (expressionType != null && expressionType.getKind() == TypeKind.ARRAY) {
-      Symbol arraySymbol = ASTHelpers.getSymbol(expr);
-      if (arraySymbol != null && isArrayElementNullable(arraySymbol, config)) {
-        // A nullable element is being unboxed to a primitive. This is unsafe.
-        ErrorMessage errorMessageUnbox =
-            new ErrorMessage(MessageTypes.UNBOX_NULLABLE, "unboxing of a @Nullable value");
-        state.reportMatch(
-            errorBuilder.createErrorDescription(
-                errorMessageUnbox, buildDescription(loopVariable), state, null));
+      VariableTree loopVariable = tree.getVariable();
+      Type loopVariableType = ASTHelpers.getType(loopVariable);
+      // Only relevant when the loop variable is a primitive (implies unboxing of elements).
+      if (loopVariableType == null || !loopVariableType.isPrimitive()) {
+        return Description.NO_MATCH;
+      }
+      Type expressionType = ASTHelpers.getType(expr);
+      if (expressionType != null && expressionType.getKind() == TypeKind.ARRAY) {
+        Symbol arraySymbol = ASTHelpers.getSymbol(expr);
+        if (arraySymbol != null && isArrayElementNullable(arraySymbol, config)) {
+          // A nullable element is being unboxed to a primitive. This is unsafe.
+          ErrorMessage errorMessageUnbox =
+              new ErrorMessage(MessageTypes.UNBOX_NULLABLE, "unboxing of a @Nullable value");
+          state.reportMatch(
+              errorBuilder.createErrorDescription(
+                  errorMessageUnbox, buildDescription(loopVariable), state, null));
+        }
       }
-    }
 
-    return Description.NO_MATCH;
+      return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchEnhancedForLoop", start);
+    }
   }
 
   @Override
   public Description matchSynchronized(SynchronizedTree tree, VisitorState state) {
-    if (!withinAnnotatedCode(state)) {
+    long start = telemetry.start();
+    try {
+      if (!withinAnnotatedCode(state)) {
+        return Description.NO_MATCH;
+      }
+      ExpressionTree lockExpr = tree.getExpression();
+      // For a synchronized block `synchronized (e) { ... }`, javac returns `(e)` as the expression.
+      // We strip the outermost parentheses for a nicer-looking error message.
+      if (lockExpr instanceof ParenthesizedTree) {
+        lockExpr = ((ParenthesizedTree) lockExpr).getExpression();
+      }
+      if (mayBeNullExpr(state, lockExpr)) {
+        ErrorMessage errorMessage =
+            new ErrorMessage(
+                MessageTypes.DEREFERENCE_NULLABLE,
+                "synchronized block expression \""
+                    + state.getSourceForNode(lockExpr)
+                    + "\" is @Nullable");
+        return errorBuilder.createErrorDescription(
+            errorMessage, buildDescription(lockExpr), state, null);
+      }
       return Description.NO_MATCH;
+    } finally {
+      telemetry.record("NullAway.matchSynchronized", start);
     }
-    ExpressionTree lockExpr = tree.getExpression();
-    // For a synchronized block `synchronized (e) { ... }`, javac returns `(e)` as the expression.
-    // We strip the outermost parentheses for a nicer-looking error message.
-    if (lockExpr instanceof ParenthesizedTree) {
-      lockExpr = ((ParenthesizedTree) lockExpr).getExpression();
-    }
-    if (mayBeNullExpr(state, lockExpr)) {
-      ErrorMessage errorMessage =
-          new ErrorMessage(
-              MessageTypes.DEREFERENCE_NULLABLE,
-              "synchronized block expression \""
-                  + state.getSourceForNode(lockExpr)
-                  + "\" is @Nullable");
-      return errorBuilder.createErrorDescription(
-          errorMessage, buildDescription(lockExpr), state, null);
-    }
-    return Description.NO_MATCH;
   }
 
   /**
@@ -2245,13 +2417,9 @@ public class NullAway extends BugChecker
       ImmutableSet.Builder<Element> initInSomeInitializerBuilder,
       BlockTree block,
       TreePath path) {
-    AccessPathNullnessAnalysis nullnessAnalysis = getNullnessAnalysis(state);
-    Set<Element> nonnullAtExit =
-        nullnessAnalysis.getNonnullFieldsOfReceiverAtExit(path, state.context);
-    initInSomeInitializerBuilder.addAll(nonnullAtExit);
+    initInSomeInitializerBuilder.addAll(nonnullFieldsOfReceiverAtExit(path, state));
     Set<Element> safeInitMethods = getSafeInitMethods(block, classSymbol, state);
-    addGuaranteedNonNullFromInvokes(
-        state, trees, safeInitMethods, nullnessAnalysis, initInSomeInitializerBuilder);
+    addGuaranteedNonNullFromInvokes(state, trees, safeInitMethods, initInSomeInitializerBuilder);
   }
 
   /**
@@ -2297,13 +2465,10 @@ public class NullAway extends BugChecker
       FieldInitEntities entities, VisitorState state, Trees trees, MethodTree constructor) {
     Set<Element> safeInitMethods =
         getSafeInitMethods(constructor.getBody(), entities.classSymbol(), state);
-    AccessPathNullnessAnalysis nullnessAnalysis = getNullnessAnalysis(state);
     ImmutableSet.Builder<Element> guaranteedNonNullBuilder = ImmutableSet.builder();
     guaranteedNonNullBuilder.addAll(
-        nullnessAnalysis.getNonnullFieldsOfReceiverAtExit(
-            new TreePath(state.getPath(), constructor), state.context));
-    addGuaranteedNonNullFromInvokes(
-        state, trees, safeInitMethods, nullnessAnalysis, guaranteedNonNullBuilder);
+        nonnullFieldsOfReceiverAtExit(new TreePath(state.getPath(), constructor), state));
+    addGuaranteedNonNullFromInvokes(state, trees, safeInitMethods, guaranteedNonNullBuilder);
     return guaranteedNonNullBuilder.build();
   }
 
@@ -2321,18 +2486,13 @@ public class NullAway extends BugChecker
   private Set<Symbol> notInitializedStatic(FieldInitEntities entities, VisitorState state) {
     ImmutableSet<Symbol> nonNullStaticFields = entities.nonnullStaticFields();
     Set<Element> initializedInStaticInitializers = new LinkedHashSet<>();
-    AccessPathNullnessAnalysis nullnessAnalysis = getNullnessAnalysis(state);
     for (BlockTree initializer : entities.staticInitializerBlocks()) {
-      Set<Element> nonnullAtExit =
-          nullnessAnalysis.getNonnullStaticFieldsAtExit(
-              new TreePath(state.getPath(), initializer), state.context);
-      initializedInStaticInitializers.addAll(nonnullAtExit);
+      initializedInStaticInitializers.addAll(
+          nonnullStaticFieldsAtExit(new TreePath(state.getPath(), initializer), state));
     }
     for (MethodTree initializerMethod : entities.staticInitializerMethods()) {
-      Set<Element> nonnullAtExit =
-          nullnessAnalysis.getNonnullStaticFieldsAtExit(
-              new TreePath(state.getPath(), initializerMethod), state.context);
-      initializedInStaticInitializers.addAll(nonnullAtExit);
+      initializedInStaticInitializers.addAll(
+          nonnullStaticFieldsAtExit(new TreePath(state.getPath(), initializerMethod), state));
     }
     Set<Symbol> notInitializedStaticFields = new LinkedHashSet<>();
     for (Symbol field : nonNullStaticFields) {
@@ -2347,16 +2507,55 @@ public class NullAway extends BugChecker
       VisitorState state,
       Trees trees,
       Set<Element> safeInitMethods,
-      AccessPathNullnessAnalysis nullnessAnalysis,
       ImmutableSet.Builder<Element> guaranteedNonNullBuilder) {
     for (Element invoked : safeInitMethods) {
       Tree invokedTree = trees.getTree(invoked);
       guaranteedNonNullBuilder.addAll(
-          nullnessAnalysis.getNonnullFieldsOfReceiverAtExit(
-              new TreePath(state.getPath(), invokedTree), state.context));
+          nonnullFieldsOfReceiverAtExit(new TreePath(state.getPath(), invokedTree), state));
     }
   }
 
+  /**
+   * @param initPath TreePath to a constructor, initializer block, or (safe) initializer method
+   * @param state visitor state
+   * @return the instance fields of the receiver guaranteed to be @NonNull at the exit of the
+   *     member, computed at most once per member of the current top-level class
+   */
+  private ImmutableSet<Element> nonnullFieldsOfReceiverAtExit(
+      TreePath initPath, VisitorState state) {
+    ImmutableSet<Element> result = initTree2NonnullFieldsAtExit.get(initPath.getLeaf());
+    if (result != null) {
+      // reported so that the dataflow lookups avoided by reusing exit stores can be counted
+      telemetry.count("NullAway.reusedInitExitStores", 1);
+      return result;
+    }
+    result =
+        ImmutableSet.copyOf(
+            getNullnessAnalysis(state).getNonnullFieldsOfReceiverAtExit(initPath, state.context));
+    initTree2NonnullFieldsAtExit.put(initPath.getLeaf(), result);
+    return result;
+  }
+
+  /**
+   * @param initPath TreePath to a static initializer block or method
+   * @param state visitor state
+   * @return the static fields guaranteed to be @NonNull at the exit of the member, computed at most
+   *     once per member of the current top-level class
+   */
+  private ImmutableSet<Element> nonnullStaticFieldsAtExit(TreePath initPath, VisitorState state) {
+    ImmutableSet<Element> result = initTree2NonnullStaticFieldsAtExit.get(initPath.getLeaf());
+    if (result != null) {
+      // reported so that the dataflow lookups avoided by reusing exit stores can be counted
+      telemetry.count("NullAway.reusedInitExitStores", 1);
+      return result;
+    }
+    result =
+        ImmutableSet.copyOf(
+            getNullnessAnalysis(state).getNonnullStaticFieldsAtExit(initPath, state.context));
+    initTree2NonnullStaticFieldsAtExit.put(initPath.getLeaf(), result);
+    return result;
+  }
+
   /**
    * @param blockTree block of statements
    * @param state visitor state
@@ -2689,7 +2888,149 @@ public class NullAway extends BugChecker
               "whoops, better handle " + expr.getKind() + " " + state.getSourceForNode(expr));
     }
     exprMayBeNull = handler.onOverrideMayBeNullExpr(this, expr, exprSymbol, state, exprMayBeNull);
-    return exprMayBeNull && nullnessFromDataflow(state, expr);
+    return exprMayBeNull
+        && !inMethodWithoutNullableSources(state)
+        && nullnessFromDataflow(state, expr);
+  }
+
+  /**
+   * Checks if the current path is directly inside a method (not a lambda or initializer) whose body
+   * contains no source of nullable values, in which case dataflow analysis would find every
+   * expression in it to be non-null.
+   *
+   * <p>This is only attempted outside JSpecify mode, where generic type arguments can make
+   * otherwise non-null expressions nullable, and for methods of top-level or member classes, since
+   * methods of local and anonymous classes can read locals captured from their enclosing method.
+   */
+  private boolean inMethodWithoutNullableSources(VisitorState state) {
+    if (!config.skipDataflowWithoutNullableSources() || config.isJSpecifyMode()) {
+      return false;
+    }
+    TreePath path = state.getPath();
+    while (path != null) {
+      Tree leaf = path.getLeaf();
+      if (leaf instanceof MethodTree methodTree) {
+        TreePath classPath = path.getParentPath();
+        if (classPath == null || !(classPath.getLeaf() instanceof ClassTree classTree)) {
+          return false;
+        }
+        NestingKind nestingKind = ASTHelpers.getSymbol(classTree).getNestingKind();
+        if (nestingKind.equals(NestingKind.LOCAL) || nestingKind.equals(NestingKind.ANONYMOUS)) {
+          return false;
+        }
+        Boolean hasSources = methodHasNullableSources.get(methodTree);
+        if (hasSources == null) {
+          hasSources = mayHaveNullableSources(methodTree, state);
+          methodHasNullableSources.put(methodTree, hasSources);
+          if (!hasSources) {
+            // reported so that the methods whose dataflow analysis is skipped can be counted
+            telemetry.count("NullAway.methodsWithoutNullableSources", 1);
+          }
+        }
+        return !hasSources;
+      }
+      if (leaf instanceof LambdaExpressionTree || leaf instanceof ClassTree) {
+        return false;
+      }
+      path = path.getParentPath();
+    }
+    return false;
+  }
+
+  /**
+   * Conservatively checks if a method may produce a nullable value: a nullable parameter, a {@code
+   * null} literal, or a field read or method call that {@code mayBeNullExpr} would consider
+   * nullable before consulting dataflow. Nested lambdas and classes are scanned too, which is
+   * conservative.
+   */
+  private boolean mayHaveNullableSources(MethodTree methodTree, VisitorState state) {
+    Symbol.MethodSymbol methodSymbol = ASTHelpers.getSymbol(methodTree);
+    List<Symbol.VarSymbol> params = methodSymbol.getParameters();
+    for (int i = 0; i < params.size(); i++) {
+      Symbol.VarSymbol param = params.get(i);
+      boolean isVarargs = methodSymbol.isVarArgs() && i == params.size() - 1;
+      if (isVarargs
+          ? Nullness.varargsArrayIsNullable(param, config)
+          : Nullness.hasNullableAnnotation(param, config)) {
+        return true;
+      }
+    }
+    BlockTree body = methodTree.getBody();
+    if (body == null) {
+      return false;
+    }
+    NullableSourceScanner scanner = new NullableSourceScanner(state);
+    scanner.scan(body, null);
+    return scanner.found;
+  }
+
+  /** Scans a method body for possible sources of nullable values. */
+  private final class NullableSourceScanner extends TreeScanner<@Nullable Void, @Nullable Void> {
+
+    private final VisitorState state;
+
+    private boolean found = false;
+
+    NullableSourceScanner(VisitorState state) {
+      this.state = state;
+    }
+
+    @Override
+    public @Nullable Void scan(@Nullable Tree tree, @Nullable Void unused) {
+      // stop as soon as one source is found
+      return found ? null : super.scan(tree, unused);
+    }
+
+    @Override
+    public @Nullable Void visitLiteral(LiteralTree tree, @Nullable Void unused) {
+      if (tree.getKind() == Tree.Kind.NULL_LITERAL) {
+        found = true;
+      }
+      return null;
+    }
+
+    @Override
+    public @Nullable Void visitMethodInvocation(MethodInvocationTree tree, @Nullable Void unused) {
+      Symbol symbol = ASTHelpers.getSymbol(tree);
+      if (!(symbol instanceof Symbol.MethodSymbol methodSymbol)) {
+        found = true;
+        return null;
+      }
+      found =
+          handler.onOverrideMayBeNullExpr(
+              NullAway.this,
+              tree,
+              methodSymbol,
+              state,
+              mayBeNullMethodCall(methodSymbol, tree, state));
+      return super.visitMethodInvocation(tree, unused);
+    }
+
+    @Override
+    public @Nullable Void visitIdentifier(IdentifierTree tree, @Nullable Void unused) {
+      checkFieldRead(tree);
+      return null;
+    }
+
+    @Override
+    public @Nullable Void visitMemberSelect(MemberSelectTree tree, @Nullable Void unused) {
+      checkFieldRead(tree);
+      return super.visitMemberSelect(tree, unused);
+    }
+
+    private void checkFieldRead(ExpressionTree tree) {
+      Symbol symbol = ASTHelpers.getSymbol(tree);
+      if (symbol != null && symbol.getKind() == ElementKind.FIELD) {
+        found =
+            handler.onOverrideMayBeNullExpr(
+                NullAway.this,
+                tree,
+                symbol,
+                state,
+                NullabilityUtil.mayBeNullFieldFromType(
+                    symbol, config, handler, codeAnnotationInfo));
+      }
+    }
   }
 
   private boolean mayBeNullMethodCall(
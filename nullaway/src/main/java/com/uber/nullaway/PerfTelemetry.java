@@ -0,0 +1,227 @@
+package com.uber.nullaway;
+
+import com.sun.source.tree.CompilationUnitTree;
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Opt-in wall time and invocation counters for NullAway's own work, reported per compilation unit.
+ *
+ * <p>Telemetry is enabled by {@code -XepOpt:NullAway:PerfTelemetryOutputDir=<dir>}. Code to be
+ * measured calls {@link #start()} before the work and {@link #record(String, long)} after it, in a
+ * {@code finally} block. When telemetry is disabled both return immediately; when enabled they read
+ * {@link System#nanoTime()} and update the counters of a probe, allocating only the first time a
+ * probe name is seen. Events that are counted but not timed, e.g., cache hits, are added with
+ * {@link #count(String, long)}, directly or from a {@link CounterSource}.
+ *
+ * <p>When NullAway moves on to a new compilation unit, and at the end of the compilation, the
+ * counters of the previous unit are written to {@code <dir>/<package>.<file name>.csv}, with one
+ * {@code probe,count,total_nanos} row per probe that was hit, and then reset. Times are inclusive:
+ * a callback that triggers another measured operation (e.g., a matcher that runs dataflow) includes
+ * the time of that operation. Counted-only probes have a total time of 0. A report that cannot be
+ * written is skipped with a warning, as telemetry must not fail the compilation.
+ */
+public final class PerfTelemetry {
+
+  /** Telemetry that records nothing. */
+  public static final PerfTelemetry DISABLED = new PerfTelemetry(null);
+
+  private static final String HEADER = "probe,count,total_nanos";
+
+  /** Counters kept outside of the telemetry, e.g., cache statistics, added to every report. */
+  public interface CounterSource {
+
+    /**
+     * Adds the counts since the previous report, with {@link PerfTelemetry#count(String, long)}.
+     *
+     * @param telemetry telemetry of the report being written
+     */
+    void addCountsTo(PerfTelemetry telemetry);
+  }
+
+  /** Counters for one measured operation. */
+  private static final class Probe {
+    private long count;
+    private long nanos;
+  }
+
+  private final @Nullable Path outputDir;
+
+  private final Map<String, Probe> probes = new LinkedHashMap<>();
+
+  private final List<CounterSource> counterSources = new ArrayList<>();
+
+  /** Report file name for the compilation unit being analyzed, if any. */
+  private @Nullable String currentUnitName;
+
+  private boolean registeredCompilationListener = false;
+
+  private PerfTelemetry(@Nullable Path outputDir) {
+    this.outputDir = outputDir;
+  }
+
+  /**
+   * Creates the telemetry for a NullAway instance.
+   *
+   * @param config NullAway config
+   * @return new telemetry writing to {@link Config#getPerfTelemetryOutputDir()}, or {@link
+   *     #DISABLED} if no output directory is configured
+   */
+  public static PerfTelemetry create(Config config) {
+    String outputDir = config.getPerfTelemetryOutputDir();
+    return outputDir == null ? DISABLED : new PerfTelemetry(Paths.get(outputDir));
+  }
+
+  /**
+   * Returns a start time to pass to {@link #record(String, long)}.
+   *
+   * @return the current {@link System#nanoTime()}, or 0 if telemetry is disabled
+   */
+  public long start() {
+    return outputDir == null ? 0L : System.nanoTime();
+  }
+
+  /**
+   * Records one invocation of an operation.
+   *
+   * @param probeName name of the operation, e.g., {@code NullAway.matchMethod}
+   * @param start the value returned by {@link #start()} before the operation
+   */
+  public void record(String probeName, long start) {
+    if (outputDir == null) {
+      return;
+    }
+    long elapsed = System.nanoTime() - start;
+    Probe probe = probe(probeName);
+    probe.count++;
+    probe.nanos += elapsed;
+  }
+
+  /**
+   * Records events that are counted but not timed.
+   *
+   * @param probeName name of the event, e.g., {@code DataFlow.cfgCache.hits}
+   * @param count number of events
+   */
+  public void count(String probeName, long count) {
+    if (outputDir == null || count == 0) {
+      return;
+    }
+    probe(probeName).count += count;
+  }
+
+  /**
+   * Registers a source of counters, which is asked for its counts before every report is written.
+   * Does nothing if telemetry is disabled.
+   *
+   * @param source the source
+   */
+  public void addCounterSource(CounterSource source) {
+    if (outputDir != null) {
+      counterSources.add(source);
+    }
+  }
+
+  private Probe probe(String probeName) {
+    Probe probe = probes.get(probeName);
+    if (probe == null) {
+      probe = new Probe();
+      probes.put(probeName, probe);
+    }
+    return probe;
+  }
+
+  /**
+   * Notifies the telemetry that NullAway is analyzing a top-level class of {@code unit}. If this is
+   * a new compilation unit, the report for the previous one is written.
+   *
+   * @param unit the compilation unit being analyzed
+   * @param context javac context, used to write the last report at the end of the compilation
+   */
+  public void onCompilationUnit(CompilationUnitTree unit, Context context) {
+    if (outputDir == null) {
+      return;
+    }
+    if (!registeredCompilationListener) {
+      // There is no Error Prone API to signal the end of the analysis, so listen for the end of the
+      // compilation directly
+      JavacTask.instance(JavacProcessingEnvironment.instance(context))
+          .addTaskListener(
+              new TaskListener() {
+                @Override
+                public void finished(TaskEvent e) {
+                  if (e.getKind() == TaskEvent.Kind.COMPILATION) {
+                    writeReport();
+                  }
+                }
+              });
+      registeredCompilationListener = true;
+    }
+    String unitName = reportFileName(unit);
+    if (!unitName.equals(currentUnitName)) {
+      writeReport();
+      currentUnitName = unitName;
+    }
+  }
+
+  private static String reportFileName(CompilationUnitTree unit) {
+    String path = unit.getSourceFile().getName();
+    String fileName = path.substring(Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\')) + 1);
+    ExpressionTree packageName = unit.getPackageName();
+    return (packageName == null ? "" : packageName + ".") + fileName + ".csv";
+  }
+
+  /** Writes the counters of the current compilation unit, if any were hit, and resets them. */
+  private void writeReport() {
+    Path dir = outputDir;
+    String unitName = currentUnitName;
+    if (dir == null || unitName == null) {
+      return;
+    }
+    for (CounterSource source : counterSources) {
+      source.addCountsTo(this);
+    }
+    StringBuilder report = new StringBuilder(HEADER).append('\n');
+    boolean anyHit = false;
+    for (Map.Entry<String, Probe> entry : probes.entrySet()) {
+      Probe probe = entry.getValue();
+      if (probe.count == 0) {
+        continue;
+      }
+      anyHit = true;
+      report.append(entry.getKey()).append(',');
+      report.append(probe.count).append(',');
+      report.append(probe.nanos).append('\n');
+      probe.count = 0;
+      probe.nanos = 0;
+    }
+    currentUnitName = null;
+    if (!anyHit) {
+      return;
+    }
+    try {
+      Files.createDirectories(dir);
+      try (Writer writer = Files.newBufferedWriter(dir.resolve(unitName), StandardCharsets.UTF_8)) {
+        writer.write(report.toString());
+      }
+    } catch (IOException e) {
+      System.err.println(
+          "warning: NullAway could not write telemetry report for " + unitName + ": " + e);
+    }
+  }
+}
@@ -82,7 +82,12 @@ public final class AccessPathNullnessAnalysis {
             apContext,
             analysis,
             new CoreNullnessStoreInitializer(analysis.getGenericsChecks()));
-    this.dataFlow = new DataFlow(config.assertsEnabled(), handler);
+    this.dataFlow =
+        new DataFlow(
+            config.assertsEnabled(),
+            handler,
+            config.getDataflowCacheMaxWeight(),
+            analysis.getPerfTelemetry());
 
     if (config.checkContracts()) {
       this.contractNullnessPropagation =
@@ -213,8 +213,10 @@ public class AccessPathNullnessPropagation
   @Override
   public NullnessStore initialStore(
       UnderlyingAST underlyingAST, List<LocalVariableNode> parameters) {
-    return nullnessStoreInitializer.getInitialStore(
-        underlyingAST, parameters, handler, state.context, state.getTypes(), config);
+    return nullnessStoreInitializer
+        .getInitialStore(
+            underlyingAST, parameters, handler, state.context, state.getTypes(), config)
+        .withRepresentation(config.getNullnessStoreRepresentation());
   }
 
   @Override
@@ -25,6 +25,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.BlockTree;
@@ -38,6 +39,7 @@ import com.sun.source.util.TreePath;
 import com.sun.tools.javac.processing.JavacProcessingEnvironment;
 import com.sun.tools.javac.util.Context;
 import com.uber.nullaway.NullabilityUtil;
+import com.uber.nullaway.PerfTelemetry;
 import com.uber.nullaway.dataflow.cfg.NullAwayCFGBuilder;
 import com.uber.nullaway.handlers.Handler;
 import java.util.HashMap;
@@ -50,6 +52,7 @@ import org.checkerframework.nullaway.dataflow.analysis.Store;
 import org.checkerframework.nullaway.dataflow.analysis.TransferFunction;
 import org.checkerframework.nullaway.dataflow.cfg.ControlFlowGraph;
 import org.checkerframework.nullaway.dataflow.cfg.UnderlyingAST;
+import org.checkerframework.nullaway.dataflow.cfg.block.Block;
 import org.jspecify.annotations.Nullable;
 
 /**
@@ -60,79 +63,143 @@ import org.jspecify.annotations.Nullable;
  */
 public final class DataFlow {
 
+  private final boolean assertsEnabled;
+
+  private final Handler handler;
+
+  private final long cacheMaxWeight;
+
+  private final PerfTelemetry telemetry;
+
   /*
    * We cache both the control flow graph and the analyses that are run on it.
    *
    * Unlike in Error Prone's core analyses, sometimes we do not complete all analyses on a CFG
-   * before moving on to the next one.  So, here we set a reasonable maximum size to avoid leaks,
-   * and also expose an API method to clear the caches.
+   * before moving on to the next one.  So, here we bound the caches to avoid leaks, and also expose
+   * an API method to clear the caches.  Rather than bounding the number of entries, we weigh each
+   * entry by the number of nodes in its CFG, so that classes with many small methods and lambdas
+   * do not cause CFGs to be evicted and rebuilt, while a few huge methods still cannot exhaust the
+   * heap.
    */
-  private static final int MAX_CACHE_SIZE = 50;
+  private final LoadingCache<AnalysisParams, RunOnceForwardAnalysisImpl<?, ?, ?>> analysisCache;
 
-  private final boolean assertsEnabled;
+  private final LoadingCache<CfgParams, ControlFlowGraph> cfgCache;
 
-  private final Handler handler;
+  /** Cache statistics as of the previous telemetry report, so each report has its own counts. */
+  private CacheStats reportedCfgCacheStats;
+
+  private CacheStats reportedAnalysisCacheStats;
 
-  DataFlow(boolean assertsEnabled, Handler handler) {
+  DataFlow(
+      boolean assertsEnabled, Handler handler, long cacheMaxWeight, PerfTelemetry telemetry) {
     this.assertsEnabled = assertsEnabled;
     this.handler = handler;
+    this.cacheMaxWeight = cacheMaxWeight;
+    this.telemetry = telemetry;
+    this.analysisCache =
+        CacheBuilder.newBuilder()
+            // a single segment, so the full budget is available to every entry
+            .concurrencyLevel(1)
+            .maximumWeight(cacheMaxWeight)
+            .weigher(
+                (AnalysisParams key, RunOnceForwardAnalysisImpl<?, ?, ?> value) ->
+                    weigh(key.cfg()))
+            .recordStats()
+            .build(
+                new CacheLoader<>() {
+                  @Override
+                  public RunOnceForwardAnalysisImpl<?, ?, ?> load(AnalysisParams key) {
+                    ForwardTransferFunction<?, ?> transfer = key.transferFunction();
+                    return new RunOnceForwardAnalysisImpl<>(transfer);
+                  }
+                });
+    this.cfgCache =
+        CacheBuilder.newBuilder()
+            .concurrencyLevel(1)
+            .maximumWeight(cacheMaxWeight)
+            .weigher((CfgParams key, ControlFlowGraph value) -> weigh(value))
+            .recordStats()
+            .build(
+                new CacheLoader<CfgParams, ControlFlowGraph>() {
+                  @Override
+                  public ControlFlowGraph load(CfgParams key) {
+                    long start = telemetry.start();
+                    ControlFlowGraph cfg = buildControlFlowGraph(key);
+                    telemetry.record("DataFlow.buildControlFlowGraph", start);
+                    return cfg;
+                  }
+                });
+    this.reportedCfgCacheStats = cfgCache.stats();
+    this.reportedAnalysisCacheStats = analysisCache.stats();
+    telemetry.addCounterSource(this::addCacheCountsTo);
   }
 
-  private final LoadingCache<AnalysisParams, RunOnceForwardAnalysisImpl<?, ?, ?>> analysisCache =
-      CacheBuilder.newBuilder()
-          .maximumSize(MAX_CACHE_SIZE)
-          .build(
-              new CacheLoader<>() {
-                @Override
-                public RunOnceForwardAnalysisImpl<?, ?, ?> load(AnalysisParams key) {
-                  ForwardTransferFunction<?, ?> transfer = key.transferFunction();
-                  return new RunOnceForwardAnalysisImpl<>(transfer);
-                }
-              });
-
-  private final LoadingCache<CfgParams, ControlFlowGraph> cfgCache =
-      CacheBuilder.newBuilder()
-          .maximumSize(MAX_CACHE_SIZE)
-          .build(
-              new CacheLoader<CfgParams, ControlFlowGraph>() {
-                @Override
-                public ControlFlowGraph load(CfgParams key) {
-                  TreePath codePath = key.codePath();
-                  TreePath bodyPath;
-                  UnderlyingAST ast;
-                  ProcessingEnvironment env = key.environment();
-                  if (codePath.getLeaf() instanceof LambdaExpressionTree) {
-                    LambdaExpressionTree lambdaExpressionTree =
-                        (LambdaExpressionTree) codePath.getLeaf();
-                    MethodTree enclMethod =
-                        ASTHelpers.findEnclosingNode(codePath, MethodTree.class);
-                    ClassTree enclClass =
-                        castToNonNull(ASTHelpers.findEnclosingNode(codePath, ClassTree.class));
-                    ast = new UnderlyingAST.CFGLambda(lambdaExpressionTree, enclClass, enclMethod);
-                    bodyPath = new TreePath(codePath, lambdaExpressionTree.getBody());
-                  } else if (codePath.getLeaf() instanceof MethodTree) {
-                    MethodTree method = (MethodTree) codePath.getLeaf();
-                    ClassTree enclClass =
-                        castToNonNull(ASTHelpers.findEnclosingNode(codePath, ClassTree.class));
-                    ast = new UnderlyingAST.CFGMethod(method, enclClass);
-                    BlockTree body = method.getBody();
-                    if (body == null) {
-                      throw new IllegalStateException(
-                          "trying to compute CFG for method " + method + ", which has no body");
-                    }
-                    bodyPath = new TreePath(codePath, body);
-                  } else {
-                    // must be an initializer per findEnclosingMethodOrLambdaOrInitializer
-                    ast =
-                        new UnderlyingAST.CFGStatement(
-                            codePath.getLeaf(), (ClassTree) codePath.getParentPath().getLeaf());
-                    bodyPath = codePath;
-                  }
+  /**
+   * Reports the hits, misses and evictions of both caches since the previous report. Evictions
+   * caused by {@link #invalidateCaches()} are not counted.
+   */
+  private void addCacheCountsTo(PerfTelemetry telemetry) {
+    CacheStats cfgStats = cfgCache.stats();
+    addCacheCounts(telemetry, "DataFlow.cfgCache", cfgStats.minus(reportedCfgCacheStats));
+    reportedCfgCacheStats = cfgStats;
+    CacheStats analysisStats = analysisCache.stats();
+    addCacheCounts(
+        telemetry, "DataFlow.analysisCache", analysisStats.minus(reportedAnalysisCacheStats));
+    reportedAnalysisCacheStats = analysisStats;
+  }
+
+  private static void addCacheCounts(PerfTelemetry telemetry, String cacheName, CacheStats stats) {
+    telemetry.count(cacheName + ".hits", stats.hitCount());
+    telemetry.count(cacheName + ".misses", stats.missCount());
+    telemetry.count(cacheName + ".evictions", stats.evictionCount());
+  }
+
+  private ControlFlowGraph buildControlFlowGraph(CfgParams key) {
+    TreePath codePath = key.codePath();
+    TreePath bodyPath;
+    UnderlyingAST ast;
+    ProcessingEnvironment env = key.environment();
+    if (codePath.getLeaf() instanceof LambdaExpressionTree) {
+      LambdaExpressionTree lambdaExpressionTree = (LambdaExpressionTree) codePath.getLeaf();
+      MethodTree enclMethod = ASTHelpers.findEnclosingNode(codePath, MethodTree.class);
+      ClassTree enclClass = castToNonNull(ASTHelpers.findEnclosingNode(codePath, ClassTree.class));
+      ast = new UnderlyingAST.CFGLambda(lambdaExpressionTree, enclClass, enclMethod);
+      bodyPath = new TreePath(codePath, lambdaExpressionTree.getBody());
+    } else if (codePath.getLeaf() instanceof MethodTree) {
+      MethodTree method = (MethodTree) codePath.getLeaf();
+      ClassTree enclClass = castToNonNull(ASTHelpers.findEnclosingNode(codePath, ClassTree.class));
+      ast = new UnderlyingAST.CFGMethod(method, enclClass);
+      BlockTree body = method.getBody();
+      if (body == null) {
+        throw new IllegalStateException(
+            "trying to compute CFG for method " + method + ", which has no body");
+      }
+      bodyPath = new TreePath(codePath, body);
+    } else {
+      // must be an initializer per findEnclosingMethodOrLambdaOrInitializer
+      ast =
+          new UnderlyingAST.CFGStatement(
+              codePath.getLeaf(), (ClassTree) codePath.getParentPath().getLeaf());
+      bodyPath = codePath;
+    }
 
-                  return NullAwayCFGBuilder.build(
-                      bodyPath, ast, assertsEnabled, !assertsEnabled, env, handler);
-                }
-              });
+    return NullAwayCFGBuilder.build(bodyPath, ast, assertsEnabled, !assertsEnabled, env, handler);
+  }
+
+  /**
+   * Computes the cache weight of a control flow graph, i.e., its number of nodes. The weight is
+   * capped at the cache budget, as Guava immediately evicts any entry heavier than the full budget,
+   * which would rebuild the CFG of a huge method on every query. A CFG at the cap still takes the
+   * whole budget, so caching it evicts every other entry.
+   */
+  private int weigh(ControlFlowGraph cfg) {
+    long nodes = 0;
+    for (Block block : cfg.getAllBlocks()) {
+      // every block counts for at least one, so that empty CFGs are not free
+      nodes += Math.max(1, block.getNodes().size());
+    }
+    return (int) Math.min(nodes, Math.min(cacheMaxWeight, Integer.MAX_VALUE));
+  }
 
   /**
    * Run the {@code transfer} dataflow analysis over the method, lambda or initializer which is the
@@ -160,7 +227,9 @@ public final class DataFlow {
     RunOnceForwardAnalysisImpl<A, S, T> analysis =
         (RunOnceForwardAnalysisImpl<A, S, T>) analysisCache.getUnchecked(aparams);
     if (performAnalysis) {
+      long start = telemetry.start();
       analysis.performAnalysis(cfg);
+      telemetry.record("DataFlow.performAnalysis", start);
     }
 
     return new Result<>() {
@@ -0,0 +1,280 @@
+package com.uber.nullaway.dataflow;
+
+import static com.uber.nullaway.NullabilityUtil.castToNonNull;
+
+import com.uber.nullaway.Nullness;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Predicate;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An immutable map from keys to {@link Nullness} values, encoded as bitsets over a numbering of the
+ * keys that is shared by all maps derived from the same {@link #empty()} map.
+ *
+ * <p>Each key in the numbering owns one bit in each of three {@code long}s: whether the key is
+ * present, whether its value admits {@code null}, and whether it admits a non-null value. {@link
+ * Nullness#NULLABLE} sets both of the latter bits, {@link Nullness#NULL} and {@link
+ * Nullness#NONNULL} one each, and {@link Nullness#BOTTOM} neither, so that the least upper bound of
+ * two maps is the intersection of their present bits and the union of their value bits.
+ *
+ * <p>A numbering holds at most {@link #MAX_KEYS} keys; {@link #with(Object, Nullness)} returns
+ * {@code null} when a new key does not fit, and callers are expected to fall back to a general map.
+ * The numbering only grows, and is not thread-safe; it is meant to be shared by the stores of a
+ * single dataflow analysis.
+ */
+final class NullnessBitSetMap<K> extends AbstractMap<K, Nullness> {
+
+  /** Maximum number of distinct keys in a numbering. */
+  static final int MAX_KEYS = Long.SIZE;
+
+  /** An append-only numbering of keys, shared by related maps. */
+  private static final class Numbering<K> {
+    private final List<K> keys = new ArrayList<>();
+    private final Map<K, Integer> indices = new HashMap<>();
+
+    /** Returns the index of {@code key}, or -1 if it has not been numbered. */
+    int indexOf(Object key) {
+      Integer index = indices.get(key);
+      return index == null ? -1 : index;
+    }
+
+    /** Returns the index of {@code key}, numbering it if needed, or -1 if the numbering is full. */
+    int indexOrAdd(K key) {
+      Integer index = indices.get(key);
+      if (index != null) {
+        return index;
+      }
+      if (keys.size() == MAX_KEYS) {
+        return -1;
+      }
+      int newIndex = keys.size();
+      keys.add(key);
+      indices.put(key, newIndex);
+      return newIndex;
+    }
+
+    K keyAt(int index) {
+      return keys.get(index);
+    }
+  }
+
+  private final Numbering<K> numbering;
+
+  /** Bit i is set iff the key numbered i is in the map. */
+  private final long present;
+
+  /** Bit i is set iff the key numbered i is present and maps to NULLABLE or NULL. */
+  private final long mayBeNull;
+
+  /** Bit i is set iff the key numbered i is present and maps to NULLABLE or NONNULL. */
+  private final long mayBeNonNull;
+
+  private NullnessBitSetMap(
+      Numbering<K> numbering, long present, long mayBeNull, long mayBeNonNull) {
+    this.numbering = numbering;
+    this.present = present;
+    this.mayBeNull = mayBeNull;
+    this.mayBeNonNull = mayBeNonNull;
+  }
+
+  /** Returns an empty map with a fresh numbering. */
+  static <K> NullnessBitSetMap<K> empty() {
+    return new NullnessBitSetMap<>(new Numbering<>(), 0L, 0L, 0L);
+  }
+
+  /**
+   * Returns a map with the same entries as {@code map} and a fresh numbering, or {@code null} if
+   * {@code map} has more than {@link #MAX_KEYS} entries.
+   */
+  static <K> @Nullable NullnessBitSetMap<K> copyOf(Map<K, Nullness> map) {
+    if (map.size() > MAX_KEYS) {
+      return null;
+    }
+    NullnessBitSetMap<K> result = empty();
+    for (Map.Entry<K, Nullness> entry : map.entrySet()) {
+      // cannot overflow, given the size check above
+      result = castToNonNull(result.with(entry.getKey(), entry.getValue()));
+    }
+    return result;
+  }
+
+  /** Returns an empty map sharing this map's numbering. */
+  NullnessBitSetMap<K> cleared() {
+    return present == 0L ? this : new NullnessBitSetMap<>(numbering, 0L, 0L, 0L);
+  }
+
+  /**
+   * Returns a map that also maps {@code key} to {@code value}, or this map if it already does.
+   * Returns {@code null} if {@code key} is new and the numbering is full.
+   */
+  @Nullable NullnessBitSetMap<K> with(K key, Nullness value) {
+    int index = numbering.indexOrAdd(key);
+    if (index < 0) {
+      return null;
+    }
+    long bit = 1L << index;
+    long newMayBeNull = (mayBeNull & ~bit) | (admitsNull(value) ? bit : 0L);
+    long newMayBeNonNull = (mayBeNonNull & ~bit) | (admitsNonNull(value) ? bit : 0L);
+    long newPresent = present | bit;
+    if (newPresent == present && newMayBeNull == mayBeNull && newMayBeNonNull == mayBeNonNull) {
+      return this;
+    }
+    return new NullnessBitSetMap<>(numbering, newPresent, newMayBeNull, newMayBeNonNull);
+  }
+
+  /** Returns a map with only the entries whose keys satisfy {@code pred}. */
+  NullnessBitSetMap<K> filterKeys(Predicate<K> pred) {
+    long kept = 0L;
+    for (long bits = present; bits != 0L; bits &= bits - 1) {
+      int index = Long.numberOfTrailingZeros(bits);
+      if (pred.test(numbering.keyAt(index))) {
+        kept |= 1L << index;
+      }
+    }
+    return kept == present
+        ? this
+        : new NullnessBitSetMap<>(numbering, kept, mayBeNull & kept, mayBeNonNull & kept);
+  }
+
+  /** Returns whether this map and {@code other} share a numbering, so they can be joined. */
+  @SuppressWarnings("ReferenceEquality")
+  boolean hasSameNumbering(NullnessBitSetMap<?> other) {
+    return numbering == other.numbering;
+  }
+
+  /**
+   * Returns the least upper bound of this map and {@code other}, which must share a numbering: the
+   * keys present in both, each mapped to the least upper bound of its two values. Returns this map
+   * or {@code other} if the result equals it.
+   */
+  NullnessBitSetMap<K> leastUpperBound(NullnessBitSetMap<K> other) {
+    if (!hasSameNumbering(other)) {
+      throw new IllegalArgumentException("maps with different numberings cannot be joined");
+    }
+    long newPresent = present & other.present;
+    long newMayBeNull = (mayBeNull | other.mayBeNull) & newPresent;
+    long newMayBeNonNull = (mayBeNonNull | other.mayBeNonNull) & newPresent;
+    if (hasBits(newPresent, newMayBeNull, newMayBeNonNull)) {
+      return this;
+    }
+    if (other.hasBits(newPresent, newMayBeNull, newMayBeNonNull)) {
+      return other;
+    }
+    return new NullnessBitSetMap<>(numbering, newPresent, newMayBeNull, newMayBeNonNull);
+  }
+
+  private boolean hasBits(long present, long mayBeNull, long mayBeNonNull) {
+    return this.present == present
+        && this.mayBeNull == mayBeNull
+        && this.mayBeNonNull == mayBeNonNull;
+  }
+
+  private static boolean admitsNull(Nullness value) {
+    return value == Nullness.NULLABLE || value == Nullness.NULL;
+  }
+
+  private static boolean admitsNonNull(Nullness value) {
+    return value == Nullness.NULLABLE || value == Nullness.NONNULL;
+  }
+
+  private static boolean isSet(long bits, int index) {
+    return (bits & (1L << index)) != 0L;
+  }
+
+  private Nullness valueAt(int index) {
+    boolean isNull = isSet(mayBeNull, index);
+    boolean isNonNull = isSet(mayBeNonNull, index);
+    if (isNull) {
+      return isNonNull ? Nullness.NULLABLE : Nullness.NULL;
+    }
+    return isNonNull ? Nullness.NONNULL : Nullness.BOTTOM;
+  }
+
+  private int presentIndexOf(@Nullable Object key) {
+    if (key == null) {
+      return -1;
+    }
+    int index = numbering.indexOf(key);
+    return index >= 0 && isSet(present, index) ? index : -1;
+  }
+
+  @Override
+  public @Nullable Nullness get(@Nullable Object key) {
+    int index = presentIndexOf(key);
+    return index < 0 ? null : valueAt(index);
+  }
+
+  @Override
+  public Nullness getOrDefault(@Nullable Object key, Nullness defaultValue) {
+    int index = presentIndexOf(key);
+    return index < 0 ? defaultValue : valueAt(index);
+  }
+
+  @Override
+  public boolean containsKey(@Nullable Object key) {
+    return presentIndexOf(key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return Long.bitCount(present);
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return present == 0L;
+  }
+
+  @Override
+  public Set<Map.Entry<K, Nullness>> entrySet() {
+    return new AbstractSet<>() {
+      @Override
+      public Iterator<Map.Entry<K, Nullness>> iterator() {
+        return new Iterator<>() {
+          private long remaining = present;
+
+          @Override
+          public boolean hasNext() {
+            return remaining != 0L;
+          }
+
+          @Override
+          public Map.Entry<K, Nullness> next() {
+            if (remaining == 0L) {
+              throw new NoSuchElementException();
+            }
+            int index = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            return new SimpleImmutableEntry<>(numbering.keyAt(index), valueAt(index));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return Long.bitCount(present);
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (o instanceof NullnessBitSetMap<?> other && hasSameNumbering(other)) {
+      return hasBits(other.present, other.mayBeNull, other.mayBeNonNull);
+    }
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    return super.hashCode();
+  }
+}
@@ -16,6 +16,8 @@
 
 package com.uber.nullaway.dataflow;
 
+import static com.uber.nullaway.NullabilityUtil.castToNonNull;
+
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.VisitorState;
@@ -25,7 +27,6 @@ import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
-import java.util.stream.Collectors;
 import javax.lang.model.element.Element;
 import javax.lang.model.element.ElementKind;
 import javax.lang.model.element.Modifier;
@@ -42,12 +43,48 @@ import org.jspecify.annotations.Nullable;
  */
 public class NullnessStore implements Store<NullnessStore> {
 
+  /** The map implementations a store can use for its contents. */
+  public enum Representation {
+    /**
+     * An {@link ImmutableMap}, copied in full on every update. Cheapest for lookups and for stores
+     * with few access paths.
+     */
+    IMMUTABLE_MAP,
+    /**
+     * A {@link PersistentHashMap}, where updates share structure with the original store and
+     * unchanged stores can be detected by reference comparison. Cheaper for methods tracking many
+     * access paths.
+     */
+    PERSISTENT_MAP,
+    /**
+     * A {@link NullnessBitSetMap}, which numbers the access paths of an analysis once and encodes
+     * facts as bitsets, so joins are a few bitwise operations. Stores tracking more than {@link
+     * NullnessBitSetMap#MAX_KEYS} access paths fall back to {@link #IMMUTABLE_MAP}.
+     */
+    BITSET
+  }
+
   private static final NullnessStore EMPTY = new NullnessStore(ImmutableMap.of());
 
-  private final ImmutableMap<AccessPath, Nullness> contents;
+  private static final NullnessStore EMPTY_PERSISTENT =
+      new NullnessStore(PersistentHashMap.empty());
+
+  /**
+   * An {@link ImmutableMap}, a {@link PersistentHashMap} or a {@link NullnessBitSetMap}; never
+   * mutated.
+   */
+  private final Map<AccessPath, Nullness> contents;
+
+  private NullnessStore(ImmutableMap<AccessPath, Nullness> contents) {
+    this.contents = contents;
+  }
 
-  private NullnessStore(Map<AccessPath, Nullness> contents) {
-    this.contents = ImmutableMap.copyOf(contents);
+  private NullnessStore(PersistentHashMap<AccessPath, Nullness> contents) {
+    this.contents = contents;
+  }
+
+  private NullnessStore(NullnessBitSetMap<AccessPath> contents) {
+    this.contents = contents;
   }
 
   /**
@@ -59,6 +96,37 @@ public class NullnessStore implements Store<NullnessStore> {
     return EMPTY;
   }
 
+  /**
+   * Returns a store with the same contents as this one, using the given representation. Stores
+   * derived from the result (via {@link #toBuilder()} or {@link #leastUpperBound(NullnessStore)})
+   * keep that representation.
+   *
+   * @param representation the desired representation
+   * @return a store with the given representation
+   */
+  public NullnessStore withRepresentation(Representation representation) {
+    return switch (representation) {
+      case IMMUTABLE_MAP ->
+          contents instanceof ImmutableMap
+              ? this
+              : new NullnessStore(ImmutableMap.copyOf(contents));
+      case PERSISTENT_MAP ->
+          contents instanceof PersistentHashMap
+              ? this
+              : new NullnessStore(PersistentHashMap.copyOf(contents));
+      case BITSET -> {
+        if (contents instanceof NullnessBitSetMap) {
+          yield this;
+        }
+        // a fresh numbering of access paths, shared by all stores derived from this one
+        NullnessBitSetMap<AccessPath> bitSetContents = NullnessBitSetMap.copyOf(contents);
+        yield bitSetContents == null
+            ? withRepresentation(Representation.IMMUTABLE_MAP)
+            : new NullnessStore(bitSetContents);
+      }
+    };
+  }
+
   /**
    * Get the nullness for a local variable.
    *
@@ -166,23 +234,37 @@ public class NullnessStore implements Store<NullnessStore> {
     if (this == other) {
       return this;
     }
-    ImmutableMap<AccessPath, Nullness> thisContents = this.contents;
+    Map<AccessPath, Nullness> thisContents = this.contents;
     int thisContentsSize = thisContents.size();
     if (thisContentsSize == 0) {
       return this;
     }
-    ImmutableMap<AccessPath, Nullness> otherContents = other.contents;
+    Map<AccessPath, Nullness> otherContents = other.contents;
     int otherContentsSize = otherContents.size();
     if (otherContentsSize == 0) {
       return other;
     }
-    ImmutableMap<AccessPath, Nullness> smallContents, largeContents;
+    NullnessStore smallStore, largeStore;
     if (thisContentsSize < otherContentsSize) {
-      smallContents = thisContents;
-      largeContents = otherContents;
+      smallStore = this;
+      largeStore = other;
     } else {
-      smallContents = otherContents;
-      largeContents = thisContents;
+      smallStore = other;
+      largeStore = this;
+    }
+    Map<AccessPath, Nullness> smallContents = smallStore.contents;
+    Map<AccessPath, Nullness> largeContents = largeStore.contents;
+    if (smallContents instanceof NullnessBitSetMap<AccessPath> smallBitSet
+        && largeContents instanceof NullnessBitSetMap<AccessPath> largeBitSet
+        && smallBitSet.hasSameNumbering(largeBitSet)) {
+      NullnessBitSetMap<AccessPath> result = smallBitSet.leastUpperBound(largeBitSet);
+      if (result == smallBitSet) {
+        return smallStore;
+      }
+      return result == largeBitSet ? largeStore : new NullnessStore(result);
+    }
+    if (smallContents instanceof PersistentHashMap || largeContents instanceof PersistentHashMap) {
+      return persistentLeastUpperBound(smallStore, largeContents);
     }
     ImmutableMap.Builder<AccessPath, Nullness> upperBoundContentsBuilder = ImmutableMap.builder();
     for (Map.Entry<AccessPath, Nullness> entry : smallContents.entrySet()) {
@@ -196,6 +278,32 @@ public class NullnessStore implements Store<NullnessStore> {
     return new NullnessStore(upperBoundContentsBuilder.build());
   }
 
+  /**
+   * Computes the least upper bound as a persistent map, by removing from and updating the smaller
+   * store's contents, so that the result shares structure with it. If no entry changes, the
+   * smaller store itself is returned.
+   */
+  @SuppressWarnings("ReferenceEquality")
+  private static NullnessStore persistentLeastUpperBound(
+      NullnessStore smallStore, Map<AccessPath, Nullness> largeContents) {
+    PersistentHashMap<AccessPath, Nullness> smallContents =
+        PersistentHashMap.copyOf(smallStore.contents);
+    PersistentHashMap<AccessPath, Nullness> result = smallContents;
+    for (Map.Entry<AccessPath, Nullness> entry : smallContents.entrySet()) {
+      AccessPath ap = entry.getKey();
+      Nullness largeValue = largeContents.get(ap);
+      if (largeValue == null) {
+        result = result.without(ap);
+      } else {
+        result = result.with(ap, entry.getValue().leastUpperBound(largeValue));
+      }
+    }
+    if (result == smallStore.contents) {
+      return smallStore;
+    }
+    return result.isEmpty() ? EMPTY_PERSISTENT : new NullnessStore(result);
+  }
+
   @Override
   public NullnessStore widenedUpperBound(NullnessStore vNullnessStore) {
     return leastUpperBound(vNullnessStore);
@@ -249,7 +357,13 @@ public class NullnessStore implements Store<NullnessStore> {
    */
   public NullnessStore uprootAccessPaths(
       Map<LocalVariableNode, LocalVariableNode> localVarTranslations) {
-    NullnessStore.Builder nullnessBuilder = NullnessStore.empty().toBuilder();
+    NullnessStore prototype;
+    if (contents instanceof NullnessBitSetMap<AccessPath> bitSetContents) {
+      prototype = new NullnessStore(bitSetContents.cleared());
+    } else {
+      prototype = contents instanceof PersistentHashMap ? EMPTY_PERSISTENT : EMPTY;
+    }
+    NullnessStore.Builder nullnessBuilder = prototype.toBuilder();
     for (AccessPath ap : contents.keySet()) {
       Element element = ap.getRoot();
       if (element == null) {
@@ -274,10 +388,22 @@ public class NullnessStore implements Store<NullnessStore> {
    * @return NullnessStore containing only AccessPaths that pass the predicate
    */
   public NullnessStore filterAccessPaths(Predicate<AccessPath> pred) {
+    if (contents instanceof NullnessBitSetMap<AccessPath> bitSetContents) {
+      return new NullnessStore(bitSetContents.filterKeys(pred));
+    }
+    if (contents instanceof PersistentHashMap<AccessPath, Nullness> persistentContents) {
+      PersistentHashMap<AccessPath, Nullness> result = persistentContents;
+      for (AccessPath ap : persistentContents.keySet()) {
+        if (!pred.test(ap)) {
+          result = result.without(ap);
+        }
+      }
+      return new NullnessStore(result);
+    }
     return new NullnessStore(
         contents.entrySet().stream()
             .filter(e -> pred.test(e.getKey()))
-            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+            .collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, Map.Entry::getValue)));
   }
 
   /**
@@ -333,12 +459,33 @@ public class NullnessStore implements Store<NullnessStore> {
 
   /** class for building up instances of the store. */
   public static final class Builder {
-    private final ImmutableMap.Builder<AccessPath, Nullness> contents;
+    private final NullnessStore prototype;
+
+    /**
+     * Accumulated contents for the {@link Representation#IMMUTABLE_MAP} representation, or for a
+     * {@link Representation#BITSET} store that outgrew its bitsets.
+     */
+    private ImmutableMap.@Nullable Builder<AccessPath, Nullness> contents;
+
+    /** Accumulated contents for the {@link Representation#PERSISTENT_MAP} representation. */
+    private @Nullable PersistentHashMap<AccessPath, Nullness> persistentContents;
+
+    /** Accumulated contents for the {@link Representation#BITSET} representation. */
+    private @Nullable NullnessBitSetMap<AccessPath> bitSetContents;
 
     Builder(NullnessStore prototype) {
-      contents = ImmutableMap.builder();
-      if (!prototype.contents.isEmpty()) {
-        contents.putAll(prototype.contents);
+      this.prototype = prototype;
+      if (prototype.contents instanceof PersistentHashMap<AccessPath, Nullness> persistent) {
+        contents = null;
+        persistentContents = persistent;
+      } else if (prototype.contents instanceof NullnessBitSetMap<AccessPath> bitSet) {
+        contents = null;
+        bitSetContents = bitSet;
+      } else {
+        contents = ImmutableMap.builder();
+        if (!prototype.contents.isEmpty()) {
+          contents.putAll(prototype.contents);
+        }
       }
     }
 
@@ -353,7 +500,19 @@ public class NullnessStore implements Store<NullnessStore> {
      * @return the new builder
      */
     public NullnessStore.Builder setInformation(AccessPath ap, Nullness value) {
-      contents.put(ap, value);
+      PersistentHashMap<AccessPath, Nullness> persistent = persistentContents;
+      NullnessBitSetMap<AccessPath> bitSet = bitSetContents;
+      if (persistent != null) {
+        persistentContents = persistent.with(ap, value);
+      } else if (bitSet != null) {
+        bitSetContents = bitSet.with(ap, value);
+        if (bitSetContents == null) {
+          // too many access paths for the bitsets; continue with an immutable map
+          contents = ImmutableMap.<AccessPath, Nullness>builder().putAll(bitSet).put(ap, value);
+        }
+      } else {
+        castToNonNull(contents).put(ap, value);
+      }
       return this;
     }
 
@@ -362,8 +521,18 @@ public class NullnessStore implements Store<NullnessStore> {
      *
      * @return a store constructed from everything added to the builder
      */
+    @SuppressWarnings("ReferenceEquality")
     public NullnessStore build() {
-      return new NullnessStore(contents.buildKeepingLast());
+      PersistentHashMap<AccessPath, Nullness> persistent = persistentContents;
+      if (persistent != null) {
+        // no copying needed, and if no update changed anything we can reuse the prototype
+        return persistent == prototype.contents ? prototype : new NullnessStore(persistent);
+      }
+      NullnessBitSetMap<AccessPath> bitSet = bitSetContents;
+      if (bitSet != null) {
+        return bitSet == prototype.contents ? prototype : new NullnessStore(bitSet);
+      }
+      return new NullnessStore(castToNonNull(contents).buildKeepingLast());
     }
   }
 }
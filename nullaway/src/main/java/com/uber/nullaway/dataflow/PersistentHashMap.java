@@ -0,0 +1,534 @@
+package com.uber.nullaway.dataflow;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An immutable hash map implemented as a hash array mapped trie (HAMT).
+ *
+ * <p>Updates via {@link #with(Object, Object)} and {@link #without(Object)} return a new map that
+ * shares every untouched subtree with the original one, so an update allocates O(log n) nodes
+ * rather than copying all n entries. Updates that do not change the map return the receiver
+ * itself, which lets clients detect "no change" by reference comparison. Null keys and values are
+ * not supported.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+  private static final int BITS_PER_LEVEL = 5;
+
+  private static final int LEVEL_MASK = (1 << BITS_PER_LEVEL) - 1;
+
+  @SuppressWarnings("rawtypes")
+  private static final PersistentHashMap EMPTY =
+      new PersistentHashMap<>(new BitmapNode<>(0, new Object[0]), 0);
+
+  private final Node<K, V> root;
+
+  private final int size;
+
+  /** Lazily computed hash code; 0 means not computed yet. */
+  private int hashCode;
+
+  private PersistentHashMap(Node<K, V> root, int size) {
+    this.root = root;
+    this.size = size;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <K, V> PersistentHashMap<K, V> empty() {
+    return (PersistentHashMap<K, V>) EMPTY;
+  }
+
+  static <K, V> PersistentHashMap<K, V> copyOf(Map<? extends K, ? extends V> map) {
+    if (map instanceof PersistentHashMap) {
+      @SuppressWarnings("unchecked")
+      PersistentHashMap<K, V> persistentMap = (PersistentHashMap<K, V>) map;
+      return persistentMap;
+    }
+    PersistentHashMap<K, V> result = empty();
+    for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+      result = result.with(entry.getKey(), entry.getValue());
+    }
+    return result;
+  }
+
+  private static int hash(Object key) {
+    int h = key.hashCode();
+    // spread higher bits downwards, as only the low bits are used at the top levels of the trie
+    return h ^ (h >>> 16);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public @Nullable V get(@Nullable Object key) {
+    if (key == null) {
+      return null;
+    }
+    return root.find(key, hash(key), 0);
+  }
+
+  @Override
+  public V getOrDefault(@Nullable Object key, V defaultValue) {
+    V value = get(key);
+    return value == null ? defaultValue : value;
+  }
+
+  @Override
+  public boolean containsKey(@Nullable Object key) {
+    return get(key) != null;
+  }
+
+  /**
+   * Returns a map with the given mapping added or replaced.
+   *
+   * @param key the key
+   * @param value the value
+   * @return the updated map, or {@code this} if {@code key} was already mapped to {@code value}
+   */
+  PersistentHashMap<K, V> with(K key, V value) {
+    boolean[] added = new boolean[1];
+    Node<K, V> newRoot = root.put(key, value, hash(key), 0, added);
+    if (newRoot == root) {
+      return this;
+    }
+    return new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+  }
+
+  /**
+   * Returns a map without a mapping for the given key.
+   *
+   * @param key the key
+   * @return the updated map, or {@code this} if {@code key} was not mapped
+   */
+  PersistentHashMap<K, V> without(Object key) {
+    Node<K, V> newRoot = root.remove(key, hash(key), 0);
+    if (newRoot == root) {
+      return this;
+    }
+    if (newRoot == null) {
+      return empty();
+    }
+    return new PersistentHashMap<>(newRoot, size - 1);
+  }
+
+  @Override
+  public void forEach(BiConsumer<? super K, ? super V> action) {
+    root.forEach(action);
+  }
+
+  @Override
+  public Set<Map.Entry<K, V>> entrySet() {
+    return new AbstractSet<Map.Entry<K, V>>() {
+      @Override
+      public Iterator<Map.Entry<K, V>> iterator() {
+        return new EntryIterator<>(root);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o instanceof PersistentHashMap<?, ?> other) {
+      if (size != other.size) {
+        return false;
+      }
+      // maps derived from one another share most of their nodes, so compare structurally first,
+      // skipping shared subtrees; different shapes may still hold the same entries
+      if (sameEntries(root, other.root)) {
+        return true;
+      }
+    }
+    return super.equals(o);
+  }
+
+  @Override
+  public int hashCode() {
+    int h = hashCode;
+    if (h == 0) {
+      h = super.hashCode();
+      hashCode = h;
+    }
+    return h;
+  }
+
+  /**
+   * Conservatively checks whether two tries hold the same entries, by comparing them node by node.
+   *
+   * @return {@code true} only if both tries have the same shape and equal entries; a {@code false}
+   *     result does not imply that the tries hold different entries
+   */
+  private static boolean sameEntries(Node<?, ?> a, Node<?, ?> b) {
+    if (a == b) {
+      return true;
+    }
+    if (a instanceof BitmapNode<?, ?> x && b instanceof BitmapNode<?, ?> y) {
+      if (x.bitmap != y.bitmap) {
+        return false;
+      }
+      Object[] xs = x.array;
+      Object[] ys = y.array;
+      for (int i = 0; i < xs.length; i += 2) {
+        Object xKey = xs[i];
+        Object yKey = ys[i];
+        if (xKey == null || yKey == null) {
+          if (xKey != yKey || !sameEntries((Node<?, ?>) xs[i + 1], (Node<?, ?>) ys[i + 1])) {
+            return false;
+          }
+        } else if (!xKey.equals(yKey) || !xs[i + 1].equals(ys[i + 1])) {
+          return false;
+        }
+      }
+      return true;
+    }
+    return false;
+  }
+
+  /** A node of the trie. */
+  private abstract static class Node<K, V> {
+
+    abstract @Nullable V find(Object key, int hash, int shift);
+
+    /**
+     * Adds or replaces a mapping.
+     *
+     * @return the updated node, or {@code this} if nothing changed; {@code added[0]} is set if a
+     *     new key was added
+     */
+    abstract Node<K, V> put(K key, V value, int hash, int shift, boolean[] added);
+
+    /**
+     * Removes a mapping.
+     *
+     * @return the updated node, {@code this} if the key was not present, or {@code null} if the
+     *     node became empty
+     */
+    abstract @Nullable Node<K, V> remove(Object key, int hash, int shift);
+
+    abstract void forEach(BiConsumer<? super K, ? super V> action);
+
+    /** Number of key / value-or-node pairs in {@link #array()}. */
+    final int slots() {
+      return array().length / 2;
+    }
+
+    /** Keys (or {@code null} for a sub-node) at even indices, values or sub-nodes at odd ones. */
+    abstract Object[] array();
+  }
+
+  /**
+   * An inner node indexed by five bits of the hash at its level. Each occupied position holds
+   * either a key and its value, or {@code null} and a sub-node for keys sharing those bits.
+   */
+  private static final class BitmapNode<K, V> extends Node<K, V> {
+
+    final int bitmap;
+
+    final Object[] array;
+
+    BitmapNode(int bitmap, Object[] array) {
+      this.bitmap = bitmap;
+      this.array = array;
+    }
+
+    @Override
+    Object[] array() {
+      return array;
+    }
+
+    private static int bit(int hash, int shift) {
+      return 1 << ((hash >>> shift) & LEVEL_MASK);
+    }
+
+    private int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    @Nullable V find(Object key, int hash, int shift) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return null;
+      }
+      int idx = 2 * index(bit);
+      Object keyOrNull = array[idx];
+      Object valOrNode = array[idx + 1];
+      if (keyOrNull == null) {
+        return ((Node<K, V>) valOrNode).find(key, hash, shift + BITS_PER_LEVEL);
+      }
+      return key.equals(keyOrNull) ? (V) valOrNode : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    Node<K, V> put(K key, V value, int hash, int shift, boolean[] added) {
+      int bit = bit(hash, shift);
+      int idx = 2 * index(bit);
+      if ((bitmap & bit) == 0) {
+        Object[] newArray = new Object[array.length + 2];
+        System.arraycopy(array, 0, newArray, 0, idx);
+        newArray[idx] = key;
+        newArray[idx + 1] = value;
+        System.arraycopy(array, idx, newArray, idx + 2, array.length - idx);
+        added[0] = true;
+        return new BitmapNode<>(bitmap | bit, newArray);
+      }
+      Object keyOrNull = array[idx];
+      Object valOrNode = array[idx + 1];
+      if (keyOrNull == null) {
+        Node<K, V> subNode = (Node<K, V>) valOrNode;
+        Node<K, V> newSubNode = subNode.put(key, value, hash, shift + BITS_PER_LEVEL, added);
+        return newSubNode == subNode ? this : withSlot(idx, null, newSubNode);
+      }
+      if (key.equals(keyOrNull)) {
+        return value.equals(valOrNode) ? this : withSlot(idx, keyOrNull, value);
+      }
+      added[0] = true;
+      Node<K, V> subNode =
+          createNode(
+              (K) keyOrNull,
+              (V) valOrNode,
+              hash(keyOrNull),
+              key,
+              value,
+              hash,
+              shift + BITS_PER_LEVEL);
+      return withSlot(idx, null, subNode);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    @Nullable Node<K, V> remove(Object key, int hash, int shift) {
+      int bit = bit(hash, shift);
+      if ((bitmap & bit) == 0) {
+        return this;
+      }
+      int idx = 2 * index(bit);
+      Object keyOrNull = array[idx];
+      Object valOrNode = array[idx + 1];
+      if (keyOrNull == null) {
+        Node<K, V> subNode = (Node<K, V>) valOrNode;
+        Node<K, V> newSubNode = subNode.remove(key, hash, shift + BITS_PER_LEVEL);
+        if (newSubNode == subNode) {
+          return this;
+        }
+        if (newSubNode != null) {
+          Object[] subArray = newSubNode.array();
+          if (newSubNode.slots() == 1 && subArray[0] != null) {
+            // a single remaining entry moves up into this node
+            return withSlot(idx, subArray[0], subArray[1]);
+          }
+          return withSlot(idx, null, newSubNode);
+        }
+        return withoutSlot(bit, idx);
+      }
+      if (!key.equals(keyOrNull)) {
+        return this;
+      }
+      return withoutSlot(bit, idx);
+    }
+
+    private @Nullable Node<K, V> withoutSlot(int bit, int idx) {
+      if (bitmap == bit) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, idx);
+      System.arraycopy(array, idx + 2, newArray, idx, array.length - idx - 2);
+      return new BitmapNode<>(bitmap ^ bit, newArray);
+    }
+
+    private BitmapNode<K, V> withSlot(int idx, @Nullable Object keyOrNull, Object valOrNode) {
+      Object[] newArray = array.clone();
+      newArray[idx] = keyOrNull;
+      newArray[idx + 1] = valOrNode;
+      return new BitmapNode<>(bitmap, newArray);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<? super K, ? super V> action) {
+      for (int i = 0; i < array.length; i += 2) {
+        Object keyOrNull = array[i];
+        if (keyOrNull == null) {
+          ((Node<K, V>) array[i + 1]).forEach(action);
+        } else {
+          action.accept((K) keyOrNull, (V) array[i + 1]);
+        }
+      }
+    }
+  }
+
+  /** A leaf holding keys whose full hashes are all equal. */
+  private static final class CollisionNode<K, V> extends Node<K, V> {
+
+    final int hash;
+
+    final Object[] array;
+
+    CollisionNode(int hash, Object[] array) {
+      this.hash = hash;
+      this.array = array;
+    }
+
+    @Override
+    Object[] array() {
+      return array;
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < array.length; i += 2) {
+        if (key.equals(array[i])) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    @Nullable V find(Object key, int hash, int shift) {
+      int idx = indexOf(key);
+      return idx < 0 ? null : (V) array[idx + 1];
+    }
+
+    @Override
+    Node<K, V> put(K key, V value, int hash, int shift, boolean[] added) {
+      if (hash != this.hash) {
+        // nest this node in a bitmap node, and add the new key next to it
+        BitmapNode<K, V> parent =
+            new BitmapNode<>(BitmapNode.bit(this.hash, shift), new Object[] {null, this});
+        return parent.put(key, value, hash, shift, added);
+      }
+      int idx = indexOf(key);
+      if (idx >= 0) {
+        if (value.equals(array[idx + 1])) {
+          return this;
+        }
+        Object[] newArray = array.clone();
+        newArray[idx + 1] = value;
+        return new CollisionNode<>(hash, newArray);
+      }
+      Object[] newArray = new Object[array.length + 2];
+      System.arraycopy(array, 0, newArray, 0, array.length);
+      newArray[array.length] = key;
+      newArray[array.length + 1] = value;
+      added[0] = true;
+      return new CollisionNode<>(hash, newArray);
+    }
+
+    @Override
+    @Nullable Node<K, V> remove(Object key, int hash, int shift) {
+      int idx = indexOf(key);
+      if (idx < 0) {
+        return this;
+      }
+      if (array.length == 2) {
+        return null;
+      }
+      Object[] newArray = new Object[array.length - 2];
+      System.arraycopy(array, 0, newArray, 0, idx);
+      System.arraycopy(array, idx + 2, newArray, idx, array.length - idx - 2);
+      return new CollisionNode<>(hash, newArray);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void forEach(BiConsumer<? super K, ? super V> action) {
+      for (int i = 0; i < array.length; i += 2) {
+        action.accept((K) array[i], (V) array[i + 1]);
+      }
+    }
+  }
+
+  private static <K, V> Node<K, V> createNode(
+      K key1, V value1, int hash1, K key2, V value2, int hash2, int shift) {
+    if (hash1 == hash2) {
+      return new CollisionNode<>(hash1, new Object[] {key1, value1, key2, value2});
+    }
+    boolean[] added = new boolean[1];
+    Node<K, V> node = new BitmapNode<>(0, new Object[0]);
+    return node.put(key1, value1, hash1, shift, added).put(key2, value2, hash2, shift, added);
+  }
+
+  /** Iterates over the entries of a trie, depth first. */
+  private static final class EntryIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+    /** A node being visited, with the index of the next slot to visit in its array. */
+    private static final class Frame {
+      final Object[] array;
+      int index;
+
+      Frame(Object[] array) {
+        this.array = array;
+      }
+    }
+
+    private final Deque<Frame> stack = new ArrayDeque<>();
+
+    private Map.@Nullable Entry<K, V> next;
+
+    EntryIterator(Node<K, V> root) {
+      stack.push(new Frame(root.array()));
+      next = advance();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map.@Nullable Entry<K, V> advance() {
+      while (!stack.isEmpty()) {
+        Frame frame = stack.getFirst();
+        if (frame.index >= frame.array.length) {
+          stack.pop();
+          continue;
+        }
+        Object keyOrNull = frame.array[frame.index];
+        Object valOrNode = frame.array[frame.index + 1];
+        frame.index += 2;
+        if (keyOrNull == null) {
+          stack.push(new Frame(((Node<?, ?>) valOrNode).array()));
+        } else {
+          return new AbstractMap.SimpleImmutableEntry<>((K) keyOrNull, (V) valOrNode);
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next != null;
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+      Map.Entry<K, V> result = next;
+      if (result == null) {
+        throw new NoSuchElementException();
+      }
+      next = advance();
+      return result;
+    }
+  }
+}
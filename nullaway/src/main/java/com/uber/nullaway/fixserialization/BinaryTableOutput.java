@@ -0,0 +1,103 @@
+package com.uber.nullaway.fixserialization;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A {@link TableOutput} in the binary, dictionary-encoded, columnar format described in {@link
+ * BinaryTableReader}. Rows are buffered as indices into a dictionary of the strings of the current
+ * block, so values repeated across rows (e.g., enclosing classes and methods, and paths) are only
+ * written once per block.
+ */
+final class BinaryTableOutput extends TableOutput {
+
+  /** Buffered rows are appended to the file as a block once there are this many of them. */
+  static final int MAX_ROWS_PER_BLOCK = 64 * 1024;
+
+  private final int numColumns;
+
+  /** Strings of the current block, mapped to their index in the order they were added. */
+  private final Map<String, Integer> dictionary = new LinkedHashMap<>();
+
+  /** For each column, the dictionary indices of the values of the buffered rows. */
+  private final int[][] columns;
+
+  private int numRows = 0;
+
+  BinaryTableOutput(Path path, String header) {
+    super(path, header);
+    this.numColumns = header.split("\t", -1).length;
+    this.columns = new int[numColumns][16];
+  }
+
+  @Override
+  void initialize() {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(BinaryTableReader.FILE_MAGIC_NUMBER);
+      out.writeInt(numColumns);
+      for (String column : header.split("\t", -1)) {
+        out.writeUTF(column);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not encode header of: " + path, e);
+    }
+    reset(bytes.toByteArray());
+  }
+
+  @Override
+  synchronized void append(@Nullable String row) {
+    if (row == null || row.equals("")) {
+      return;
+    }
+    String[] values = row.split("\t", -1);
+    if (values.length != numColumns) {
+      throw new IllegalArgumentException(
+          "Expected " + numColumns + " values for " + path + " but found: " + row);
+    }
+    if (numRows == columns[0].length) {
+      for (int column = 0; column < numColumns; column++) {
+        columns[column] = Arrays.copyOf(columns[column], 2 * numRows);
+      }
+    }
+    for (int column = 0; column < numColumns; column++) {
+      columns[column][numRows] = dictionary.computeIfAbsent(values[column], k -> dictionary.size());
+    }
+    numRows++;
+    if (numRows == MAX_ROWS_PER_BLOCK) {
+      flush();
+    }
+  }
+
+  @Override
+  synchronized void flush() {
+    if (numRows == 0) {
+      return;
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(numRows);
+      out.writeInt(dictionary.size());
+      for (String value : dictionary.keySet()) {
+        out.writeUTF(value);
+      }
+      for (int[] column : columns) {
+        for (int row = 0; row < numRows; row++) {
+          out.writeInt(column[row]);
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Could not encode rows of: " + path, e);
+    }
+    appendToFile(ByteBuffer.wrap(bytes.toByteArray()));
+    dictionary.clear();
+    numRows = 0;
+  }
+}
@@ -0,0 +1,110 @@
+package com.uber.nullaway.fixserialization;
+
+import com.google.common.collect.ImmutableList;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reader for the binary output files written with serialization version 4, e.g., {@code
+ * errors.bin} and {@code field_init.bin}. These files have the same columns as the {@code .tsv}
+ * files of serialization version 3, in a dictionary-encoded, columnar layout:
+ *
+ * <pre>
+ *   int     magic number ({@link #FILE_MAGIC_NUMBER})
+ *   int     number of columns C
+ *   C x UTF column names
+ *   zero or more blocks, each with:
+ *     int     number of rows R (positive)
+ *     int     number of strings S in the block's dictionary
+ *     S x UTF strings
+ *     C x R x int indices into the dictionary, one column after the other
+ * </pre>
+ *
+ * Each block is self-contained, so blocks from several compilations may be appended to the same
+ * file. Strings are written with {@link java.io.DataOutput#writeUTF(String)}, as in the astubx
+ * format.
+ */
+public final class BinaryTableReader {
+
+  /** The first four bytes of a binary output file. */
+  public static final int FILE_MAGIC_NUMBER = 0x4E415442;
+
+  /** Contents of a binary output file. */
+  public static final class Table {
+    private final ImmutableList<String> columns;
+    private final ImmutableList<ImmutableList<String>> rows;
+
+    private Table(ImmutableList<String> columns, ImmutableList<ImmutableList<String>> rows) {
+      this.columns = columns;
+      this.rows = rows;
+    }
+
+    /** Returns the column names, in the same order as in the header of the TSV output. */
+    public ImmutableList<String> getColumns() {
+      return columns;
+    }
+
+    /** Returns the rows, each with one value per column. */
+    public ImmutableList<ImmutableList<String>> getRows() {
+      return rows;
+    }
+  }
+
+  private BinaryTableReader() {}
+
+  /**
+   * Reads a binary output file.
+   *
+   * @param path path to the file
+   * @return the columns and rows of the file
+   * @throws IOException if the file cannot be read or is not a binary output file
+   */
+  public static Table read(Path path) throws IOException {
+    try (DataInputStream in =
+        new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      if (in.readInt() != FILE_MAGIC_NUMBER) {
+        throw new IOException("Not a NullAway binary output file: " + path);
+      }
+      int numColumns = in.readInt();
+      ImmutableList.Builder<String> columns = ImmutableList.builder();
+      for (int i = 0; i < numColumns; i++) {
+        columns.add(in.readUTF());
+      }
+      ImmutableList.Builder<ImmutableList<String>> rows = ImmutableList.builder();
+      int numRows;
+      while ((numRows = readBlockSize(in)) > 0) {
+        String[] dictionary = new String[in.readInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+          dictionary[i] = in.readUTF();
+        }
+        String[][] values = new String[numRows][numColumns];
+        for (int column = 0; column < numColumns; column++) {
+          for (int row = 0; row < numRows; row++) {
+            values[row][column] = dictionary[in.readInt()];
+          }
+        }
+        for (String[] row : values) {
+          rows.add(ImmutableList.copyOf(row));
+        }
+      }
+      return new Table(columns.build(), rows.build());
+    }
+  }
+
+  /** Returns the number of rows of the next block, or 0 at the end of the file. */
+  private static int readBlockSize(DataInputStream in) throws IOException {
+    int first = in.read();
+    if (first < 0) {
+      return 0;
+    }
+    int numRows = (first << 24) | (in.readUnsignedByte() << 16) | in.readUnsignedShort();
+    if (numRows <= 0) {
+      throw new EOFException("Invalid block size: " + numRows);
+    }
+    return numRows;
+  }
+}
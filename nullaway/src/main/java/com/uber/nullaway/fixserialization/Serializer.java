@@ -22,14 +22,17 @@
 
 package com.uber.nullaway.fixserialization;
 
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
 import com.sun.tools.javac.code.Symbol;
+import com.sun.tools.javac.processing.JavacProcessingEnvironment;
+import com.sun.tools.javac.util.Context;
 import com.uber.nullaway.ErrorMessage;
 import com.uber.nullaway.fixserialization.adapters.SerializationAdapter;
 import com.uber.nullaway.fixserialization.out.ErrorInfo;
 import com.uber.nullaway.fixserialization.out.FieldInitializationInfo;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
 import java.io.Writer;
 import java.net.URI;
 import java.nio.charset.Charset;
@@ -49,6 +52,14 @@ public class Serializer {
   /** Path to write suggested fix metadata. */
   private final Path fieldInitializationOutputPath;
 
+  /** Buffered rows for {@link #errorOutputPath}. */
+  private final TableOutput errorOutput;
+
+  /** Buffered rows for {@link #fieldInitializationOutputPath}. */
+  private final TableOutput fieldInitializationOutput;
+
+  private boolean registeredCompilationListener = false;
+
   /**
    * Adapter used to serialize outputs. This adapter is capable of serializing outputs according to
    * the requested serilization version and maintaining backward compatibility with previous
@@ -58,13 +69,58 @@ public class Serializer {
 
   public Serializer(FixSerializationConfig config, SerializationAdapter serializationAdapter) {
     String outputDirectory = config.outputDirectory;
-    this.errorOutputPath = Paths.get(outputDirectory, "errors.tsv");
-    this.fieldInitializationOutputPath = Paths.get(outputDirectory, "field_init.tsv");
+    boolean binary = serializationAdapter.writesBinaryOutput();
+    String extension = binary ? ".bin" : ".tsv";
+    this.errorOutputPath = Paths.get(outputDirectory, "errors" + extension);
+    this.fieldInitializationOutputPath = Paths.get(outputDirectory, "field_init" + extension);
     this.serializationAdapter = serializationAdapter;
+    String errorsHeader = serializationAdapter.getErrorsOutputFileHeader();
+    String fieldInitializationHeader = FieldInitializationInfo.header();
+    this.errorOutput =
+        binary
+            ? new BinaryTableOutput(errorOutputPath, errorsHeader)
+            : new TsvTableOutput(errorOutputPath, errorsHeader);
+    this.fieldInitializationOutput =
+        binary
+            ? new BinaryTableOutput(fieldInitializationOutputPath, fieldInitializationHeader)
+            : new TsvTableOutput(fieldInitializationOutputPath, fieldInitializationHeader);
     serializeVersion(outputDirectory);
     initializeOutputFiles(config);
   }
 
+  /**
+   * Makes sure the buffered outputs are written and closed at the end of the compilation in
+   * {@code context}. Must be called before the first row is serialized; later calls are no-ops.
+   * Outputs are only opened once rows are written, so a serializer whose compilation never calls
+   * this holds no open files.
+   *
+   * @param context javac context of the compilation
+   */
+  public void closeAtEndOfCompilation(Context context) {
+    if (registeredCompilationListener) {
+      return;
+    }
+    // There is no Error Prone API to signal the end of the analysis, so listen for the end of the
+    // compilation directly
+    JavacTask.instance(JavacProcessingEnvironment.instance(context))
+        .addTaskListener(
+            new TaskListener() {
+              @Override
+              public void finished(TaskEvent e) {
+                if (e.getKind() == TaskEvent.Kind.COMPILATION) {
+                  close();
+                }
+              }
+            });
+    registeredCompilationListener = true;
+  }
+
+  /** Writes all buffered rows and closes the output files. */
+  public void close() {
+    errorOutput.close();
+    fieldInitializationOutput.close();
+  }
+
   /**
    * Appends the string representation of the {@link ErrorMessage}.
    *
@@ -72,27 +128,11 @@ public class Serializer {
    */
   public void serializeErrorInfo(ErrorInfo errorInfo) {
     errorInfo.initEnclosing();
-    appendToFile(serializationAdapter.serializeError(errorInfo), errorOutputPath);
+    errorOutput.append(serializationAdapter.serializeError(errorInfo));
   }
 
   public void serializeFieldInitializationInfo(FieldInitializationInfo info) {
-    appendToFile(info.tabSeparatedToString(serializationAdapter), fieldInitializationOutputPath);
-  }
-
-  /** Cleared the content of the file if exists and writes the header in the first line. */
-  private void initializeFile(Path path, String header) {
-    try {
-      Files.deleteIfExists(path);
-    } catch (IOException e) {
-      throw new RuntimeException("Could not clear file at: " + path, e);
-    }
-    try (OutputStream os = new FileOutputStream(path.toFile())) {
-      header += "\n";
-      os.write(header.getBytes(Charset.defaultCharset()), 0, header.length());
-      os.flush();
-    } catch (IOException e) {
-      throw new RuntimeException("Could not finish resetting File at Path: " + path, e);
-    }
+    fieldInitializationOutput.append(info.tabSeparatedToString(serializationAdapter));
   }
 
   /**
@@ -125,30 +165,14 @@ public class Serializer {
     try {
       Files.createDirectories(Paths.get(config.outputDirectory));
       if (config.fieldInitInfoEnabled) {
-        initializeFile(fieldInitializationOutputPath, FieldInitializationInfo.header());
+        fieldInitializationOutput.initialize();
       }
-      initializeFile(errorOutputPath, serializationAdapter.getErrorsOutputFileHeader());
+      errorOutput.initialize();
     } catch (IOException e) {
       throw new RuntimeException("Could not finish resetting serializer", e);
     }
   }
 
-  private void appendToFile(String row, Path path) {
-    // Since there is no method available in API of either javac or errorprone to inform NullAway
-    // that the analysis is finished, we cannot open a single stream and flush it within a finalize
-    // method. Must open and close a new stream everytime we are appending a new line to a file.
-    if (row == null || row.equals("")) {
-      return;
-    }
-    row = row + "\n";
-    try (OutputStream os = new FileOutputStream(path.toFile(), true)) {
-      os.write(row.getBytes(Charset.defaultCharset()), 0, row.length());
-      os.flush();
-    } catch (IOException e) {
-      throw new RuntimeException("Error happened for writing at file: " + path, e);
-    }
-  }
-
   /**
    * Converts the given uri to the real path. Note, in NullAway CI tests, source files exists in
    * memory and there is no real path leading to those files. Instead, we just serialize the path
@@ -0,0 +1,98 @@
+package com.uber.nullaway.fixserialization;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An output file of {@link Serializer}, to which rows of tab-separated values are appended.
+ *
+ * <p>Rows are buffered in memory and appended through a single channel, opened on the first flush
+ * and kept open until {@link #close()}. Each flush appends only complete rows, so concurrent
+ * compilations appending to the same file do not split each other's rows.
+ */
+abstract class TableOutput {
+
+  /** Path of the output file. */
+  protected final Path path;
+
+  /** Tab-separated column names. */
+  protected final String header;
+
+  private @Nullable FileChannel channel;
+
+  TableOutput(Path path, String header) {
+    this.path = path;
+    this.header = header;
+  }
+
+  /** Clears the file, if it exists, and writes the header. */
+  abstract void initialize();
+
+  /**
+   * Buffers a row, whose values must correspond to the columns of the header.
+   *
+   * @param row tab-separated values of the row; {@code null} or empty rows are ignored
+   */
+  abstract void append(@Nullable String row);
+
+  /** Appends all buffered rows to the file. */
+  abstract void flush();
+
+  /** Writes all buffered rows and closes the file. */
+  synchronized void close() {
+    flush();
+    FileChannel out = channel;
+    if (out != null) {
+      channel = null;
+      try {
+        out.close();
+      } catch (IOException e) {
+        throw new RuntimeException("Could not close file: " + path, e);
+      }
+    }
+  }
+
+  /**
+   * Replaces the file with the given contents. Must be called before anything is appended.
+   *
+   * @param contents new contents of the file
+   */
+  protected void reset(byte[] contents) {
+    try {
+      Files.deleteIfExists(path);
+      Files.write(path, contents);
+    } catch (IOException e) {
+      throw new RuntimeException("Could not finish resetting File at Path: " + path, e);
+    }
+  }
+
+  /**
+   * Appends bytes to the file, opening the channel if needed.
+   *
+   * @param bytes bytes to append, encoding complete rows
+   */
+  protected void appendToFile(ByteBuffer bytes) {
+    try {
+      FileChannel out = channel;
+      if (out == null) {
+        out =
+            FileChannel.open(
+                path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        channel = out;
+      }
+      while (bytes.hasRemaining()) {
+        out.write(bytes);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Error happened for writing at file: " + path, e);
+    }
+  }
+}
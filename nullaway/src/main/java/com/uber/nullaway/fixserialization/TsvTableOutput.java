@@ -0,0 +1,44 @@
+package com.uber.nullaway.fixserialization;
+
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import org.jspecify.annotations.Nullable;
+
+/** A {@link TableOutput} written as text, with one line of tab-separated values per row. */
+final class TsvTableOutput extends TableOutput {
+
+  /** Rows are appended to the file in chunks of about this many characters. */
+  private static final int FLUSH_THRESHOLD_CHARS = 64 * 1024;
+
+  private final StringBuilder pending = new StringBuilder();
+
+  TsvTableOutput(Path path, String header) {
+    super(path, header);
+  }
+
+  @Override
+  void initialize() {
+    reset((header + "\n").getBytes(Charset.defaultCharset()));
+  }
+
+  @Override
+  synchronized void append(@Nullable String row) {
+    if (row == null || row.equals("")) {
+      return;
+    }
+    pending.append(row).append('\n');
+    if (pending.length() >= FLUSH_THRESHOLD_CHARS) {
+      flush();
+    }
+  }
+
+  @Override
+  synchronized void flush() {
+    if (pending.length() == 0) {
+      return;
+    }
+    appendToFile(Charset.defaultCharset().encode(CharBuffer.wrap(pending)));
+    pending.setLength(0);
+  }
+}
@@ -27,9 +27,11 @@ import com.uber.nullaway.fixserialization.out.ErrorInfo;
 
 /**
  * Adapter for serialization service to provide its output according to the requested serialization
- * version. Outputs are currently produced in TSV format and columns in these files may change
- * future releases. Subclasses of this interface are used to maintain backward compatibility and
- * produce the exact output of previous NullAway versions.
+ * version. Outputs are produced in TSV format, or in the binary format read by {@link
+ * com.uber.nullaway.fixserialization.BinaryTableReader} for adapters that {@link
+ * #writesBinaryOutput()}, and columns in these files may change future releases. Subclasses of
+ * this interface are used to maintain backward compatibility and produce the exact output of
+ * previous NullAway versions.
  */
 public interface SerializationAdapter {
 
@@ -39,6 +41,12 @@ public interface SerializationAdapter {
    */
   int LATEST_VERSION = 3;
 
+  /**
+   * Version writing the outputs of {@link #LATEST_VERSION} in a binary format. It must be requested
+   * explicitly.
+   */
+  int BINARY_VERSION = 4;
+
   /**
    * Returns header of "errors.tsv" which contains all serialized {@link ErrorInfo} reported by
    * NullAway.
@@ -72,6 +80,17 @@ public interface SerializationAdapter {
    */
   String serializeMethodSignature(Symbol.MethodSymbol methodSymbol);
 
+  /**
+   * Returns whether outputs are written in the binary format read by {@link
+   * com.uber.nullaway.fixserialization.BinaryTableReader}, to {@code .bin} files, rather than to
+   * {@code .tsv} files. The rows serialized by the adapter are the same in both cases.
+   *
+   * @return true if outputs are written in the binary format.
+   */
+  default boolean writesBinaryOutput() {
+    return false;
+  }
+
   /**
    * Gets the adapter for the given version number.
    *
@@ -85,12 +104,13 @@ public interface SerializationAdapter {
           throw new RuntimeException(
               "Serialization version v2 is skipped and was used for an alpha version of the auto-annotator tool. Please use version 3 instead.");
       case 3 -> new SerializationV3Adapter();
+      case 4 -> new SerializationV4Adapter();
       default ->
           throw new RuntimeException(
               "Unrecognized NullAway serialization version: "
                   + version
                   + ". Supported versions: 1 to "
-                  + SerializationAdapter.LATEST_VERSION
+                  + SerializationAdapter.BINARY_VERSION
                   + ".");
     };
   }
@@ -0,0 +1,21 @@
+package com.uber.nullaway.fixserialization.adapters;
+
+/**
+ * Adapter for serialization version 4.
+ *
+ * <p>Serializes the same values as version 3, but writes the outputs to {@code errors.bin} and
+ * {@code field_init.bin} in a compact binary format with a string dictionary, which can be read
+ * with {@link com.uber.nullaway.fixserialization.BinaryTableReader}.
+ */
+public class SerializationV4Adapter extends SerializationV3Adapter {
+
+  @Override
+  public int getSerializationVersion() {
+    return SerializationAdapter.BINARY_VERSION;
+  }
+
+  @Override
+  public boolean writesBinaryOutput() {
+    return true;
+  }
+}
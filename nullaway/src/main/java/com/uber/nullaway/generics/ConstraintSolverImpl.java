@@ -1,7 +1,5 @@
 package com.uber.nullaway.generics;
 
-import static com.uber.nullaway.NullabilityUtil.castToNonNull;
-
 import com.google.common.base.Verify;
 import com.google.errorprone.VisitorState;
 import com.sun.tools.javac.code.Attribute;
@@ -29,6 +27,10 @@ import org.jspecify.annotations.Nullable;
 /**
  * An implementation of {@link ConstraintSolver} that uses a work-list algorithm to propagate
  * nullability constraints over a graph of type variables and their sub-/supertype relationships.
+ *
+ * <p>Type variables constrained to be equal (e.g., type arguments of generic types, which are
+ * invariant) are merged into a single equivalence class using union-find, so that the work list
+ * processes each class, rather than each variable, at most once per nullability change.
  */
 public final class ConstraintSolverImpl implements ConstraintSolver {
   private final Config config;
@@ -51,21 +53,34 @@ public final class ConstraintSolverImpl implements ConstraintSolver {
     NULLABLE
   }
 
-  /** Per-variable state (nullability, sub-/supertype edges). */
+  /**
+   * Per-variable state (nullability, sub-/supertype edges). Only the state of the representative
+   * of an equivalence class (see {@link #find(VarState)}) is meaningful.
+   */
   private static final class VarState {
+    /** The type variable, for diagnostics. */
+    final Element element;
+
     /**
-     * Indicates whether the type variable has a @Nullable upper bound, and thus can be @Nullable
-     * itself. Not strictly necessary for constraint solving, but allows us to give a more useful
-     * diagnostic if we get a contradiction due to the @NonNull upper bound, which could be helpful
-     * in the future.
+     * Indicates whether the type variable (or, for a representative, every type variable in its
+     * equivalence class) has a @Nullable upper bound, and thus can be @Nullable itself. Not
+     * strictly necessary for constraint solving, but allows us to give a more useful diagnostic if
+     * we get a contradiction due to the @NonNull upper bound, which could be helpful in the future.
      */
-    final boolean nullableAllowed;
+    boolean nullableAllowed;
 
     NullnessState nullness = NullnessState.UNKNOWN;
-    final Set<Element> supertypes = new HashSet<>();
-    final Set<Element> subtypes = new HashSet<>();
+    Set<Element> supertypes = new HashSet<>();
+    Set<Element> subtypes = new HashSet<>();
+
+    /** The state this one was merged into, or {@code null} if this is a representative. */
+    @Nullable VarState parent;
+
+    /** Upper bound on the height of the union-find tree rooted at this state. */
+    int rank = 0;
 
-    VarState(boolean nullableAllowed) {
+    VarState(Element element, boolean nullableAllowed) {
+      this.element = element;
       this.nullableAllowed = nullableAllowed;
     }
   }
@@ -118,9 +133,14 @@ public final class ConstraintSolverImpl implements ConstraintSolver {
         for (int i = 0; i < numTypeArgs; i++) {
           Type rhsTypeArg = supertypeTypeArguments.get(i);
           Type lhsTypeArg = subtypeTypeArguments.get(i);
+          if (isTypeVariable(lhsTypeArg) && isTypeVariable(rhsTypeArg)) {
+            // two type variables that must be equal; merge them directly
+            union(
+                getState(((TypeVariable) lhsTypeArg).asElement()),
+                getState(((TypeVariable) rhsTypeArg).asElement()));
+            continue;
+          }
           // constrain in both directions
-          // TODO should we have a more optimized way to equate two types?  this just makes each
-          //  type a subtype of the other
           lhsTypeArg.accept(this, rhsTypeArg);
           rhsTypeArg.accept(this, lhsTypeArg);
         }
@@ -157,39 +177,39 @@ public final class ConstraintSolverImpl implements ConstraintSolver {
   @Override
   public Map<Element, InferredNullability> solve() throws UnsatisfiableConstraintsException {
     /* ---------- work-list propagation of nullability ---------- */
-    Deque<Element> work = new ArrayDeque<>();
-    vars.forEach(
-        (tv, st) -> {
-          if (st.nullness != NullnessState.UNKNOWN) {
-            work.add(tv);
-          }
-        });
+    Deque<VarState> work = new ArrayDeque<>();
+    for (VarState st : vars.values()) {
+      if (st.parent == null && st.nullness != NullnessState.UNKNOWN) {
+        work.add(st);
+      }
+    }
 
     while (!work.isEmpty()) {
-      Element typeVarElement = work.removeFirst();
-      VarState st = castToNonNull(vars.get(typeVarElement));
+      VarState st = work.removeFirst();
 
       switch (st.nullness) {
         case NONNULL -> {
           /* S <: tv  &  tv NONNULL  ⇒  S NONNULL */
           for (Element sub : st.subtypes) {
-            if (updateNullness(sub, NullnessState.NONNULL)) {
-              work.add(sub);
+            VarState subState = find(getState(sub));
+            if (updateNullness(subState, NullnessState.NONNULL)) {
+              work.add(subState);
             }
           }
         }
         case NULLABLE -> {
           /* tv <: T  &  tv NULLABLE  ⇒  T NULLABLE */
           for (Element sup : st.supertypes) {
-            if (updateNullness(sup, NullnessState.NULLABLE)) {
-              work.add(sup);
+            VarState supState = find(getState(sup));
+            if (updateNullness(supState, NullnessState.NULLABLE)) {
+              work.add(supState);
             }
           }
         }
         default ->
             // UNKNOWN
             throw new RuntimeException(
-                "Unexpected nullness state: " + st.nullness + " for " + typeVarElement);
+                "Unexpected nullness state: " + st.nullness + " for " + st.element);
       }
     }
 
@@ -201,7 +221,7 @@ public final class ConstraintSolverImpl implements ConstraintSolver {
           // TODO does this matter?  should we use NULLABLE instead?
           result.put(
               tv,
-              st.nullness == NullnessState.NULLABLE
+              find(st).nullness == NullnessState.NULLABLE
                   ? InferredNullability.NULLABLE
                   : InferredNullability.NONNULL);
         });
@@ -211,10 +231,15 @@ public final class ConstraintSolverImpl implements ConstraintSolver {
   private void directlyConstrainTypePair(Type s, Type t) throws UnsatisfiableConstraintsException {
     /* variable-to-variable edge */
     if (isTypeVariable(s) && isTypeVariable(t)) {
-      TypeVariable sv = (TypeVariable) s;
-      TypeVariable tv = (TypeVariable) t;
-      getState(sv.asElement()).supertypes.add(tv.asElement());
-      getState(tv.asElement()).subtypes.add(sv.asElement());
+      VarState sState = find(getState(((TypeVariable) s).asElement()));
+      VarState tState = find(getState(((TypeVariable) t).asElement()));
+      if (sState.subtypes.contains(tState.element)) {
+        // t <: s was already added, so s and t must be equal
+        union(sState, tState);
+      } else if (sState != tState) {
+        sState.supertypes.add(tState.element);
+        tState.subtypes.add(sState.element);
+      }
     }
 
     /* top-level nullability rules */
@@ -228,29 +253,84 @@ public final class ConstraintSolverImpl implements ConstraintSolver {
 
   /* ───────────────────── nullability bookkeeping ───────────────────── */
 
-  /** Force {@code tv} to {@code n}. Returns true if state changed. */
-  private boolean updateNullness(Element typeVarElement, NullnessState n)
+  /**
+   * Force the equivalence class with representative {@code st} to {@code n}. Returns true if state
+   * changed.
+   */
+  private boolean updateNullness(VarState st, NullnessState n)
       throws UnsatisfiableConstraintsException {
-    VarState st = getState(typeVarElement);
-
     if (st.nullness == n) {
       return false;
     }
     if (st.nullness != NullnessState.UNKNOWN) {
       throw new UnsatisfiableConstraintsException(
-          "Contradictory nullability for " + typeVarElement + ": " + st.nullness + " vs. " + n);
+          "Contradictory nullability for " + st.element + ": " + st.nullness + " vs. " + n);
     }
     if (n == NullnessState.NULLABLE && !st.nullableAllowed) {
       throw new UnsatisfiableConstraintsException(
-          typeVarElement + " cannot be @Nullable (upper bound is @NonNull)");
+          st.element + " cannot be @Nullable (upper bound is @NonNull)");
     }
     st.nullness = n;
     return true;
   }
 
+  /* ───────────────────── union-find ───────────────────── */
+
+  /** Returns the representative of the equivalence class of {@code st}, compressing paths. */
+  private static VarState find(VarState st) {
+    VarState root = st;
+    while (root.parent != null) {
+      root = root.parent;
+    }
+    while (st.parent != null) {
+      VarState next = st.parent;
+      st.parent = root;
+      st = next;
+    }
+    return root;
+  }
+
+  /**
+   * Merges the equivalence classes of two type variables that must have the same nullability,
+   * combining their nullability and sub-/supertype edges.
+   */
+  private void union(VarState a, VarState b) throws UnsatisfiableConstraintsException {
+    VarState rootA = find(a);
+    VarState rootB = find(b);
+    if (rootA == rootB) {
+      return;
+    }
+    VarState root = rootA.rank >= rootB.rank ? rootA : rootB;
+    VarState child = root == rootA ? rootB : rootA;
+    child.parent = root;
+    if (root.rank == child.rank) {
+      root.rank++;
+    }
+    root.nullableAllowed &= child.nullableAllowed;
+    if (child.nullness != NullnessState.UNKNOWN) {
+      updateNullness(root, child.nullness);
+    } else if (root.nullness == NullnessState.NULLABLE && !root.nullableAllowed) {
+      throw new UnsatisfiableConstraintsException(
+          child.element + " cannot be @Nullable (upper bound is @NonNull)");
+    }
+    root.supertypes = mergeEdges(root.supertypes, child.supertypes);
+    root.subtypes = mergeEdges(root.subtypes, child.subtypes);
+    child.supertypes = Set.of();
+    child.subtypes = Set.of();
+  }
+
+  private static Set<Element> mergeEdges(Set<Element> first, Set<Element> second) {
+    if (first.size() < second.size()) {
+      second.addAll(first);
+      return second;
+    }
+    first.addAll(second);
+    return first;
+  }
+
   private void requireNullable(Type t) throws UnsatisfiableConstraintsException {
     if (isTypeVariable(t)) {
-      updateNullness(t.asElement(), NullnessState.NULLABLE);
+      updateNullness(find(getState(t.asElement())), NullnessState.NULLABLE);
     } else if (isKnownNonNull(t)) {
       throw new UnsatisfiableConstraintsException("Cannot treat @NonNull type as @Nullable: " + t);
     }
@@ -258,7 +338,7 @@ public final class ConstraintSolverImpl implements ConstraintSolver {
 
   private void requireNonNull(Type t) throws UnsatisfiableConstraintsException {
     if (isTypeVariable(t)) {
-      updateNullness(t.asElement(), NullnessState.NONNULL);
+      updateNullness(find(getState(t.asElement())), NullnessState.NONNULL);
     } else if (isKnownNullable(t)) {
       throw new UnsatisfiableConstraintsException("Cannot treat @Nullable type as @NonNull: " + t);
     }
@@ -267,7 +347,7 @@ public final class ConstraintSolverImpl implements ConstraintSolver {
   /* ───────────────────── helpers & stubs ───────────────────── */
 
   private VarState getState(Element typeVarElement) {
-    return vars.computeIfAbsent(typeVarElement, v -> new VarState(upperBoundIsNullable(v)));
+    return vars.computeIfAbsent(typeVarElement, v -> new VarState(v, upperBoundIsNullable(v)));
   }
 
   private boolean isTypeVariable(Type t) {
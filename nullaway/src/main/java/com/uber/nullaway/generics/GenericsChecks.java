@@ -5,6 +5,11 @@ import static com.uber.nullaway.NullabilityUtil.castToNonNull;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.AnnotatedTypeTree;
@@ -47,6 +52,7 @@ import com.uber.nullaway.InvocationArguments;
 import com.uber.nullaway.NullAway;
 import com.uber.nullaway.NullabilityUtil;
 import com.uber.nullaway.Nullness;
+import com.uber.nullaway.PerfTelemetry;
 import com.uber.nullaway.dataflow.AccessPathNullnessAnalysis;
 import com.uber.nullaway.dataflow.EnclosingEnvironmentNullness;
 import com.uber.nullaway.dataflow.NullnessStore;
@@ -112,6 +118,82 @@ public final class GenericsChecks {
    */
   private final Map<Tree, Type> inferredPolyExpressionTypes = new LinkedHashMap<>();
 
+  /** Maximum number of entries of {@link #inferredTypeVarNullabilityByCallKey}. */
+  private static final int MAX_CALL_KEY_CACHE_SIZE = 10_000;
+
+  /**
+   * Key for a generic method call whose inference constraints are fully determined by the callee
+   * and the (nullability-annotated) types flowing into the call. Types are compared by their string
+   * representation, which includes type-use annotations at all nesting levels.
+   *
+   * @param callee the called generic method
+   * @param assignmentContextType the type the call result is assigned to, if any
+   * @param assignedToLocal whether the call result is assigned to a local variable
+   * @param varArgsPassedIndividually whether varargs are passed individually rather than as an
+   *     array
+   * @param argumentTypes the types of the arguments, refined with dataflow
+   */
+  private record CallKey(
+      Symbol.MethodSymbol callee,
+      @Nullable String assignmentContextType,
+      boolean assignedToLocal,
+      boolean varArgsPassedIndividually,
+      ImmutableList<String> argumentTypes) {}
+
+  /**
+   * Inferred type variable nullability for calls with a {@link CallKey}. Unlike {@link
+   * #inferredTypeVarNullabilityForGenericCalls}, which is keyed on trees, this cache is not cleared
+   * by {@link #clearCache()}, so calls to the same generic methods with the same types in different
+   * top-level classes (e.g., {@code ImmutableList.of(...)}) are only solved once. Only successful
+   * inference results are cached, so that failures are still reported at each call.
+   */
+  private final Cache<CallKey, ImmutableMap<Element, ConstraintSolver.InferredNullability>>
+      inferredTypeVarNullabilityByCallKey =
+          CacheBuilder.newBuilder().maximumSize(MAX_CALL_KEY_CACHE_SIZE).recordStats().build();
+
+  /** Stats of {@link #inferredTypeVarNullabilityByCallKey} as of the last telemetry report. */
+  private CacheStats reportedCallKeyCacheStats;
+
+  /** Maximum number of entries of {@link #memberTypes}. */
+  private static final int MAX_MEMBER_TYPE_CACHE_SIZE = 10_000;
+
+  /**
+   * Key for {@link #memberTypes}. javac {@link Type}s and {@link Symbol}s use identity equality, so
+   * entries are only shared between queries for the same {@link Type} object, e.g., the type of the
+   * class declaring an overriding method.
+   *
+   * @param site the type of which {@code sym} is viewed as a member
+   * @param sym the member
+   */
+  private record MemberTypeKey(Type site, Symbol sym) {}
+
+  /**
+   * Caches results of {@link TypeSubstitutionUtils#memberType(Types, Type, Symbol, Config)}, which
+   * rebuilds the annotated type of the member on every call. The same member type is queried
+   * repeatedly, e.g., once per parameter when checking an overriding method. Not cleared by {@link
+   * #clearCache()}, as results only depend on types and symbols, not on trees.
+   */
+  private final Cache<MemberTypeKey, Type> memberTypes =
+      CacheBuilder.newBuilder().maximumSize(MAX_MEMBER_TYPE_CACHE_SIZE).build();
+
+  /**
+   * Key for {@link #substitutedGenericMethodTypes}.
+   *
+   * @param tree the call to a generic method (or constructor)
+   * @param forAllType the generic method type in which type arguments are substituted, which may
+   *     differ between queries for the same call (e.g., with or without viewing the method as a
+   *     member of the receiver type)
+   */
+  private record GenericCallKey(Tree tree, Type.ForAll forAllType) {}
+
+  /**
+   * Maps each call to a generic method (or constructor) to the method type resulting from
+   * substituting its explicit or inferred type arguments, as computed by {@link
+   * #substituteTypeArgsInGenericMethodType(Tree, Type.ForAll, TreePath, VisitorState, boolean)}.
+   * Results relying on dataflow facts that may not reflect the fixed point are not stored.
+   */
+  private final Map<GenericCallKey, Type> substitutedGenericMethodTypes = new LinkedHashMap<>();
+
   public @Nullable Type getInferredPolyExpressionType(Tree tree) {
     Preconditions.checkArgument(
         tree instanceof LambdaExpressionTree || tree instanceof MemberReferenceTree,
@@ -128,6 +210,21 @@ public final class GenericsChecks {
     this.analysis = analysis;
     this.config = config;
     this.handler = handler;
+    this.reportedCallKeyCacheStats = inferredTypeVarNullabilityByCallKey.stats();
+    analysis.getPerfTelemetry().addCounterSource(this::addCallKeyCacheCountsTo);
+  }
+
+  /**
+   * Reports the hits and misses of {@link #inferredTypeVarNullabilityByCallKey} since the previous
+   * report. As the cache is shared across top-level classes, hits in the report of a compilation
+   * unit may reuse results solved in another one.
+   */
+  private void addCallKeyCacheCountsTo(PerfTelemetry telemetry) {
+    CacheStats stats = inferredTypeVarNullabilityByCallKey.stats();
+    CacheStats delta = stats.minus(reportedCallKeyCacheStats);
+    telemetry.count("GenericsChecks.callKeyCache.hits", delta.hitCount());
+    telemetry.count("GenericsChecks.callKeyCache.misses", delta.missCount());
+    reportedCallKeyCacheStats = stats;
   }
 
   /**
@@ -552,11 +649,10 @@ public final class GenericsChecks {
                 // of the lambda
                 Types types = state.getTypes();
                 var fiMethodType =
-                    TypeSubstitutionUtils.memberType(
-                        types,
+                    memberType(
                         inferredLambdaType,
                         NullabilityUtil.getFunctionalInterfaceMethod(lambdaTree, types),
-                        config);
+                        state);
                 return fiMethodType.getParameterTypes().get(i);
               }
             }
@@ -713,6 +809,28 @@ public final class GenericsChecks {
       @Nullable Type typeFromAssignmentContext,
       boolean assignedToLocal,
       boolean calledFromDataflow) {
+    PerfTelemetry telemetry = analysis.getPerfTelemetry();
+    long start = telemetry.start();
+    try {
+      return runInferenceForCallUntimed(
+          state,
+          path,
+          invocationTree,
+          typeFromAssignmentContext,
+          assignedToLocal,
+          calledFromDataflow);
+    } finally {
+      telemetry.record("GenericsChecks.runInferenceForCall", start);
+    }
+  }
+
+  private MethodInferenceResult runInferenceForCallUntimed(
+      VisitorState state,
+      @Nullable TreePath path,
+      MethodInvocationTree invocationTree,
+      @Nullable Type typeFromAssignmentContext,
+      boolean assignedToLocal,
+      boolean calledFromDataflow) {
     Symbol.MethodSymbol methodSymbol = ASTHelpers.getSymbol(invocationTree);
     ConstraintSolver solver = makeSolver(state, analysis);
     // allInvocations tracks the top-level invocations and any nested invocations that also
@@ -721,16 +839,33 @@ public final class GenericsChecks {
     allInvocations.add(invocationTree);
     Map<Element, ConstraintSolver.InferredNullability> typeVarNullability;
     try {
-      generateConstraintsForCall(
-          state,
-          path,
-          typeFromAssignmentContext,
-          assignedToLocal,
-          solver,
-          methodSymbol,
-          invocationTree,
-          allInvocations);
-      typeVarNullability = solver.solve();
+      CallKey callKey =
+          callKeyForInference(
+              state,
+              path,
+              invocationTree,
+              methodSymbol,
+              typeFromAssignmentContext,
+              assignedToLocal);
+      Map<Element, ConstraintSolver.InferredNullability> cachedTypeVarNullability =
+          callKey == null ? null : inferredTypeVarNullabilityByCallKey.getIfPresent(callKey);
+      if (cachedTypeVarNullability != null) {
+        typeVarNullability = cachedTypeVarNullability;
+      } else {
+        generateConstraintsForCall(
+            state,
+            path,
+            typeFromAssignmentContext,
+            assignedToLocal,
+            solver,
+            methodSymbol,
+            invocationTree,
+            allInvocations);
+        typeVarNullability = solver.solve();
+        if (callKey != null) {
+          inferredTypeVarNullabilityByCallKey.put(callKey, ImmutableMap.copyOf(typeVarNullability));
+        }
+      }
 
       // Store inferred types for lambda arguments
       new InvocationArguments(invocationTree, methodSymbol.type.asMethodType())
@@ -782,6 +917,83 @@ public final class GenericsChecks {
     }
   }
 
+  /**
+   * Computes the {@link CallKey} for a generic method call, if its inference constraints depend
+   * only on the types in the key. This excludes calls with lambda, method reference, or nested
+   * generic call arguments, whose constraints depend on their trees, and calls involving type
+   * variables of the enclosing code, which are not identified by their string representation.
+   *
+   * @param state the visitor state
+   * @param path the tree path to the invocationTree if available
+   * @param invocationTree the call
+   * @param methodSymbol the symbol for the called method
+   * @param typeFromAssignmentContext the type being "assigned to" in the assignment context, if any
+   * @param assignedToLocal whether the call result is assigned to a local variable
+   * @return the key, or {@code null} if results for this call cannot be shared with other calls
+   */
+  private @Nullable CallKey callKeyForInference(
+      VisitorState state,
+      @Nullable TreePath path,
+      MethodInvocationTree invocationTree,
+      Symbol.MethodSymbol methodSymbol,
+      @Nullable Type typeFromAssignmentContext,
+      boolean assignedToLocal) {
+    if (typeFromAssignmentContext != null && mayMentionTypeVariable(typeFromAssignmentContext)) {
+      return null;
+    }
+    ImmutableList.Builder<String> argumentTypes = ImmutableList.builder();
+    for (ExpressionTree argument : invocationTree.getArguments()) {
+      argument = ASTHelpers.stripParentheses(argument);
+      if (argument instanceof LambdaExpressionTree
+          || argument instanceof MemberReferenceTree
+          || isGenericCallNeedingInference(argument)) {
+        return null;
+      }
+      Type argumentType = getTreeType(argument, state);
+      if (argumentType == null) {
+        return null;
+      }
+      argumentType = refineArgumentTypeWithDataflow(argumentType, argument, state, path);
+      if (mayMentionTypeVariable(argumentType)) {
+        return null;
+      }
+      argumentTypes.add(argumentType.toString());
+    }
+    return new CallKey(
+        methodSymbol,
+        typeFromAssignmentContext == null ? null : typeFromAssignmentContext.toString(),
+        assignedToLocal,
+        NullabilityUtil.isVarArgsCall(invocationTree),
+        argumentTypes.build());
+  }
+
+  /**
+   * Conservatively checks whether a type mentions a type variable (including captured types), at
+   * any nesting level.
+   */
+  private static boolean mayMentionTypeVariable(Type type) {
+    if (type instanceof Type.TypeVar
+        || type instanceof Type.IntersectionClassType
+        || type instanceof Type.UnionClassType) {
+      return true;
+    }
+    if (type instanceof Type.ArrayType arrayType) {
+      return mayMentionTypeVariable(arrayType.getComponentType());
+    }
+    if (type instanceof Type.WildcardType wildcardType) {
+      return wildcardType.type != null && mayMentionTypeVariable(wildcardType.type);
+    }
+    if (type instanceof Type.ClassType classType) {
+      for (Type typeArgument : classType.getTypeArguments()) {
+        if (mayMentionTypeVariable(typeArgument)) {
+          return true;
+        }
+      }
+      return mayMentionTypeVariable(classType.getEnclosingType());
+    }
+    return false;
+  }
+
   /**
    * Generates inference constraints for a generic method call, including nested calls.
    *
@@ -897,9 +1109,7 @@ public final class GenericsChecks {
 
     // get the return type of the functional interface method, viewed as a member of the lhs
     // type, so the generic method's type variables are substituted in
-    Type.MethodType fiMethodTypeAsMember =
-        TypeSubstitutionUtils.memberType(state.getTypes(), lhsType, fiMethod, config)
-            .asMethodType();
+    Type.MethodType fiMethodTypeAsMember = memberType(lhsType, fiMethod, state).asMethodType();
     Type fiReturnType = fiMethodTypeAsMember.getReturnType();
     Tree body = lambda.getBody();
     // augment our current TreePath so that the lambda is the leaf, in case dataflow analysis needs
@@ -941,9 +1151,7 @@ public final class GenericsChecks {
 
     // get the return type of the functional interface method, viewed as a member of the lhs
     // type, so the generic method's type variables are substituted in
-    Type.MethodType fiMethodTypeAsMember =
-        TypeSubstitutionUtils.memberType(state.getTypes(), lhsType, fiMethod, config)
-            .asMethodType();
+    Type.MethodType fiMethodTypeAsMember = memberType(lhsType, fiMethod, state).asMethodType();
     Type fiReturnType = fiMethodTypeAsMember.getReturnType();
 
     // Get the referenced method symbol
@@ -1346,8 +1554,7 @@ public final class GenericsChecks {
     Type invokedMethodType = methodSymbol.type;
     Type enclosingType = getEnclosingTypeForCallExpression(methodSymbol, tree, null, state, false);
     if (enclosingType != null) {
-      invokedMethodType =
-          TypeSubstitutionUtils.memberType(state.getTypes(), enclosingType, methodSymbol, config);
+      invokedMethodType = memberType(enclosingType, methodSymbol, state);
     }
 
     // substitute type arguments for generic methods with explicit type arguments
@@ -1417,9 +1624,7 @@ public final class GenericsChecks {
     }
     // Obtain type parameters for the overridden method within the context of the overriding
     // method's class
-    Type methodWithTypeParams =
-        TypeSubstitutionUtils.memberType(
-            state.getTypes(), overridingMethod.owner.type, overriddenMethod, analysis.getConfig());
+    Type methodWithTypeParams = memberType(overridingMethod.owner.type, overriddenMethod, state);
 
     checkTypeParameterNullnessForOverridingMethodReturnType(tree, methodWithTypeParams, state);
     checkTypeParameterNullnessForOverridingMethodParameterType(tree, methodWithTypeParams, state);
@@ -1501,8 +1706,7 @@ public final class GenericsChecks {
       // annotation should have been handled by the caller)
       return Nullness.NONNULL;
     }
-    Type overriddenMethodType =
-        TypeSubstitutionUtils.memberType(state.getTypes(), enclosingType, method, config);
+    Type overriddenMethodType = memberType(enclosingType, method, state);
     verify(
         overriddenMethodType instanceof ExecutableType,
         "expected ExecutableType but instead got %s",
@@ -1608,6 +1812,29 @@ public final class GenericsChecks {
       @Nullable TreePath path,
       VisitorState state,
       boolean calledFromDataflow) {
+    GenericCallKey key = new GenericCallKey(tree, forAllType);
+    Type result = substitutedGenericMethodTypes.get(key);
+    if (result == null) {
+      result =
+          substituteTypeArgsInGenericMethodTypeUncached(
+              tree, forAllType, path, state, calledFromDataflow);
+      // for inferred type arguments, only store the result if the inference result is stored, as
+      // otherwise it may rely on dataflow facts that do not reflect the fixed point
+      if (!(tree instanceof MethodInvocationTree invocationTree)
+          || !invocationTree.getTypeArguments().isEmpty()
+          || inferredTypeVarNullabilityForGenericCalls.containsKey(tree)) {
+        substitutedGenericMethodTypes.put(key, result);
+      }
+    }
+    return result;
+  }
+
+  private Type substituteTypeArgsInGenericMethodTypeUncached(
+      Tree tree,
+      Type.ForAll forAllType,
+      @Nullable TreePath path,
+      VisitorState state,
+      boolean calledFromDataflow) {
     Type.MethodType methodType = forAllType.asMethodType();
 
     List<? extends Tree> typeArgumentTrees =
@@ -1953,8 +2180,7 @@ public final class GenericsChecks {
     boolean isVarargsParam =
         method.isVarArgs() && parameterIndex == method.getParameters().size() - 1;
 
-    Type methodType =
-        TypeSubstitutionUtils.memberType(state.getTypes(), enclosingType, method, config);
+    Type methodType = memberType(enclosingType, method, state);
     Type paramType = methodType.getParameterTypes().get(parameterIndex);
     return getParameterTypeNullness(paramType, isVarargsParam);
   }
@@ -2106,6 +2332,26 @@ public final class GenericsChecks {
   public void clearCache() {
     inferredTypeVarNullabilityForGenericCalls.clear();
     inferredPolyExpressionTypes.clear();
+    substitutedGenericMethodTypes.clear();
+  }
+
+  /**
+   * Like {@link TypeSubstitutionUtils#memberType(Types, Type, Symbol, Config)}, but reusing
+   * previously computed results for the same {@code site} and {@code sym}.
+   *
+   * @param site the enclosing type
+   * @param sym the symbol
+   * @param state the visitor state
+   * @return the type of {@code sym} as a member of {@code site}
+   */
+  private Type memberType(Type site, Symbol sym, VisitorState state) {
+    MemberTypeKey key = new MemberTypeKey(site, sym);
+    Type result = memberTypes.getIfPresent(key);
+    if (result == null) {
+      result = TypeSubstitutionUtils.memberType(state.getTypes(), site, sym, config);
+      memberTypes.put(key, result);
+    }
+    return result;
   }
 
   public boolean isNullableAnnotated(Type type) {
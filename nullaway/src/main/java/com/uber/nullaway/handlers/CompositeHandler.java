@@ -43,11 +43,14 @@ import com.sun.tools.javac.util.Context;
 import com.uber.nullaway.ErrorMessage;
 import com.uber.nullaway.NullAway;
 import com.uber.nullaway.Nullness;
+import com.uber.nullaway.PerfTelemetry;
 import com.uber.nullaway.dataflow.AccessPath;
 import com.uber.nullaway.dataflow.AccessPathNullnessAnalysis;
 import com.uber.nullaway.dataflow.AccessPathNullnessPropagation;
 import com.uber.nullaway.dataflow.NullnessStore;
 import com.uber.nullaway.dataflow.cfg.NullAwayCFGBuilder;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Predicate;
@@ -65,57 +68,174 @@ import org.jspecify.annotations.Nullable;
  */
 class CompositeHandler implements Handler {
 
-  private final ImmutableList<Handler> handlers;
+  /** Records the time spent in each callback, across all handlers. */
+  private final PerfTelemetry telemetry;
 
-  CompositeHandler(ImmutableList<Handler> handlers) {
-    // Attach default handlers
-    this.handlers = handlers;
+  /*
+   * For each callback, the handlers that override it, in registration order. Handler's default
+   * implementations of callbacks are no-ops that return their input (or the neutral value of the
+   * callback's result), so skipping the handlers that do not override a callback does not change
+   * its result, and most callbacks are only overridden by a few handlers.
+   */
+  private final Handler[] onMatchTopLevelClassHandlers;
+  private final Handler[] onMatchMethodHandlers;
+  private final Handler[] onMatchLambdaExpressionHandlers;
+  private final Handler[] onMatchMethodReferenceHandlers;
+  private final Handler[] onMatchMethodInvocationHandlers;
+  private final Handler[] onMatchReturnHandlers;
+  private final Handler[] onOverrideMethodReturnNullabilityHandlers;
+  private final Handler[] onOverrideFieldNullabilityHandlers;
+  private final Handler[] onOverrideMethodInvocationParametersNullabilityHandlers;
+  private final Handler[] onOverrideMayBeNullExprHandlers;
+  private final Handler[] onDataflowInitialStoreHandlers;
+  private final Handler[] onDataflowVisitMethodInvocationHandlers;
+  private final Handler[] onDataflowVisitFieldAccessHandlers;
+  private final Handler[] onDataflowVisitReturnHandlers;
+  private final Handler[] onDataflowVisitLambdaResultExpressionHandlers;
+  private final Handler[] onExpressionDereferenceHandlers;
+  private final Handler[] getAccessPathPredicateForNestedMethodHandlers;
+  private final Handler[] onRegisterImmutableTypesHandlers;
+  private final Handler[] onNonNullFieldAssignmentHandlers;
+  private final Handler[] onCFGBuildPhase1AfterVisitMethodInvocationHandlers;
+  private final Handler[] castToNonNullArgumentPositionsForMethodHandlers;
+  private final Handler[] onOverrideClassTypeVariableUpperBoundHandlers;
+  private final Handler[] onOverrideMethodTypeVariableUpperBoundHandlers;
+  private final Handler[] onOverrideNullMarkedClassesHandlers;
+  private final Handler[] onOverrideMethodTypeHandlers;
+
+  CompositeHandler(ImmutableList<Handler> handlers, PerfTelemetry telemetry) {
+    this.telemetry = telemetry;
+    this.onMatchTopLevelClassHandlers = handlersOverriding(handlers, "onMatchTopLevelClass");
+    this.onMatchMethodHandlers = handlersOverriding(handlers, "onMatchMethod");
+    this.onMatchLambdaExpressionHandlers = handlersOverriding(handlers, "onMatchLambdaExpression");
+    this.onMatchMethodReferenceHandlers = handlersOverriding(handlers, "onMatchMethodReference");
+    this.onMatchMethodInvocationHandlers = handlersOverriding(handlers, "onMatchMethodInvocation");
+    this.onMatchReturnHandlers = handlersOverriding(handlers, "onMatchReturn");
+    this.onOverrideMethodReturnNullabilityHandlers =
+        handlersOverriding(handlers, "onOverrideMethodReturnNullability");
+    this.onOverrideFieldNullabilityHandlers =
+        handlersOverriding(handlers, "onOverrideFieldNullability");
+    this.onOverrideMethodInvocationParametersNullabilityHandlers =
+        handlersOverriding(handlers, "onOverrideMethodInvocationParametersNullability");
+    this.onOverrideMayBeNullExprHandlers = handlersOverriding(handlers, "onOverrideMayBeNullExpr");
+    this.onDataflowInitialStoreHandlers = handlersOverriding(handlers, "onDataflowInitialStore");
+    this.onDataflowVisitMethodInvocationHandlers =
+        handlersOverriding(handlers, "onDataflowVisitMethodInvocation");
+    this.onDataflowVisitFieldAccessHandlers =
+        handlersOverriding(handlers, "onDataflowVisitFieldAccess");
+    this.onDataflowVisitReturnHandlers = handlersOverriding(handlers, "onDataflowVisitReturn");
+    this.onDataflowVisitLambdaResultExpressionHandlers =
+        handlersOverriding(handlers, "onDataflowVisitLambdaResultExpression");
+    this.onExpressionDereferenceHandlers = handlersOverriding(handlers, "onExpressionDereference");
+    this.getAccessPathPredicateForNestedMethodHandlers =
+        handlersOverriding(handlers, "getAccessPathPredicateForNestedMethod");
+    this.onRegisterImmutableTypesHandlers =
+        handlersOverriding(handlers, "onRegisterImmutableTypes");
+    this.onNonNullFieldAssignmentHandlers =
+        handlersOverriding(handlers, "onNonNullFieldAssignment");
+    this.onCFGBuildPhase1AfterVisitMethodInvocationHandlers =
+        handlersOverriding(handlers, "onCFGBuildPhase1AfterVisitMethodInvocation");
+    this.castToNonNullArgumentPositionsForMethodHandlers =
+        handlersOverriding(handlers, "castToNonNullArgumentPositionsForMethod");
+    this.onOverrideClassTypeVariableUpperBoundHandlers =
+        handlersOverriding(handlers, "onOverrideClassTypeVariableUpperBound");
+    this.onOverrideMethodTypeVariableUpperBoundHandlers =
+        handlersOverriding(handlers, "onOverrideMethodTypeVariableUpperBound");
+    this.onOverrideNullMarkedClassesHandlers =
+        handlersOverriding(handlers, "onOverrideNullMarkedClasses");
+    this.onOverrideMethodTypeHandlers = handlersOverriding(handlers, "onOverrideMethodType");
+  }
+
+  /**
+   * Returns the handlers that override the callback named {@code methodName}, in the order of
+   * {@code handlers}.
+   *
+   * @param handlers all registered handlers
+   * @param methodName name of a callback declared in {@link Handler}
+   * @return the handlers whose class does not inherit the default implementation of the callback
+   */
+  static Handler[] handlersOverriding(ImmutableList<Handler> handlers, String methodName) {
+    Method callback = null;
+    for (Method m : Handler.class.getMethods()) {
+      if (m.getName().equals(methodName)) {
+        callback = m;
+        break;
+      }
+    }
+    if (callback == null) {
+      throw new IllegalStateException("Handler declares no callback named " + methodName);
+    }
+    List<Handler> result = new ArrayList<>();
+    for (Handler h : handlers) {
+      Method impl;
+      try {
+        impl = h.getClass().getMethod(methodName, callback.getParameterTypes());
+      } catch (NoSuchMethodException e) {
+        throw new IllegalStateException("Could not resolve " + methodName + " for " + h, e);
+      }
+      if (!impl.getDeclaringClass().equals(Handler.class)) {
+        result.add(h);
+      }
+    }
+    return result.toArray(new Handler[0]);
   }
 
   @Override
   public void onMatchTopLevelClass(
       NullAway analysis, ClassTree tree, VisitorState state, Symbol.ClassSymbol classSymbol) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onMatchTopLevelClassHandlers) {
       h.onMatchTopLevelClass(analysis, tree, state, classSymbol);
     }
+    telemetry.record("Handler.onMatchTopLevelClass", start);
   }
 
   @Override
   public void onMatchMethod(MethodTree tree, MethodAnalysisContext methodAnalysisContext) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onMatchMethodHandlers) {
       h.onMatchMethod(tree, methodAnalysisContext);
     }
+    telemetry.record("Handler.onMatchMethod", start);
   }
 
   @Override
   public void onMatchLambdaExpression(
       LambdaExpressionTree tree, MethodAnalysisContext methodAnalysisContext) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onMatchLambdaExpressionHandlers) {
       h.onMatchLambdaExpression(tree, methodAnalysisContext);
     }
+    telemetry.record("Handler.onMatchLambdaExpression", start);
   }
 
   @Override
   public void onMatchMethodReference(
       MemberReferenceTree tree, MethodAnalysisContext methodAnalysisContext) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onMatchMethodReferenceHandlers) {
       h.onMatchMethodReference(tree, methodAnalysisContext);
     }
+    telemetry.record("Handler.onMatchMethodReference", start);
   }
 
   @Override
   public void onMatchMethodInvocation(
       MethodInvocationTree tree, MethodAnalysisContext methodAnalysisContext) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onMatchMethodInvocationHandlers) {
       h.onMatchMethodInvocation(tree, methodAnalysisContext);
     }
+    telemetry.record("Handler.onMatchMethodInvocation", start);
   }
 
   @Override
   public void onMatchReturn(NullAway analysis, ReturnTree tree, VisitorState state) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onMatchReturnHandlers) {
       h.onMatchReturn(analysis, tree, state);
     }
+    telemetry.record("Handler.onMatchReturn", start);
   }
 
   @Override
@@ -124,22 +244,27 @@ class CompositeHandler implements Handler {
       VisitorState state,
       boolean isAnnotated,
       Nullness returnNullness) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onOverrideMethodReturnNullabilityHandlers) {
       returnNullness =
           h.onOverrideMethodReturnNullability(methodSymbol, state, isAnnotated, returnNullness);
     }
+    telemetry.record("Handler.onOverrideMethodReturnNullability", start);
     return returnNullness;
   }
 
   @Override
   public boolean onOverrideFieldNullability(Symbol field) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onOverrideFieldNullabilityHandlers) {
       if (h.onOverrideFieldNullability(field)) {
         // If any handler determines that the field is @Nullable, we should acknowledge that and
         // treat it as such.
+        telemetry.record("Handler.onOverrideFieldNullability", start);
         return true;
       }
     }
+    telemetry.record("Handler.onOverrideFieldNullability", start);
     return false;
   }
 
@@ -149,11 +274,13 @@ class CompositeHandler implements Handler {
       Symbol.MethodSymbol methodSymbol,
       boolean isAnnotated,
       @Nullable Nullness[] argumentPositionNullness) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onOverrideMethodInvocationParametersNullabilityHandlers) {
       argumentPositionNullness =
           h.onOverrideMethodInvocationParametersNullability(
               context, methodSymbol, isAnnotated, argumentPositionNullness);
     }
+    telemetry.record("Handler.onOverrideMethodInvocationParametersNullability", start);
     return argumentPositionNullness;
   }
 
@@ -164,9 +291,11 @@ class CompositeHandler implements Handler {
       @Nullable Symbol exprSymbol,
       VisitorState state,
       boolean exprMayBeNull) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onOverrideMayBeNullExprHandlers) {
       exprMayBeNull = h.onOverrideMayBeNullExpr(analysis, expr, exprSymbol, state, exprMayBeNull);
     }
+    telemetry.record("Handler.onOverrideMayBeNullExpr", start);
     return exprMayBeNull;
   }
 
@@ -175,9 +304,11 @@ class CompositeHandler implements Handler {
       UnderlyingAST underlyingAST,
       List<LocalVariableNode> parameters,
       NullnessStore.Builder result) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onDataflowInitialStoreHandlers) {
       result = h.onDataflowInitialStore(underlyingAST, parameters, result);
     }
+    telemetry.record("Handler.onDataflowInitialStore", start);
     return result;
   }
 
@@ -191,13 +322,15 @@ class CompositeHandler implements Handler {
       AccessPathNullnessPropagation.Updates thenUpdates,
       AccessPathNullnessPropagation.Updates elseUpdates,
       AccessPathNullnessPropagation.Updates bothUpdates) {
+    long start = telemetry.start();
     NullnessHint nullnessHint = NullnessHint.UNKNOWN;
-    for (Handler h : handlers) {
+    for (Handler h : onDataflowVisitMethodInvocationHandlers) {
       NullnessHint n =
           h.onDataflowVisitMethodInvocation(
               node, symbol, state, apContext, inputs, thenUpdates, elseUpdates, bothUpdates);
       nullnessHint = nullnessHint.merge(n);
     }
+    telemetry.record("Handler.onDataflowVisitMethodInvocation", start);
     return nullnessHint;
   }
 
@@ -210,54 +343,65 @@ class CompositeHandler implements Handler {
       AccessPath.AccessPathContext apContext,
       AccessPathNullnessPropagation.SubNodeValues inputs,
       AccessPathNullnessPropagation.Updates updates) {
+    long start = telemetry.start();
     NullnessHint nullnessHint = NullnessHint.UNKNOWN;
-    for (Handler h : handlers) {
+    for (Handler h : onDataflowVisitFieldAccessHandlers) {
       NullnessHint n =
           h.onDataflowVisitFieldAccess(node, symbol, types, context, apContext, inputs, updates);
       nullnessHint = nullnessHint.merge(n);
     }
+    telemetry.record("Handler.onDataflowVisitFieldAccess", start);
     return nullnessHint;
   }
 
   @Override
   public void onDataflowVisitReturn(
       ReturnTree tree, VisitorState state, NullnessStore thenStore, NullnessStore elseStore) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onDataflowVisitReturnHandlers) {
       h.onDataflowVisitReturn(tree, state, thenStore, elseStore);
     }
+    telemetry.record("Handler.onDataflowVisitReturn", start);
   }
 
   @Override
   public void onDataflowVisitLambdaResultExpression(
       ExpressionTree tree, NullnessStore thenStore, NullnessStore elseStore) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onDataflowVisitLambdaResultExpressionHandlers) {
       h.onDataflowVisitLambdaResultExpression(tree, thenStore, elseStore);
     }
+    telemetry.record("Handler.onDataflowVisitLambdaResultExpression", start);
   }
 
   @Override
   public Optional<ErrorMessage> onExpressionDereference(
       ExpressionTree expr, ExpressionTree baseExpr, VisitorState state) {
+    long start = telemetry.start();
     Optional<ErrorMessage> optionalErrorMessage;
-    for (Handler h : handlers) {
+    for (Handler h : onExpressionDereferenceHandlers) {
       optionalErrorMessage = h.onExpressionDereference(expr, baseExpr, state);
       if (optionalErrorMessage.isPresent()) {
+        telemetry.record("Handler.onExpressionDereference", start);
         return optionalErrorMessage;
       }
     }
+    telemetry.record("Handler.onExpressionDereference", start);
     return Optional.empty();
   }
 
   @Override
   public Predicate<AccessPath> getAccessPathPredicateForNestedMethod(
       TreePath path, VisitorState state) {
+    long start = telemetry.start();
     Predicate<AccessPath> filter = FALSE_AP_PREDICATE;
-    for (Handler h : handlers) {
+    for (Handler h : getAccessPathPredicateForNestedMethodHandlers) {
       Predicate<AccessPath> curFilter = h.getAccessPathPredicateForNestedMethod(path, state);
       // here we do some optimization, to try to avoid unnecessarily returning a deeply nested
       // Predicate object (which would be more costly to test)
       if (curFilter != FALSE_AP_PREDICATE) {
         if (curFilter == TRUE_AP_PREDICATE) {
+          telemetry.record("Handler.getAccessPathPredicateForNestedMethod", start);
           return curFilter;
         } else if (filter == FALSE_AP_PREDICATE) {
           filter = curFilter;
@@ -266,24 +410,29 @@ class CompositeHandler implements Handler {
         }
       }
     }
+    telemetry.record("Handler.getAccessPathPredicateForNestedMethod", start);
     return filter;
   }
 
   @Override
   public ImmutableSet<String> onRegisterImmutableTypes() {
+    long start = telemetry.start();
     ImmutableSet.Builder<String> builder = ImmutableSet.<String>builder();
-    for (Handler h : handlers) {
+    for (Handler h : onRegisterImmutableTypesHandlers) {
       builder.addAll(h.onRegisterImmutableTypes());
     }
+    telemetry.record("Handler.onRegisterImmutableTypes", start);
     return builder.build();
   }
 
   @Override
   public void onNonNullFieldAssignment(
       Symbol field, AccessPathNullnessAnalysis analysis, VisitorState state) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : onNonNullFieldAssignmentHandlers) {
       h.onNonNullFieldAssignment(field, analysis, state);
     }
+    telemetry.record("Handler.onNonNullFieldAssignment", start);
   }
 
   @Override
@@ -291,10 +440,12 @@ class CompositeHandler implements Handler {
       NullAwayCFGBuilder.NullAwayCFGTranslationPhaseOne phase,
       MethodInvocationTree tree,
       MethodInvocationNode originalNode) {
+    long start = telemetry.start();
     MethodInvocationNode currentNode = originalNode;
-    for (Handler h : handlers) {
+    for (Handler h : onCFGBuildPhase1AfterVisitMethodInvocationHandlers) {
       currentNode = h.onCFGBuildPhase1AfterVisitMethodInvocation(phase, tree, currentNode);
     }
+    telemetry.record("Handler.onCFGBuildPhase1AfterVisitMethodInvocation", start);
     return currentNode;
   }
 
@@ -303,24 +454,28 @@ class CompositeHandler implements Handler {
       List<? extends ExpressionTree> actualParams,
       @Nullable Integer previousArgumentPosition,
       MethodAnalysisContext methodAnalysisContext) {
-    for (Handler h : handlers) {
+    long start = telemetry.start();
+    for (Handler h : castToNonNullArgumentPositionsForMethodHandlers) {
       previousArgumentPosition =
           h.castToNonNullArgumentPositionsForMethod(
               actualParams, previousArgumentPosition, methodAnalysisContext);
     }
+    telemetry.record("Handler.castToNonNullArgumentPositionsForMethod", start);
     return previousArgumentPosition;
   }
 
   /** Returns true if any handler returns true. */
   @Override
   public boolean onOverrideClassTypeVariableUpperBound(String className, int index) {
+    long start = telemetry.start();
     boolean result = false;
-    for (Handler h : handlers) {
+    for (Handler h : onOverrideClassTypeVariableUpperBoundHandlers) {
       result = h.onOverrideClassTypeVariableUpperBound(className, index);
       if (result) {
         break;
       }
     }
+    telemetry.record("Handler.onOverrideClassTypeVariableUpperBound", start);
     return result;
   }
 
@@ -328,36 +483,42 @@ class CompositeHandler implements Handler {
   @Override
   public boolean onOverrideMethodTypeVariableUpperBound(
       Symbol.MethodSymbol methodSymbol, int index, VisitorState state) {
+    long start = telemetry.start();
     boolean result = false;
-    for (Handler h : handlers) {
+    for (Handler h : onOverrideMethodTypeVariableUpperBoundHandlers) {
       result = h.onOverrideMethodTypeVariableUpperBound(methodSymbol, index, state);
       if (result) {
         break;
       }
     }
+    telemetry.record("Handler.onOverrideMethodTypeVariableUpperBound", start);
     return result;
   }
 
   /** Returns true if any handler returns true. */
   @Override
   public boolean onOverrideNullMarkedClasses(String className) {
+    long start = telemetry.start();
     boolean result = false;
-    for (Handler h : handlers) {
+    for (Handler h : onOverrideNullMarkedClassesHandlers) {
       result = h.onOverrideNullMarkedClasses(className);
       if (result) {
         break;
       }
     }
+    telemetry.record("Handler.onOverrideNullMarkedClasses", start);
     return result;
   }
 
   @Override
   public Type.MethodType onOverrideMethodType(
       Symbol.MethodSymbol methodSymbol, Type.MethodType methodType, VisitorState state) {
+    long start = telemetry.start();
     Type.MethodType currentType = methodType;
-    for (Handler h : handlers) {
+    for (Handler h : onOverrideMethodTypeHandlers) {
       currentType = h.onOverrideMethodType(methodSymbol, currentType, state);
     }
+    telemetry.record("Handler.onOverrideMethodType", start);
     return currentType;
   }
 }
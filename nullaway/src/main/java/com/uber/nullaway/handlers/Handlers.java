@@ -24,6 +24,7 @@ package com.uber.nullaway.handlers;
 
 import com.google.common.collect.ImmutableList;
 import com.uber.nullaway.Config;
+import com.uber.nullaway.PerfTelemetry;
 import com.uber.nullaway.handlers.contract.ContractCheckHandler;
 import com.uber.nullaway.handlers.contract.ContractHandler;
 import com.uber.nullaway.handlers.contract.fieldcontract.EnsuresNonNullHandler;
@@ -40,9 +41,10 @@ public class Handlers {
    * Builds the default handler for the checker.
    *
    * @param config NullAway config
+   * @param telemetry records the time spent in each handler callback
    * @return A {@code CompositeHandler} including the standard handlers for the nullness checker.
    */
-  public static Handler buildDefault(Config config) {
+  public static Handler buildDefault(Config config, PerfTelemetry telemetry) {
     ImmutableList.Builder<Handler> handlerListBuilder = ImmutableList.builder();
     MethodNameUtil methodNameUtil = new MethodNameUtil();
 
@@ -81,7 +83,7 @@ public class Handlers {
     handlerListBuilder.add(new ContractCheckHandler(config));
     handlerListBuilder.add(new LombokHandler(config));
     handlerListBuilder.add(new FluentFutureHandler(config));
-    CompositeHandler mainHandler = new CompositeHandler(handlerListBuilder.build());
+    CompositeHandler mainHandler = new CompositeHandler(handlerListBuilder.build(), telemetry);
 
     // Initialize the handlers that need to be aware of the main handler
     if (restrictiveAnnotationHandler != null) {
@@ -98,6 +100,6 @@ public class Handlers {
    * @return An empty {@code CompositeHandler}.
    */
   public static Handler buildEmpty() {
-    return new CompositeHandler(ImmutableList.of());
+    return new CompositeHandler(ImmutableList.of(), PerfTelemetry.DISABLED);
   }
 }
@@ -30,6 +30,9 @@ import static com.uber.nullaway.librarymodel.NestedAnnotationInfo.TypePathEntry.
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -58,12 +61,17 @@ import com.uber.nullaway.dataflow.AccessPath;
 import com.uber.nullaway.dataflow.AccessPathNullnessPropagation;
 import com.uber.nullaway.generics.GenericsChecks;
 import com.uber.nullaway.handlers.stream.StreamTypeRecord;
+import com.uber.nullaway.jarinfer.JarInferStubxProvider;
 import com.uber.nullaway.librarymodel.AddAnnotationToNestedTypeVisitor;
 import com.uber.nullaway.librarymodel.NestedAnnotationInfo;
 import com.uber.nullaway.librarymodel.NestedAnnotationInfo.Annotation;
+import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -84,12 +92,34 @@ import org.jspecify.annotations.Nullable;
  */
 public class LibraryModelsHandler implements Handler {
 
+  /**
+   * Combined library models shared by all compilations in this process, e.g., by all compilations
+   * in a Gradle daemon, keyed on the configuration and model providers they were built from. As
+   * this field is static, the cache is scoped to the class loader of NullAway, from which the
+   * models themselves are also loaded.
+   */
+  private static final Cache<LibraryModelsKey, LibraryModels> sharedLibraryModels =
+      CacheBuilder.newBuilder().maximumSize(16).recordStats().build();
+
+  /**
+   * The inputs that combined library models are built from: the flags they depend on, and the
+   * locations of the resources through which model providers are found.
+   */
+  private record LibraryModelsKey(
+      boolean jspecifyMode,
+      boolean jarInferEnabled,
+      ImmutableSet<String> skippedLibraryModels,
+      ImmutableList<String> providerResources) {}
+
   private final Config config;
   private Handler mainHandler;
   private final LibraryModels libraryModels;
 
   private @Nullable OptimizedLibraryModels optLibraryModels;
 
+  /** Whether each field looked up so far is nullable according to the library models. */
+  private final Map<Symbol.VarSymbol, Boolean> nullableFieldLookups = new IdentityHashMap<>();
+
   public LibraryModelsHandler(Config config) {
     super();
     this.config = config;
@@ -287,19 +317,22 @@ public class LibraryModelsHandler implements Handler {
       return false;
     }
     if (symbol instanceof Symbol.VarSymbol varSymbol && symbol.getKind().isField()) {
-      Symbol.ClassSymbol classSymbol = varSymbol.enclClass();
-      if (classSymbol == null) {
-        // e.g. .class expressions
-        return false;
-      }
-      String fieldName = varSymbol.getSimpleName().toString();
-      String enclosingClassName = classSymbol.flatName().toString();
-      // This check could be optimized further in the future if needed
-      return libraryModels.nullableFields().contains(fieldRef(enclosingClassName, fieldName));
+      return nullableFieldLookups.computeIfAbsent(varSymbol, this::isNullableFieldInModels);
     }
     return false;
   }
 
+  private boolean isNullableFieldInModels(Symbol.VarSymbol field) {
+    Symbol.ClassSymbol classSymbol = field.enclClass();
+    if (classSymbol == null) {
+      // e.g. .class expressions
+      return false;
+    }
+    String fieldName = field.getSimpleName().toString();
+    String enclosingClassName = classSymbol.flatName().toString();
+    return libraryModels.nullableFields().contains(fieldRef(enclosingClassName, fieldName));
+  }
+
   private void setConditionalArgumentNullness(
       AccessPathNullnessPropagation.Updates thenUpdates,
       AccessPathNullnessPropagation.Updates elseUpdates,
@@ -472,7 +505,58 @@ public class LibraryModelsHandler implements Handler {
     return libraryModels.customStreamNullabilitySpecs();
   }
 
+  /**
+   * Returns hit and miss counts for the library models shared across compilations in this process,
+   * i.e., how many times combined models were reused and rebuilt, respectively.
+   */
+  public static CacheStats getSharedLibraryModelsCacheStats() {
+    return sharedLibraryModels.stats();
+  }
+
   private static LibraryModels loadLibraryModels(Config config) {
+    LibraryModelsKey key = libraryModelsKey(config);
+    if (key == null) {
+      return buildLibraryModels(config);
+    }
+    LibraryModels libraryModels = sharedLibraryModels.getIfPresent(key);
+    if (libraryModels == null) {
+      libraryModels = buildLibraryModels(config);
+      sharedLibraryModels.put(key, libraryModels);
+    }
+    return libraryModels;
+  }
+
+  /**
+   * Returns the key of the combined library models for the given configuration, or {@code null}
+   * if the model provider resources cannot be listed, in which case the models are not shared.
+   */
+  private static @Nullable LibraryModelsKey libraryModelsKey(Config config) {
+    ClassLoader classLoader = LibraryModels.class.getClassLoader();
+    ImmutableList.Builder<String> providerResources = ImmutableList.builder();
+    try {
+      List<String> resourceNames = new ArrayList<>();
+      resourceNames.add("META-INF/services/" + LibraryModels.class.getName());
+      if (config.isJarInferEnabled()) {
+        resourceNames.add("META-INF/services/" + JarInferStubxProvider.class.getName());
+        resourceNames.add(ExternalStubxLibraryModels.ANDROID_ASTUBX_LOCATION);
+      }
+      for (String resourceName : resourceNames) {
+        for (URL url : Collections.list(classLoader.getResources(resourceName))) {
+          // compare URLs as strings, as URL.equals() may resolve host names
+          providerResources.add(url.toExternalForm());
+        }
+      }
+    } catch (IOException e) {
+      return null;
+    }
+    return new LibraryModelsKey(
+        config.isJSpecifyMode(),
+        config.isJarInferEnabled(),
+        ImmutableSet.copyOf(config.getSkippedLibraryModels()),
+        providerResources.build());
+  }
+
+  private static LibraryModels buildLibraryModels(Config config) {
     Iterable<LibraryModels> externalLibraryModels =
         ServiceLoader.load(LibraryModels.class, LibraryModels.class.getClassLoader());
     ImmutableSet.Builder<LibraryModels> libModelsBuilder = new ImmutableSet.Builder<>();
@@ -1112,8 +1196,6 @@ public class LibraryModelsHandler implements Handler {
 
   private static class CombinedLibraryModels implements LibraryModels {
 
-    private final Config config;
-
     private final ImmutableSetMultimap<MethodRef, Integer> failIfNullParameters;
 
     private final ImmutableSetMultimap<MethodRef, Integer> explicitlyNullableParameters;
@@ -1147,7 +1229,6 @@ public class LibraryModelsHandler implements Handler {
         nestedAnnotationsForMethods;
 
     CombinedLibraryModels(Iterable<LibraryModels> models, Config config) {
-      this.config = config;
       ImmutableSetMultimap.Builder<MethodRef, Integer> failIfNullParametersBuilder =
           new ImmutableSetMultimap.Builder<>();
       ImmutableSetMultimap.Builder<MethodRef, Integer> explicitlyNullableParametersBuilder =
@@ -1176,59 +1257,59 @@ public class LibraryModelsHandler implements Handler {
           nestedAnnotationsBuilder = new LinkedHashMap<>();
       for (LibraryModels libraryModels : models) {
         for (Map.Entry<MethodRef, Integer> entry : libraryModels.failIfNullParameters().entries()) {
-          if (shouldSkipModel(entry.getKey())) {
+          if (shouldSkipModel(config, entry.getKey())) {
             continue;
           }
           failIfNullParametersBuilder.put(entry);
         }
         for (Map.Entry<MethodRef, Integer> entry :
             libraryModels.explicitlyNullableParameters().entries()) {
-          if (shouldSkipModel(entry.getKey())) {
+          if (shouldSkipModel(config, entry.getKey())) {
             continue;
           }
           explicitlyNullableParametersBuilder.put(entry);
         }
         for (Map.Entry<MethodRef, Integer> entry : libraryModels.nonNullParameters().entries()) {
-          if (shouldSkipModel(entry.getKey())) {
+          if (shouldSkipModel(config, entry.getKey())) {
             continue;
           }
           nonNullParametersBuilder.put(entry);
         }
         for (Map.Entry<MethodRef, Integer> entry :
             libraryModels.nullImpliesTrueParameters().entries()) {
-          if (shouldSkipModel(entry.getKey())) {
+          if (shouldSkipModel(config, entry.getKey())) {
             continue;
           }
           nullImpliesTrueParametersBuilder.put(entry);
         }
         for (Map.Entry<MethodRef, Integer> entry :
             libraryModels.nullImpliesFalseParameters().entries()) {
-          if (shouldSkipModel(entry.getKey())) {
+          if (shouldSkipModel(config, entry.getKey())) {
             continue;
           }
           nullImpliesFalseParametersBuilder.put(entry);
         }
         for (Map.Entry<MethodRef, Integer> entry :
             libraryModels.nullImpliesNullParameters().entries()) {
-          if (shouldSkipModel(entry.getKey())) {
+          if (shouldSkipModel(config, entry.getKey())) {
             continue;
           }
           nullImpliesNullParametersBuilder.put(entry);
         }
         for (MethodRef name : libraryModels.nullableReturns()) {
-          if (shouldSkipModel(name)) {
+          if (shouldSkipModel(config, name)) {
             continue;
           }
           nullableReturnsBuilder.add(name);
         }
         for (MethodRef name : libraryModels.nonNullReturns()) {
-          if (shouldSkipModel(name)) {
+          if (shouldSkipModel(config, name)) {
             continue;
           }
           nonNullReturnsBuilder.add(name);
         }
         for (Map.Entry<MethodRef, Integer> entry : libraryModels.castToNonNullMethods().entries()) {
-          if (shouldSkipModel(entry.getKey())) {
+          if (shouldSkipModel(config, entry.getKey())) {
             continue;
           }
           castToNonNullMethodsBuilder.put(entry);
@@ -1248,7 +1329,7 @@ public class LibraryModelsHandler implements Handler {
         }
         for (Map.Entry<MethodRef, ImmutableSetMultimap<Integer, NestedAnnotationInfo>> entry :
             libraryModels.nestedAnnotationsForMethods().entrySet()) {
-          if (shouldSkipModel(entry.getKey())) {
+          if (shouldSkipModel(config, entry.getKey())) {
             continue;
           }
           ImmutableSetMultimap.Builder<Integer, NestedAnnotationInfo> builder =
@@ -1281,7 +1362,7 @@ public class LibraryModelsHandler implements Handler {
       nestedAnnotationsForMethods = nestedAnnotationsForMethodsBuilder.build();
     }
 
-    private boolean shouldSkipModel(MethodRef key) {
+    private static boolean shouldSkipModel(Config config, MethodRef key) {
       return config.isSkippedLibraryModel(key.enclosingClass + "." + key.methodName);
     }
 
@@ -1392,6 +1473,12 @@ public class LibraryModelsHandler implements Handler {
         return methodRefTMap.get(ref);
       }
 
+      /** Like {@link #get(Symbol.MethodSymbol)}, for a precomputed {@link MethodRef}. */
+      @Nullable T get(Name name, MethodRef ref) {
+        Map<MethodRef, T> methodRefTMap = state.get(name);
+        return methodRefTMap == null ? null : methodRefTMap.get(ref);
+      }
+
       boolean nameNotPresent(Symbol.MethodSymbol symbol) {
         return state.get(symbol.name) == null;
       }
@@ -1410,6 +1497,82 @@ public class LibraryModelsHandler implements Handler {
     private final NameIndexedMap<ImmutableSetMultimap<Integer, NestedAnnotationInfo>>
         nestedAnnotationsForMethods;
 
+    /**
+     * The models of a single method, combined from all the lookups above. Resolved once per method
+     * symbol, so repeated queries for the same callee cost a single identity hash lookup.
+     */
+    private static final class MethodModels {
+
+      /** Models of methods without any model. */
+      static final MethodModels EMPTY =
+          new MethodModels(
+              ImmutableSet.of(),
+              ImmutableSet.of(),
+              ImmutableSet.of(),
+              ImmutableSet.of(),
+              ImmutableSet.of(),
+              ImmutableSet.of(),
+              ImmutableSet.of(),
+              ImmutableSet.of(),
+              ImmutableSetMultimap.of(),
+              false,
+              false);
+
+      final ImmutableSet<Integer> failIfNullParams;
+      final ImmutableSet<Integer> explicitlyNullableParams;
+      final ImmutableSet<Integer> nonNullParams;
+      final ImmutableSet<Integer> nullImpliesTrueParams;
+      final ImmutableSet<Integer> nullImpliesFalseParams;
+      final ImmutableSet<Integer> nullImpliesNullParams;
+      final ImmutableSet<Integer> castToNonNullParams;
+      final ImmutableSet<Integer> typeVariablesWithNullableUpperBounds;
+      final ImmutableSetMultimap<Integer, NestedAnnotationInfo> nestedAnnotations;
+
+      /** Whether a return model exists for exactly this method. */
+      final boolean nonNullReturn;
+
+      final boolean nullableReturn;
+
+      /**
+       * Whether a return model exists for this method or a method it overrides, computed on first
+       * use since finding overridden methods is comparatively expensive.
+       */
+      @Nullable Boolean nonNullReturnIncludingOverridden;
+
+      @Nullable Boolean nullableReturnIncludingOverridden;
+
+      MethodModels(
+          ImmutableSet<Integer> failIfNullParams,
+          ImmutableSet<Integer> explicitlyNullableParams,
+          ImmutableSet<Integer> nonNullParams,
+          ImmutableSet<Integer> nullImpliesTrueParams,
+          ImmutableSet<Integer> nullImpliesFalseParams,
+          ImmutableSet<Integer> nullImpliesNullParams,
+          ImmutableSet<Integer> castToNonNullParams,
+          ImmutableSet<Integer> typeVariablesWithNullableUpperBounds,
+          ImmutableSetMultimap<Integer, NestedAnnotationInfo> nestedAnnotations,
+          boolean nonNullReturn,
+          boolean nullableReturn) {
+        this.failIfNullParams = failIfNullParams;
+        this.explicitlyNullableParams = explicitlyNullableParams;
+        this.nonNullParams = nonNullParams;
+        this.nullImpliesTrueParams = nullImpliesTrueParams;
+        this.nullImpliesFalseParams = nullImpliesFalseParams;
+        this.nullImpliesNullParams = nullImpliesNullParams;
+        this.castToNonNullParams = castToNonNullParams;
+        this.typeVariablesWithNullableUpperBounds = typeVariablesWithNullableUpperBounds;
+        this.nestedAnnotations = nestedAnnotations;
+        this.nonNullReturn = nonNullReturn;
+        this.nullableReturn = nullableReturn;
+      }
+    }
+
+    /** Models resolved so far, per method symbol. */
+    private final Map<Symbol.MethodSymbol, MethodModels> resolvedModels = new IdentityHashMap<>();
+
+    /** Names of methods with some model; other methods resolve to {@link MethodModels#EMPTY}. */
+    private final Set<Name> modeledMethodNames = new HashSet<>();
+
     OptimizedLibraryModels(LibraryModels models, Context context) {
       Names names = Names.instance(context);
       failIfNullParams = makeOptimizedIntSetLookup(names, models.failIfNullParameters());
@@ -1427,58 +1590,121 @@ public class LibraryModelsHandler implements Handler {
           makeOptimizedIntSetLookup(names, models.methodTypeVariablesWithNullableUpperBounds());
       nestedAnnotationsForMethods =
           makeOptimizedNestedAnnotationLookup(names, models.nestedAnnotationsForMethods());
+      for (NameIndexedMap<?> lookup :
+          List.of(
+              failIfNullParams,
+              explicitlyNullableParams,
+              nonNullParams,
+              nullImpliesTrueParams,
+              nullImpliesFalseParams,
+              nullImpliesNullParams,
+              nullableRet,
+              nonNullRet,
+              castToNonNullMethods,
+              methodTypeVariablesWithNullableUpperBounds,
+              nestedAnnotationsForMethods)) {
+        modeledMethodNames.addAll(lookup.state.keySet());
+      }
     }
 
     boolean hasNonNullReturn(Symbol.MethodSymbol symbol, Types types, boolean checkSuper) {
-      return lookupHandlingOverrides(symbol, types, nonNullRet, checkSuper) != null;
+      MethodModels methodModels = resolve(symbol);
+      if (methodModels.nonNullReturn || !checkSuper) {
+        return methodModels.nonNullReturn;
+      }
+      Boolean result = methodModels.nonNullReturnIncludingOverridden;
+      if (result == null) {
+        result = lookupHandlingOverrides(symbol, types, nonNullRet, true) != null;
+        methodModels.nonNullReturnIncludingOverridden = result;
+      }
+      return result;
     }
 
     boolean hasNullableReturn(Symbol.MethodSymbol symbol, Types types, boolean checkSuper) {
-      return lookupHandlingOverrides(symbol, types, nullableRet, checkSuper) != null;
+      MethodModels methodModels = resolve(symbol);
+      if (methodModels.nullableReturn || !checkSuper) {
+        return methodModels.nullableReturn;
+      }
+      Boolean result = methodModels.nullableReturnIncludingOverridden;
+      if (result == null) {
+        result = lookupHandlingOverrides(symbol, types, nullableRet, true) != null;
+        methodModels.nullableReturnIncludingOverridden = result;
+      }
+      return result;
     }
 
     ImmutableSet<Integer> failIfNullParameters(Symbol.MethodSymbol symbol) {
-      return lookupImmutableSet(symbol, failIfNullParams);
+      return resolve(symbol).failIfNullParams;
     }
 
     ImmutableSet<Integer> explicitlyNullableParameters(Symbol.MethodSymbol symbol) {
-      return lookupImmutableSet(symbol, explicitlyNullableParams);
+      return resolve(symbol).explicitlyNullableParams;
     }
 
     ImmutableSet<Integer> nonNullParameters(Symbol.MethodSymbol symbol) {
-      return lookupImmutableSet(symbol, nonNullParams);
+      return resolve(symbol).nonNullParams;
     }
 
     ImmutableSet<Integer> nullImpliesTrueParameters(Symbol.MethodSymbol symbol) {
-      return lookupImmutableSet(symbol, nullImpliesTrueParams);
+      return resolve(symbol).nullImpliesTrueParams;
     }
 
     ImmutableSet<Integer> nullImpliesFalseParameters(Symbol.MethodSymbol symbol) {
-      return lookupImmutableSet(symbol, nullImpliesFalseParams);
+      return resolve(symbol).nullImpliesFalseParams;
     }
 
     ImmutableSet<Integer> nullImpliesNullParameters(Symbol.MethodSymbol symbol) {
-      return lookupImmutableSet(symbol, nullImpliesNullParams);
+      return resolve(symbol).nullImpliesNullParams;
     }
 
     ImmutableSet<Integer> castToNonNullMethod(Symbol.MethodSymbol symbol) {
-      return lookupImmutableSet(symbol, castToNonNullMethods);
+      return resolve(symbol).castToNonNullParams;
     }
 
     ImmutableSet<Integer> methodTypeVariablesWithNullableUpperBounds(Symbol.MethodSymbol symbol) {
-      return lookupImmutableSet(symbol, methodTypeVariablesWithNullableUpperBounds);
+      return resolve(symbol).typeVariablesWithNullableUpperBounds;
     }
 
     ImmutableSetMultimap<Integer, NestedAnnotationInfo> nestedAnnotationsForMethods(
         Symbol.MethodSymbol symbol) {
-      ImmutableSetMultimap<Integer, NestedAnnotationInfo> result =
-          nestedAnnotationsForMethods.get(symbol);
-      return (result == null) ? ImmutableSetMultimap.of() : result;
-    }
-
-    private ImmutableSet<Integer> lookupImmutableSet(
-        Symbol.MethodSymbol symbol, NameIndexedMap<ImmutableSet<Integer>> lookup) {
-      ImmutableSet<Integer> result = lookup.get(symbol);
+      return resolve(symbol).nestedAnnotations;
+    }
+
+    /** Returns the models of the given method, resolving them on the first lookup. */
+    private MethodModels resolve(Symbol.MethodSymbol symbol) {
+      MethodModels result = resolvedModels.get(symbol);
+      if (result == null) {
+        result =
+            modeledMethodNames.contains(symbol.name)
+                ? resolveUncached(symbol)
+                : MethodModels.EMPTY;
+        resolvedModels.put(symbol, result);
+      }
+      return result;
+    }
+
+    private MethodModels resolveUncached(Symbol.MethodSymbol symbol) {
+      // computes the MethodRef of the symbol once, rather than once per lookup
+      MethodRef ref = MethodRef.fromSymbol(symbol);
+      ImmutableSetMultimap<Integer, NestedAnnotationInfo> nestedAnnotations =
+          nestedAnnotationsForMethods.get(symbol.name, ref);
+      return new MethodModels(
+          lookupImmutableSet(symbol.name, ref, failIfNullParams),
+          lookupImmutableSet(symbol.name, ref, explicitlyNullableParams),
+          lookupImmutableSet(symbol.name, ref, nonNullParams),
+          lookupImmutableSet(symbol.name, ref, nullImpliesTrueParams),
+          lookupImmutableSet(symbol.name, ref, nullImpliesFalseParams),
+          lookupImmutableSet(symbol.name, ref, nullImpliesNullParams),
+          lookupImmutableSet(symbol.name, ref, castToNonNullMethods),
+          lookupImmutableSet(symbol.name, ref, methodTypeVariablesWithNullableUpperBounds),
+          (nestedAnnotations == null) ? ImmutableSetMultimap.of() : nestedAnnotations,
+          nonNullRet.get(symbol.name, ref) != null,
+          nullableRet.get(symbol.name, ref) != null);
+    }
+
+    private static ImmutableSet<Integer> lookupImmutableSet(
+        Name name, MethodRef ref, NameIndexedMap<ImmutableSet<Integer>> lookup) {
+      ImmutableSet<Integer> result = lookup.get(name, ref);
       return (result == null) ? ImmutableSet.of() : result;
     }
 
@@ -1563,13 +1789,14 @@ public class LibraryModelsHandler implements Handler {
       StubxCacheUtil cacheUtil = new StubxCacheUtil(libraryModelLogName);
       // hardcoded loading of stubx files from android-jarinfer-models-sdkXX artifacts
       try {
-        InputStream androidStubxIS =
+        try (InputStream androidStubxIS =
             Class.forName(ANDROID_MODEL_CLASS)
                 .getClassLoader()
-                .getResourceAsStream(ANDROID_ASTUBX_LOCATION);
-        if (androidStubxIS != null) {
-          cacheUtil.parseStubStream(androidStubxIS, "android.jar: " + ANDROID_ASTUBX_LOCATION);
-          astubxLoadLog("Loaded Android RT models.");
+                .getResourceAsStream(ANDROID_ASTUBX_LOCATION)) {
+          if (androidStubxIS != null) {
+            cacheUtil.parseStubStream(androidStubxIS, "android.jar: " + ANDROID_ASTUBX_LOCATION);
+            astubxLoadLog("Loaded Android RT models.");
+          }
         }
       } catch (ClassNotFoundException e) {
         astubxLoadLog(
@@ -26,6 +26,7 @@ import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
 import com.uber.nullaway.jarinfer.JarInferStubxProvider;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -115,9 +116,8 @@ public class StubxCacheUtil {
     for (JarInferStubxProvider provider : astubxProviders) {
       for (String astubxPath : provider.pathsToStubxFiles()) {
         Class<? extends JarInferStubxProvider> providerClass = provider.getClass();
-        InputStream stubxInputStream = providerClass.getResourceAsStream(astubxPath);
         String stubxLocation = providerClass + ":" + astubxPath;
-        try {
+        try (InputStream stubxInputStream = providerClass.getResourceAsStream(astubxPath)) {
           parseStubStream(stubxInputStream, stubxLocation);
           LOG(DEBUG, "DEBUG", "loaded stubx file " + stubxLocation);
         } catch (IOException e) {
@@ -127,10 +127,22 @@ public class StubxCacheUtil {
     }
   }
 
+  /**
+   * Parses a stubx file and adds its contents to the caches.
+   *
+   * <p>The file is first read into memory with a single bulk read, since stubx files are read as
+   * a long sequence of small primitive reads, each of which would otherwise go through the
+   * (typically decompressing) resource stream.
+   *
+   * @param stubxInputStream stream with the contents of the stubx file, not closed by this method
+   * @param stubxLocation location of the stubx file, for error messages
+   * @throws IOException if the stream cannot be read
+   */
   public void parseStubStream(InputStream stubxInputStream, String stubxLocation)
       throws IOException {
     String[] strings;
-    DataInputStream in = new DataInputStream(stubxInputStream);
+    DataInputStream in =
+        new DataInputStream(new ByteArrayInputStream(stubxInputStream.readAllBytes()));
     // Read and check the magic version number
     if (in.readInt() != VERSION_1_FILE_MAGIC_NUMBER) {
       throw new Error("Invalid file version/magic number for stubx file!" + stubxLocation);
@@ -143,6 +155,9 @@ public class StubxCacheUtil {
     for (int i = 0; i < numStrings; ++i) {
       strings[i] = in.readUTF();
     }
+    // The class name of each method signature in the string dictionary, computed on first use, as
+    // the same signature is typically referenced by several records
+    String[] classNames = new String[numStrings];
     // Read the number of (package, annotation) entries
     int numPackages = in.readInt();
     // Read each (package, annotation) entry, where the int values point into the string
@@ -163,10 +178,15 @@ public class StubxCacheUtil {
     int numMethods = in.readInt();
     // Read each (method, annotation) record
     for (int i = 0; i < numMethods; ++i) {
-      String methodSig = strings[in.readInt()];
+      int methodSigIndex = in.readInt();
+      String methodSig = strings[methodSigIndex];
       String annotation = strings[in.readInt()];
       LOG(DEBUG, "DEBUG", "method: " + methodSig + ", return annotation: " + annotation);
-      cacheAnnotation(methodSig, RETURN, annotation);
+      cacheAnnotation(
+          classNameOf(methodSigIndex, strings, classNames, stubxLocation),
+          methodSig,
+          RETURN,
+          annotation);
     }
     // Read the number of (method, nullable type parameter index)
     int numMethodTypeParams = in.readInt();
@@ -179,18 +199,16 @@ public class StubxCacheUtil {
     int numArgumentRecords = in.readInt();
     // Read each (method, argument, annotation) record
     for (int i = 0; i < numArgumentRecords; ++i) {
-      String methodSig = strings[in.readInt()];
-      if (methodSig.lastIndexOf(':') == -1 || methodSig.split(":")[0].lastIndexOf('.') == -1) {
-        throw new Error(
-            "Invalid method signature " + methodSig + " in stubx file " + stubxLocation);
-      }
+      int methodSigIndex = in.readInt();
+      String methodSig = strings[methodSigIndex];
+      String className = classNameOf(methodSigIndex, strings, classNames, stubxLocation);
       int argNum = in.readInt();
       String annotation = strings[in.readInt()];
       LOG(
           DEBUG,
           "DEBUG",
           "method: " + methodSig + ", argNum: " + argNum + ", arg annotation: " + annotation);
-      cacheAnnotation(methodSig, argNum, annotation);
+      cacheAnnotation(className, methodSig, argNum, annotation);
     }
     // reading the NullMarked classes
     int numNullMarkedClasses = in.readInt();
@@ -207,9 +225,30 @@ public class StubxCacheUtil {
     }
   }
 
-  private void cacheAnnotation(String methodSig, Integer argNum, String annotation) {
-    // TODO: handle inner classes properly
-    String className = methodSig.split(":")[0].replace('$', '.');
+  /**
+   * Returns the class name for the method signature at {@code index} in the string dictionary,
+   * validating the signature and computing the name the first time it is referenced.
+   *
+   * @throws Error if the signature is not of the form {@code pkg.Class:method(...)}
+   */
+  private static String classNameOf(
+      int index, String[] strings, String[] classNames, String stubxLocation) {
+    String className = classNames[index];
+    if (className == null) {
+      String methodSig = strings[index];
+      if (methodSig.lastIndexOf(':') == -1 || methodSig.split(":")[0].lastIndexOf('.') == -1) {
+        throw new Error(
+            "Invalid method signature " + methodSig + " in stubx file " + stubxLocation);
+      }
+      // TODO: handle inner classes properly
+      className = methodSig.split(":")[0].replace('$', '.');
+      classNames[index] = className;
+    }
+    return className;
+  }
+
+  private void cacheAnnotation(
+      String className, String methodSig, Integer argNum, String annotation) {
     Map<String, Map<Integer, Set<String>>> cacheForClass =
         argAnnotCache.computeIfAbsent(className, s -> new LinkedHashMap<>());
     Map<Integer, Set<String>> cacheForMethod =
@@ -22,11 +22,8 @@
 
 package com.uber.nullaway.handlers.contract;
 
-import static com.uber.nullaway.NullabilityUtil.castToNonNull;
-import static com.uber.nullaway.handlers.contract.ContractUtils.getAntecedent;
-import static com.uber.nullaway.handlers.contract.ContractUtils.getConsequent;
-
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.errorprone.VisitorState;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.source.tree.ClassTree;
@@ -39,6 +36,10 @@ import com.uber.nullaway.dataflow.AccessPath;
 import com.uber.nullaway.dataflow.AccessPathNullnessPropagation;
 import com.uber.nullaway.dataflow.cfg.NullAwayCFGBuilder;
 import com.uber.nullaway.handlers.Handler;
+import com.uber.nullaway.handlers.contract.ContractUtils.ContractClause;
+import com.uber.nullaway.handlers.contract.ContractUtils.ValueConstraint;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import javax.lang.model.type.TypeMirror;
 import org.checkerframework.nullaway.dataflow.cfg.node.AbstractNodeVisitor;
@@ -84,14 +85,16 @@ public class ContractHandler implements Handler {
 
   private final Config config;
 
-  private @Nullable NullAway analysis;
-
-  // Cached on visiting the top-level class and used for onCFGBuildPhase1AfterVisitMethodInvocation,
-  // where no VisitorState is otherwise available.
-  private @Nullable VisitorState storedVisitorState;
-
   private @Nullable TypeMirror runtimeExceptionType;
 
+  /**
+   * Parsed contract clauses of the callees with a contract seen in the current top-level class. The
+   * contract of a callee is otherwise re-parsed on each dataflow visit of each of its call sites.
+   * Callees without a contract are not cached, as finding that they have none is cheap.
+   */
+  private final Map<Symbol.MethodSymbol, ImmutableList<ContractClause>> contractClauses =
+      new HashMap<>();
+
   public ContractHandler(Config config) {
     this.config = config;
   }
@@ -99,8 +102,18 @@ public class ContractHandler implements Handler {
   @Override
   public void onMatchTopLevelClass(
       NullAway analysis, ClassTree tree, VisitorState state, Symbol.ClassSymbol classSymbol) {
-    this.analysis = analysis;
-    this.storedVisitorState = state;
+    contractClauses.clear();
+  }
+
+  private ImmutableList<ContractClause> getContractClauses(Symbol.MethodSymbol callee) {
+    ImmutableList<ContractClause> clauses = contractClauses.get(callee);
+    if (clauses == null) {
+      clauses = ContractUtils.parseContractClauses(callee, config);
+      if (!clauses.isEmpty()) {
+        contractClauses.put(callee, clauses);
+      }
+    }
+    return clauses;
   }
 
   @Override
@@ -108,25 +121,16 @@ public class ContractHandler implements Handler {
       NullAwayCFGBuilder.NullAwayCFGTranslationPhaseOne phase,
       MethodInvocationTree tree,
       MethodInvocationNode originalNode) {
-    Preconditions.checkNotNull(storedVisitorState);
-    Preconditions.checkNotNull(analysis);
     Symbol.MethodSymbol callee = ASTHelpers.getSymbol(tree);
     Preconditions.checkNotNull(callee);
-    for (String clause : ContractUtils.getContractClauses(callee, config)) {
+    for (ContractClause clause : getContractClauses(callee)) {
       // This method currently handles contracts of the form `(true|false) -> fail`, other
       // contracts are handled by 'onDataflowVisitMethodInvocation' which has access to more
       // dataflow information.
-      if (!"fail".equals(getConsequent(clause, tree, analysis, storedVisitorState, callee))) {
+      if (!"fail".equals(clause.getConsequent())) {
         continue;
       }
-      String[] antecedent =
-          getAntecedent(
-              clause,
-              tree,
-              analysis,
-              storedVisitorState,
-              callee,
-              originalNode.getArguments().size());
+      ImmutableList<ValueConstraint> antecedent = clause.getAntecedent();
       // Find a single value constraint that is not already known. If more than one argument with
       // unknown nullness affects the method's result, then ignore this clause.
       Node arg = null;
@@ -134,18 +138,18 @@ public class ContractHandler implements Handler {
       boolean supported = true;
       boolean booleanConstraint = false;
 
-      for (int i = 0; i < antecedent.length; ++i) {
-        String valueConstraint = antecedent[i].trim();
-        if ("false".equals(valueConstraint) || "true".equals(valueConstraint)) {
+      for (int i = 0; i < antecedent.size(); ++i) {
+        ValueConstraint valueConstraint = antecedent.get(i);
+        if (valueConstraint == ValueConstraint.FALSE || valueConstraint == ValueConstraint.TRUE) {
           if (arg != null) {
             // We don't currently support contracts depending on the boolean value of more than one
             // argument using the node-insertion method.
             supported = false;
             break;
           }
-          booleanConstraint = Boolean.parseBoolean(valueConstraint);
+          booleanConstraint = valueConstraint == ValueConstraint.TRUE;
           arg = originalNode.getArgument(i);
-        } else if (!valueConstraint.equals("_")) {
+        } else if (valueConstraint != ValueConstraint.ANY) {
           // Found an unsupported type of constraint, only true, false, and '_' (wildcard) are
           // supported.
           // No need to implement complex handling here, 'onDataflowVisitMethodInvocation' will
@@ -189,13 +193,10 @@ public class ContractHandler implements Handler {
       AccessPathNullnessPropagation.Updates thenUpdates,
       AccessPathNullnessPropagation.Updates elseUpdates,
       AccessPathNullnessPropagation.Updates bothUpdates) {
-    Preconditions.checkNotNull(analysis);
-    MethodInvocationTree tree = castToNonNull(node.getTree());
-    for (String clause : ContractUtils.getContractClauses(callee, config)) {
+    for (ContractClause clause : getContractClauses(callee)) {
 
-      String[] antecedent =
-          getAntecedent(clause, tree, analysis, state, callee, node.getArguments().size());
-      String consequent = getConsequent(clause, tree, analysis, state, callee);
+      ImmutableList<ValueConstraint> antecedent = clause.getAntecedent();
+      String consequent = clause.getConsequent();
 
       // Find a single value constraint that is not already known. If more than one argument with
       // unknown nullness affects the method's result, then ignore this clause.
@@ -204,11 +205,12 @@ public class ContractHandler implements Handler {
       // Set to false if the rule is detected to be one we don't yet support
       boolean supported = true;
 
-      for (int i = 0; i < antecedent.length; ++i) {
-        String valueConstraint = antecedent[i].trim();
-        if (valueConstraint.equals("_")) {
+      for (int i = 0; i < antecedent.size(); ++i) {
+        ValueConstraint valueConstraint = antecedent.get(i);
+        if (valueConstraint == ValueConstraint.ANY) {
           // do nothing
-        } else if (valueConstraint.equals("false") || valueConstraint.equals("true")) {
+        } else if (valueConstraint == ValueConstraint.FALSE
+            || valueConstraint == ValueConstraint.TRUE) {
           // We handle boolean constraints in the case that the boolean argument is the result
           // of a null or not-null check. For example,
           // '@Contract("true -> true") boolean func(boolean v)'
@@ -238,7 +240,7 @@ public class ContractHandler implements Handler {
           //                    | (obj == null)   | (obj != null)
           // Constraint 'true'  | NULL            | NONNULL
           // Constraint 'false' | NONNULL         | NULL
-          boolean booleanConstraintValue = valueConstraint.equals("true");
+          boolean booleanConstraintValue = valueConstraint == ValueConstraint.TRUE;
           Nullness antecedentNullness =
               isNullTarget.isPresent()
                   ? (booleanConstraintValue ? Nullness.NULL : Nullness.NONNULL)
@@ -258,18 +260,20 @@ public class ContractHandler implements Handler {
           }
           arg = nullTestTarget;
           argAntecedentNullness = antecedentNullness;
-        } else if (valueConstraint.equals("!null")
+        } else if (valueConstraint == ValueConstraint.NOT_NULL
             && inputs.valueOfSubNode(node.getArgument(i)).equals(Nullness.NONNULL)) {
           // We already know this argument can't be null, so we can treat it as not part of the
           // clause for the purpose of deciding the non-nullness of the other arguments; do nothing
-        } else if (valueConstraint.equals("null") || valueConstraint.equals("!null")) {
+        } else if (valueConstraint == ValueConstraint.NULL
+            || valueConstraint == ValueConstraint.NOT_NULL) {
           if (arg != null) {
             // More than one argument involved in the antecedent, ignore this rule
             supported = false;
             break;
           }
           arg = node.getArgument(i);
-          argAntecedentNullness = valueConstraint.equals("null") ? Nullness.NULL : Nullness.NONNULL;
+          argAntecedentNullness =
+              valueConstraint == ValueConstraint.NULL ? Nullness.NULL : Nullness.NONNULL;
         } else {
           // invalid, but we report an error only on method declarations
           supported = false;
@@ -1,5 +1,6 @@
 package com.uber.nullaway.handlers.contract;
 
+import com.google.common.collect.ImmutableList;
 import com.google.errorprone.VisitorState;
 import com.sun.source.tree.MethodTree;
 import com.sun.source.tree.Tree;
@@ -17,8 +18,6 @@ import org.jspecify.annotations.Nullable;
 /** A utility class for {@link ContractHandler} and {@link ContractCheckHandler}. */
 public class ContractUtils {
 
-  private static final String[] EMPTY_STRING_ARRAY = new String[0];
-
   /**
    * Returns a set of field names excluding their receivers (e.g. "this.a" will be "a")
    *
@@ -150,16 +149,84 @@ public class ContractUtils {
     return simpleName.equals("Contract");
   }
 
-  static String[] getContractClauses(Symbol.MethodSymbol callee, Config config) {
-    // Check to see if this method has a @Contract annotation
+  /**
+   * Returns the well-formed clauses of the {@code @Contract} annotation of a method, parsed into
+   * {@link ContractClause}s. Clauses without exactly one {@code ->} are skipped; they are reported
+   * on the method declaration by {@link ContractCheckHandler}.
+   *
+   * @param callee the method
+   * @param config the NullAway config
+   * @return the parsed clauses, or an empty list if the method has no contract
+   */
+  static ImmutableList<ContractClause> parseContractClauses(
+      Symbol.MethodSymbol callee, Config config) {
     String contractString = getContractString(callee, config);
-    if (contractString != null) {
-      String trimmedContractString = contractString.trim();
-      if (!trimmedContractString.isEmpty()) {
-        return trimmedContractString.split(";");
+    if (contractString == null || contractString.trim().isEmpty()) {
+      return ImmutableList.of();
+    }
+    ImmutableList.Builder<ContractClause> clauses = ImmutableList.builder();
+    for (String clause : contractString.trim().split(";")) {
+      String[] parts = clause.split("->");
+      if (parts.length != 2) {
+        continue;
+      }
+      ImmutableList.Builder<ValueConstraint> antecedent = ImmutableList.builder();
+      if (!parts[0].trim().isEmpty()) {
+        for (String valueConstraint : parts[0].split(",")) {
+          antecedent.add(ValueConstraint.parse(valueConstraint.trim()));
+        }
       }
+      clauses.add(new ContractClause(antecedent.build(), parts[1].trim()));
+    }
+    return clauses.build();
+  }
+
+  /** A value constraint on one argument in the antecedent of a contract clause. */
+  enum ValueConstraint {
+    /** {@code _}: any value. */
+    ANY,
+    /** {@code null} */
+    NULL,
+    /** {@code !null} */
+    NOT_NULL,
+    /** {@code true} */
+    TRUE,
+    /** {@code false} */
+    FALSE,
+    /** Any other constraint, which NullAway does not support. */
+    UNSUPPORTED;
+
+    static ValueConstraint parse(String valueConstraint) {
+      return switch (valueConstraint) {
+        case "_" -> ANY;
+        case "null" -> NULL;
+        case "!null" -> NOT_NULL;
+        case "true" -> TRUE;
+        case "false" -> FALSE;
+        default -> UNSUPPORTED;
+      };
+    }
+  }
+
+  /** A well-formed contract clause, {@code antecedent -> consequent}. */
+  static final class ContractClause {
+    private final ImmutableList<ValueConstraint> antecedent;
+    private final String consequent;
+
+    ContractClause(ImmutableList<ValueConstraint> antecedent, String consequent) {
+      this.antecedent = antecedent;
+      this.consequent = consequent;
+    }
+
+    /** Returns the value constraints of the antecedent, one per argument. */
+    ImmutableList<ValueConstraint> getAntecedent() {
+      return antecedent;
+    }
+
+    /** Returns the trimmed consequent, e.g., {@code !null} or {@code fail}. */
+    String getConsequent() {
+      return consequent;
     }
-    return EMPTY_STRING_ARRAY;
   }
 
   /**
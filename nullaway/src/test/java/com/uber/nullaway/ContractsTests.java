@@ -190,6 +190,75 @@ public class ContractsTests extends NullAwayTestsBase {
         .doTest();
   }
 
+  @Test
+  public void contractClausesResolvedOnRepeatedCallsAcrossClasses() {
+    makeTestHelperWithArgs(
+            Arrays.asList(
+                "-d",
+                temporaryFolder.getRoot().getAbsolutePath(),
+                "-XepOpt:NullAway:AnnotatedPackages=com.uber"))
+        .addSourceLines(
+            "NullnessChecker.java",
+            """
+            package com.uber;
+            import javax.annotation.Nullable;
+            import org.jetbrains.annotations.Contract;
+            public class NullnessChecker {
+              @Contract("null -> false")
+              static boolean isNonNull(@Nullable Object o) { return o != null; }
+              @Contract("null -> fail")
+              static void assertNonNull(@Nullable Object o) { if (o != null) throw new Error(); }
+              static boolean noContract(@Nullable Object o) { return o != null; }
+            }
+            """)
+        .addSourceLines(
+            "Test.java",
+            """
+            package com.uber;
+            import javax.annotation.Nullable;
+            class Test {
+              String test1(@Nullable Object o, @Nullable Object p) {
+                if (NullnessChecker.isNonNull(o) && NullnessChecker.isNonNull(p)) {
+                  return o.toString() + p.toString();
+                }
+                return "null";
+              }
+              String test2(@Nullable Object o) {
+                if (NullnessChecker.noContract(o)) {
+                  // BUG: Diagnostic contains: dereferenced expression o is @Nullable
+                  return o.toString();
+                }
+                if (NullnessChecker.noContract(o)) {
+                  // BUG: Diagnostic contains: dereferenced expression o is @Nullable
+                  return o.toString();
+                }
+                return "null";
+              }
+            }
+            """)
+        .addSourceLines(
+            "Test2.java",
+            """
+            package com.uber;
+            import javax.annotation.Nullable;
+            class Test2 {
+              String test1(@Nullable Object o) {
+                return NullnessChecker.isNonNull(o) ? o.toString() : "null";
+              }
+              String test2(@Nullable Object o, @Nullable Object p) {
+                NullnessChecker.assertNonNull(o);
+                NullnessChecker.assertNonNull(p);
+                return o.toString() + p.toString();
+              }
+              String test3(@Nullable Object o) {
+                // BUG: Diagnostic contains: dereferenced expression o is @Nullable
+                return NullnessChecker.noContract(o) ? o.toString() : "null";
+              }
+            }
+            """)
+        .doTest();
+  }
+
   @Test
   public void nonJetbrainsAnnotationNamedContract() {
     makeTestHelperWithArgs(
@@ -0,0 +1,168 @@
+package com.uber.nullaway;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Test;
+
+/** Tests for the options tuning how NullAway runs its dataflow analysis. */
+public class DataflowTests extends NullAwayTestsBase {
+
+  @Test
+  public void tinyDataflowCacheMaxWeightOk() {
+    // with a budget of a single node, every CFG and analysis is evicted as soon as another one is
+    // cached; results must still be correct
+    makeTestHelperWithArgs(
+            List.of(
+                "-XepOpt:NullAway:OnlyNullMarked", "-XepOpt:NullAway:DataflowCacheMaxWeight=1"))
+        .addSourceLines(
+            "Test.java",
+            """
+            package foo.baz;
+            import org.jspecify.annotations.NullMarked;
+            import org.jspecify.annotations.Nullable;
+            import java.util.function.Function;
+            @NullMarked
+            class Test {
+              @Nullable Object f;
+              Object g;
+              Test(@Nullable Object o) {
+                g = o != null ? o : new Object();
+              }
+              int m1(@Nullable Object o) {
+                Function<@Nullable Object, Integer> fn = x -> x != null ? x.hashCode() : 0;
+                if (f != null) {
+                  return f.hashCode() + fn.apply(o);
+                }
+                // BUG: Diagnostic contains: dereferenced expression o is @Nullable
+                return o.hashCode();
+              }
+              int m2(@Nullable Object o) {
+                if (o == null) {
+                  return 0;
+                }
+                return o.hashCode();
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void persistentNullnessStoreRepresentation() {
+    makeTestHelperWithArgs(
+            List.of(
+                "-XepOpt:NullAway:OnlyNullMarked",
+                "-XepOpt:NullAway:NullnessStoreRepresentation=PERSISTENT_MAP"))
+        .addSourceLines("Test.java", STORE_REPRESENTATION_TEST_SOURCE)
+        .doTest();
+  }
+
+  @Test
+  public void bitSetNullnessStoreRepresentation() {
+    makeTestHelperWithArgs(
+            List.of(
+                "-XepOpt:NullAway:OnlyNullMarked",
+                "-XepOpt:NullAway:NullnessStoreRepresentation=BITSET"))
+        .addSourceLines("Test.java", STORE_REPRESENTATION_TEST_SOURCE)
+        .doTest();
+  }
+
+  @Test
+  public void skipDataflowWithoutNullableSources() throws IOException {
+    Path outputDir = temporaryFolder.getRoot().toPath().resolve("perf");
+    makeTestHelperWithArgs(
+            List.of(
+                "-XepOpt:NullAway:OnlyNullMarked",
+                "-XepOpt:NullAway:SkipDataflowWithoutNullableSources=true",
+                "-XepOpt:NullAway:PerfTelemetryOutputDir=" + outputDir))
+        .addSourceLines(
+            "Test.java",
+            """
+            package foo.baz;
+            import org.jspecify.annotations.NullMarked;
+            import org.jspecify.annotations.Nullable;
+            @NullMarked
+            class Test {
+              @Nullable Object f;
+              Object g = new Object();
+              @Nullable Object nullable() { return f; }
+              int noSources(Object o) {
+                Object x = o;
+                Object y = g;
+                return x.hashCode() + y.hashCode();
+              }
+              int nullableParam(@Nullable Object o) {
+                Object x = o;
+                // BUG: Diagnostic contains: dereferenced expression x is @Nullable
+                return x.hashCode();
+              }
+              int nullLiteral(boolean b) {
+                Object x = b ? g : null;
+                // BUG: Diagnostic contains: dereferenced expression x is @Nullable
+                return x.hashCode();
+              }
+              int nullableField() {
+                Object x = f;
+                // BUG: Diagnostic contains: dereferenced expression x is @Nullable
+                return x.hashCode();
+              }
+              int nullableCall() {
+                Object x = nullable();
+                // BUG: Diagnostic contains: dereferenced expression x is @Nullable
+                return x.hashCode();
+              }
+            }
+            """)
+        .doTest();
+    assertTrue(
+        telemetryCount(
+                outputDir.resolve("foo.baz.Test.java.csv"),
+                "NullAway.methodsWithoutNullableSources")
+            > 0);
+  }
+
+  /**
+   * Loops, branches and a lambda, so that stores are joined and captured by other analyses. Also
+   * used by {@link PerfTelemetryTests} to exercise the dataflow probes.
+   */
+  static final String STORE_REPRESENTATION_TEST_SOURCE =
+        """
+        package foo.baz;
+        import org.jspecify.annotations.NullMarked;
+        import org.jspecify.annotations.Nullable;
+        @NullMarked
+        class Test {
+          @Nullable Object f;
+          @Nullable Object g;
+          int loop(@Nullable Object a, @Nullable Object b, int n) {
+            int sum = 0;
+            for (int i = 0; i < n; i++) {
+              if (a != null && f != null) {
+                sum += a.hashCode() + f.hashCode();
+              } else if (b != null) {
+                sum += b.hashCode();
+                a = null;
+              }
+              if (g == null) {
+                g = new Object();
+              }
+              sum += g.hashCode();
+            }
+            // BUG: Diagnostic contains: dereferenced expression a is @Nullable
+            return sum + a.hashCode();
+          }
+          void lambda(@Nullable Object o) {
+            if (o != null) {
+              Runnable r = () -> {
+                // BUG: Diagnostic contains: dereferenced expression f is @Nullable
+                f.toString();
+              };
+              r.run();
+            }
+          }
+        }
+        """;
+}
@@ -72,4 +72,15 @@ public class ErrorProneCLIFlagsConfigTest extends NullAwayTestsBase {
     assertTrue(
         e.getMessage().contains("Running NullAway in JSpecify mode requires either JDK 22+"));
   }
+
+  @Test
+  public void nonPositiveDataflowCacheMaxWeightFails() {
+    CompilationTestHelper compilationTestHelper =
+        makeTestHelperWithArgs(
+                List.of(
+                    "-XepOpt:NullAway:OnlyNullMarked", "-XepOpt:NullAway:DataflowCacheMaxWeight=0"))
+            .addSourceLines("Stub.java", "package com.uber; class Stub {}");
+    AssertionError e = assertThrows(AssertionError.class, () -> compilationTestHelper.doTest());
+    assertTrue(e.getMessage().contains("NullAway:DataflowCacheMaxWeight"));
+  }
 }
@@ -1,5 +1,9 @@
 package com.uber.nullaway;
 
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
 import org.junit.Test;
 
@@ -187,6 +191,59 @@ public class InitializationTests extends NullAwayTestsBase {
         .doTest();
   }
 
+  @Test
+  public void initExitStoresSharedAcrossConstructors() throws IOException {
+    Path outputDir = temporaryFolder.getRoot().toPath().resolve("perf");
+    makeTestHelperWithArgs(
+            Arrays.asList(
+                "-d",
+                temporaryFolder.getRoot().getAbsolutePath(),
+                "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+                "-XepOpt:NullAway:PerfTelemetryOutputDir=" + outputDir))
+        .addSourceLines(
+            "Test.java",
+            """
+            package com.uber;
+            class Test {
+              static Object s;
+              static {
+                s = new Object();
+              }
+              static String t = s.toString();
+              Object f;
+              Object g;
+              {
+                g = new Object();
+              }
+              Test() {
+                init();
+                f.toString();
+              }
+              Test(int x) {
+                init();
+                g.toString();
+              }
+              Test(String str) {
+                // BUG: Diagnostic contains: read of @NonNull field f before initialization
+                f.toString();
+                init();
+              }
+              // BUG: Diagnostic contains: initializer method does not guarantee @NonNull field f
+              Test(Object o) {
+                g.toString();
+              }
+              private void init() {
+                f = new Object();
+              }
+            }
+            """)
+        .doTest();
+    // the exit stores of init() and of the instance initializer are shared by the constructors
+    assertTrue(
+        telemetryCount(outputDir.resolve("com.uber.Test.java.csv"), "NullAway.reusedInitExitStores")
+            > 0);
+  }
+
   @Test
   public void testEnumInit() {
     defaultCompilationHelper
@@ -1,6 +1,9 @@
 package com.uber.nullaway;
 
 import com.google.errorprone.CompilationTestHelper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import org.junit.Before;
 import org.junit.Rule;
@@ -48,4 +51,22 @@ public abstract class NullAwayTestsBase {
   protected CompilationTestHelper makeTestHelperWithArgs(List<String> args) {
     return CompilationTestHelper.newInstance(NullAway.class, getClass()).setArgs(args);
   }
+
+  /**
+   * Reads the count of a probe from a report written with {@code
+   * -XepOpt:NullAway:PerfTelemetryOutputDir}.
+   *
+   * @param report path to the report of a compilation unit
+   * @param probe name of the probe
+   * @return the count of the probe, or 0 if it is not in the report
+   */
+  protected static long telemetryCount(Path report, String probe) throws IOException {
+    for (String line : Files.readAllLines(report)) {
+      String[] columns = line.split(",", -1);
+      if (columns[0].equals(probe)) {
+        return Long.parseLong(columns[1]);
+      }
+    }
+    return 0;
+  }
 }
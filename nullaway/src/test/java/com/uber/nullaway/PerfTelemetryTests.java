@@ -0,0 +1,70 @@
+package com.uber.nullaway;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Test;
+
+/** Tests for the reports written with {@code -XepOpt:NullAway:PerfTelemetryOutputDir}. */
+public class PerfTelemetryTests extends NullAwayTestsBase {
+
+  @Test
+  public void perfTelemetryWritesReportPerCompilationUnit() throws IOException {
+    Path outputDir = temporaryFolder.getRoot().toPath().resolve("perf");
+    makeTestHelperWithArgs(
+            List.of(
+                "-XepOpt:NullAway:OnlyNullMarked",
+                "-XepOpt:NullAway:PerfTelemetryOutputDir=" + outputDir))
+        .addSourceLines("Test.java", DataflowTests.STORE_REPRESENTATION_TEST_SOURCE)
+        .doTest();
+    List<String> report = Files.readAllLines(outputDir.resolve("foo.baz.Test.java.csv"));
+    assertEquals("probe,count,total_nanos", report.get(0));
+    List<String> probes =
+        List.of(
+            "NullAway.matchClass",
+            "Handler.onMatchTopLevelClass",
+            "DataFlow.buildControlFlowGraph");
+    for (String probe : probes) {
+      assertTrue(probe, report.stream().anyMatch(line -> line.startsWith(probe + ",")));
+    }
+  }
+
+  @Test
+  public void perfTelemetryReportsDataflowCacheStats() throws IOException {
+    Path outputDir = temporaryFolder.getRoot().toPath().resolve("perf");
+    makeTestHelperWithArgs(
+            List.of(
+                "-XepOpt:NullAway:OnlyNullMarked",
+                "-XepOpt:NullAway:PerfTelemetryOutputDir=" + outputDir))
+        .addSourceLines("Test.java", DataflowTests.STORE_REPRESENTATION_TEST_SOURCE)
+        .doTest();
+    List<String> report = Files.readAllLines(outputDir.resolve("foo.baz.Test.java.csv"));
+    // each method is analyzed once, and then queried again for each of its dereferences
+    List<String> probes =
+        List.of(
+            "DataFlow.cfgCache.misses",
+            "DataFlow.cfgCache.hits",
+            "DataFlow.analysisCache.misses",
+            "DataFlow.analysisCache.hits");
+    for (String probe : probes) {
+      assertTrue(probe, report.stream().anyMatch(line -> line.startsWith(probe + ",")));
+    }
+  }
+
+  @Test
+  public void perfTelemetryReportFailureDoesNotFailCompilation() throws IOException {
+    // a regular file where the output directory should be, so no report can be written
+    Path outputDir = temporaryFolder.newFile("perf").toPath();
+    makeTestHelperWithArgs(
+            List.of(
+                "-XepOpt:NullAway:OnlyNullMarked",
+                "-XepOpt:NullAway:PerfTelemetryOutputDir=" + outputDir))
+        .addSourceLines("Test.java", DataflowTests.STORE_REPRESENTATION_TEST_SOURCE)
+        .doTest();
+    assertTrue(Files.isRegularFile(outputDir));
+  }
+}
@@ -22,12 +22,14 @@
 
 package com.uber.nullaway;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 
 import com.google.common.base.Preconditions;
 import com.google.errorprone.util.ASTHelpers;
 import com.sun.tools.javac.code.Symbol;
+import com.uber.nullaway.fixserialization.BinaryTableReader;
 import com.uber.nullaway.fixserialization.FixSerializationConfig;
 import com.uber.nullaway.fixserialization.adapters.SerializationAdapter;
 import com.uber.nullaway.fixserialization.adapters.SerializationV1Adapter;
@@ -1883,6 +1885,40 @@ public class SerializationTest extends NullAwayTestsBase {
         .doTest();
   }
 
+  @Test
+  public void errorSerializationBinaryVersion4() throws IOException {
+    makeTestHelperWithArgs(
+            Arrays.asList(
+                "-d",
+                temporaryFolder.getRoot().getAbsolutePath(),
+                "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+                "-XepOpt:NullAway:SerializeFixMetadata=true",
+                "-XepOpt:NullAway:SerializeFixMetadataVersion=4",
+                "-XepOpt:NullAway:FixSerializationConfigPath=" + configPath))
+        .addSourceLines(
+            "com/uber/A.java",
+            """
+            package com.uber;
+            import javax.annotation.Nullable;
+            public class A {
+               String test(@Nullable Object o) {
+                 // BUG: Diagnostic contains: dereferenced expression
+                 return o.toString();
+               }
+            }
+            """)
+        .doTest();
+    BinaryTableReader.Table table = BinaryTableReader.read(root.resolve("errors.bin"));
+    assertEquals(Arrays.asList(ERROR_FILE_HEADER.split("\t")), table.getColumns());
+    assertEquals(1, table.getRows().size());
+    List<String> row = table.getRows().get(0);
+    assertEquals("DEREFERENCE_NULLABLE", row.get(0));
+    assertEquals("com.uber.A", row.get(2));
+    assertEquals("test(java.lang.Object)", row.get(3));
+    assertEquals(
+        "4", new String(Files.readAllBytes(root.resolve("serialization_version.txt")), UTF_8));
+  }
+
   @Test
   public void errorSerializationVersion1() {
     SerializationTestHelper<ErrorDisplayV1> tester = new SerializationTestHelper<>(root);
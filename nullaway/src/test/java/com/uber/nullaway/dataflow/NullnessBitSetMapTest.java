@@ -0,0 +1,78 @@
+package com.uber.nullaway.dataflow;
+
+import static com.uber.nullaway.NullabilityUtil.castToNonNull;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.uber.nullaway.Nullness;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class NullnessBitSetMapTest {
+
+  @Test
+  public void encodesAllNullnessValues() {
+    NullnessBitSetMap<String> map = NullnessBitSetMap.empty();
+    for (Nullness value : Nullness.values()) {
+      map = castToNonNull(map.with(value.name(), value));
+    }
+    for (Nullness value : Nullness.values()) {
+      assertEquals(value, map.get(value.name()));
+    }
+    assertNull(map.get("absent"));
+    assertEquals(Nullness.values().length, map.size());
+    assertSame(map, map.with("NULL", Nullness.NULL));
+  }
+
+  @Test
+  public void leastUpperBoundMatchesLattice() {
+    Random random = new Random(0);
+    Nullness[] values = Nullness.values();
+    for (int round = 0; round < 200; round++) {
+      NullnessBitSetMap<String> empty = NullnessBitSetMap.empty();
+      NullnessBitSetMap<String> left = empty;
+      NullnessBitSetMap<String> right = empty;
+      Map<String, Nullness> expectedLeft = new HashMap<>();
+      Map<String, Nullness> expectedRight = new HashMap<>();
+      for (int op = 0; op < 40; op++) {
+        String key = "k" + random.nextInt(60);
+        Nullness value = values[random.nextInt(values.length)];
+        if (random.nextBoolean()) {
+          left = castToNonNull(left.with(key, value));
+          expectedLeft.put(key, value);
+        } else {
+          right = castToNonNull(right.with(key, value));
+          expectedRight.put(key, value);
+        }
+      }
+      Map<String, Nullness> expected = new HashMap<>();
+      expectedLeft.forEach(
+          (key, value) -> {
+            Nullness other = expectedRight.get(key);
+            if (other != null) {
+              expected.put(key, value.leastUpperBound(other));
+            }
+          });
+      assertEquals(expectedLeft, left);
+      assertEquals(expected, left.leastUpperBound(right));
+      assertEquals(expected, right.leastUpperBound(left));
+    }
+  }
+
+  @Test
+  public void overflowingNumberingReturnsNull() {
+    NullnessBitSetMap<Integer> map = NullnessBitSetMap.empty();
+    for (int i = 0; i < NullnessBitSetMap.MAX_KEYS; i++) {
+      map = castToNonNull(map.with(i, Nullness.NONNULL));
+    }
+    assertNull(map.with(NullnessBitSetMap.MAX_KEYS, Nullness.NONNULL));
+    // existing keys can still be updated
+    assertEquals(Nullness.NULL, castToNonNull(map.with(0, Nullness.NULL)).get(0));
+  }
+}
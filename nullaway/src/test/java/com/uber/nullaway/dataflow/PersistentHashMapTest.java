@@ -0,0 +1,71 @@
+package com.uber.nullaway.dataflow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class PersistentHashMapTest {
+
+  /** A key with a configurable hash code, to exercise hash collisions. */
+  private record Key(int id, int hash) {
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+  }
+
+  @Test
+  public void unchangedUpdatesReturnSameMap() {
+    PersistentHashMap<String, Integer> map =
+        PersistentHashMap.<String, Integer>empty().with("a", 1).with("b", 2);
+    assertSame(map, map.with("a", 1));
+    assertSame(map, map.without("c"));
+    assertEquals(Map.of("a", 1, "b", 2), map);
+    assertEquals(Map.of("a", 1), map.without("b"));
+    assertNull(map.without("a").get("a"));
+  }
+
+  @Test
+  public void olderVersionsAreUnaffectedByUpdates() {
+    PersistentHashMap<String, Integer> v1 = PersistentHashMap.<String, Integer>empty().with("a", 1);
+    PersistentHashMap<String, Integer> v2 = v1.with("a", 2).with("b", 3);
+    assertEquals(Map.of("a", 1), v1);
+    assertEquals(Map.of("a", 2, "b", 3), v2);
+  }
+
+  @Test
+  public void randomOperationsMatchHashMap() {
+    Random random = new Random(0);
+    for (int round = 0; round < 200; round++) {
+      // a small hash range forces deep tries and full hash collisions
+      int hashRange = round % 2 == 0 ? 4 : Integer.MAX_VALUE;
+      Map<Key, Integer> expected = new HashMap<>();
+      PersistentHashMap<Key, Integer> actual = PersistentHashMap.empty();
+      for (int op = 0; op < 200; op++) {
+        int id = random.nextInt(100);
+        Key key = new Key(id, (id % hashRange) * 0x9E3779B9);
+        if (random.nextInt(3) == 0) {
+          expected.remove(key);
+          actual = actual.without(key);
+        } else {
+          int value = random.nextInt(3);
+          expected.put(key, value);
+          actual = actual.with(key, value);
+        }
+        assertEquals(expected.size(), actual.size());
+        assertEquals(expected, actual);
+        assertEquals(actual, expected);
+        assertEquals(expected.hashCode(), actual.hashCode());
+        assertEquals(actual, PersistentHashMap.copyOf(new HashMap<>(expected)));
+      }
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.uber.nullaway.fixserialization;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class BinaryTableOutputTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void roundTripsRowsAcrossBlocksAndCompilations() throws IOException {
+    Path path = temporaryFolder.getRoot().toPath().resolve("errors.bin");
+    List<ImmutableList<String>> expected = new ArrayList<>();
+    // the second output appends to the file, as a later compilation would
+    for (int compilation = 0; compilation < 2; compilation++) {
+      BinaryTableOutput output = new BinaryTableOutput(path, "kind\tmessage\tpath");
+      if (compilation == 0) {
+        output.initialize();
+      }
+      for (int i = 0; i < BinaryTableOutput.MAX_ROWS_PER_BLOCK + 3; i++) {
+        ImmutableList<String> row = ImmutableList.of("KIND" + (i % 5), "", "A" + i + ".java");
+        output.append(String.join("\t", row));
+        expected.add(row);
+      }
+      output.append("");
+      output.close();
+    }
+    BinaryTableReader.Table table = BinaryTableReader.read(path);
+    assertEquals(ImmutableList.of("kind", "message", "path"), table.getColumns());
+    assertEquals(expected, table.getRows());
+  }
+
+  @Test
+  public void initializeClearsPreviousRows() throws IOException {
+    Path path = temporaryFolder.getRoot().toPath().resolve("field_init.bin");
+    BinaryTableOutput output = new BinaryTableOutput(path, "field");
+    output.initialize();
+    output.append("foo");
+    output.close();
+    output = new BinaryTableOutput(path, "field");
+    output.initialize();
+    output.append("bar");
+    output.close();
+    assertEquals(ImmutableList.of(ImmutableList.of("bar")), BinaryTableReader.read(path).getRows());
+  }
+}
@@ -0,0 +1,50 @@
+package com.uber.nullaway.fixserialization;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TsvTableOutputTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void rowsAreBufferedUntilFlushOrClose() throws IOException {
+    Path path = temporaryFolder.getRoot().toPath().resolve("errors.tsv");
+    TsvTableOutput output = new TsvTableOutput(path, "kind\tpath");
+    output.initialize();
+    output.append("KIND0\tA.java");
+    output.append(null);
+    output.append("");
+    assertEquals(ImmutableList.of("kind\tpath"), readLines(path));
+    output.flush();
+    assertEquals(ImmutableList.of("kind\tpath", "KIND0\tA.java"), readLines(path));
+    output.append("KIND1\tB.java");
+    assertEquals(ImmutableList.of("kind\tpath", "KIND0\tA.java"), readLines(path));
+    output.close();
+    assertEquals(
+        ImmutableList.of("kind\tpath", "KIND0\tA.java", "KIND1\tB.java"), readLines(path));
+    // closing again is a no-op, and rows appended after closing reopen the file on the next close
+    output.close();
+    output.append("KIND2\tC.java");
+    output.close();
+    assertEquals(
+        ImmutableList.of("kind\tpath", "KIND0\tA.java", "KIND1\tB.java", "KIND2\tC.java"),
+        readLines(path));
+  }
+
+  private static List<String> readLines(Path path) throws IOException {
+    return Files.readAllLines(path, Charset.defaultCharset());
+  }
+}
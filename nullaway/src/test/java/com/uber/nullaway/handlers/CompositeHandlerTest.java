@@ -0,0 +1,89 @@
+package com.uber.nullaway.handlers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.uber.nullaway.PerfTelemetry;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class CompositeHandlerTest {
+
+  /** Names of the handlers whose callbacks were called, in call order. */
+  private final List<String> calls = new ArrayList<>();
+
+  /** Overrides {@link Handler#onRegisterImmutableTypes()} only. */
+  private class ImmutableTypesHandler implements Handler {
+    private final String name;
+
+    ImmutableTypesHandler(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public ImmutableSet<String> onRegisterImmutableTypes() {
+      calls.add(name);
+      return ImmutableSet.of(name);
+    }
+  }
+
+  /** Inherits its override of {@link Handler#onRegisterImmutableTypes()}. */
+  private class InheritingHandler extends ImmutableTypesHandler {
+    InheritingHandler(String name) {
+      super(name);
+    }
+  }
+
+  /** Overrides {@link Handler#onOverrideNullMarkedClasses(String)} only. */
+  private class NullMarkedHandler implements Handler {
+    private final String className;
+
+    NullMarkedHandler(String className) {
+      this.className = className;
+    }
+
+    @Override
+    public boolean onOverrideNullMarkedClasses(String className) {
+      calls.add("nullMarked:" + this.className);
+      return this.className.equals(className);
+    }
+  }
+
+  /** Overrides no callback. */
+  private static class NoOpHandler implements Handler {}
+
+  @Test
+  public void callsOnlyHandlersOverridingEachCallback() {
+    Handler first = new ImmutableTypesHandler("first");
+    Handler noOp = new NoOpHandler();
+    Handler nullMarked = new NullMarkedHandler("com.example.Foo");
+    Handler inheriting = new InheritingHandler("inheriting");
+    ImmutableList<Handler> handlers = ImmutableList.of(first, noOp, nullMarked, inheriting);
+
+    assertArrayEquals(
+        new Handler[] {first, inheriting},
+        CompositeHandler.handlersOverriding(handlers, "onRegisterImmutableTypes"));
+    assertArrayEquals(
+        new Handler[] {nullMarked},
+        CompositeHandler.handlersOverriding(handlers, "onOverrideNullMarkedClasses"));
+    assertArrayEquals(
+        new Handler[0], CompositeHandler.handlersOverriding(handlers, "onMatchTopLevelClass"));
+
+    CompositeHandler composite = new CompositeHandler(handlers, PerfTelemetry.DISABLED);
+    assertEquals(ImmutableSet.of("first", "inheriting"), composite.onRegisterImmutableTypes());
+    assertEquals(ImmutableList.of("first", "inheriting"), calls);
+    calls.clear();
+    assertTrue(composite.onOverrideNullMarkedClasses("com.example.Foo"));
+    assertFalse(composite.onOverrideNullMarkedClasses("com.example.Bar"));
+    assertEquals(
+        ImmutableList.of("nullMarked:com.example.Foo", "nullMarked:com.example.Foo"), calls);
+  }
+}
@@ -1,6 +1,7 @@
 package com.uber.nullaway.handlers.contract;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.RETURNS_MOCKS;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -34,4 +35,16 @@ public class ContractUtilsTest {
     assertArrayEquals(new String[0], antecedent);
     verifyNoInteractions(tree, state, analysis, symbol);
   }
+
+  @Test
+  public void parseValueConstraints() {
+    assertEquals(ContractUtils.ValueConstraint.ANY, ContractUtils.ValueConstraint.parse("_"));
+    assertEquals(ContractUtils.ValueConstraint.NULL, ContractUtils.ValueConstraint.parse("null"));
+    assertEquals(
+        ContractUtils.ValueConstraint.NOT_NULL, ContractUtils.ValueConstraint.parse("!null"));
+    assertEquals(ContractUtils.ValueConstraint.TRUE, ContractUtils.ValueConstraint.parse("true"));
+    assertEquals(ContractUtils.ValueConstraint.FALSE, ContractUtils.ValueConstraint.parse("false"));
+    assertEquals(
+        ContractUtils.ValueConstraint.UNSUPPORTED, ContractUtils.ValueConstraint.parse("new"));
+  }
 }
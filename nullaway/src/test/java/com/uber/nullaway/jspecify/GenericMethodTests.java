@@ -1,8 +1,12 @@
 package com.uber.nullaway.jspecify;
 
+import static org.junit.Assert.assertTrue;
+
 import com.google.errorprone.CompilationTestHelper;
 import com.uber.nullaway.NullAwayTestsBase;
 import com.uber.nullaway.generics.JSpecifyJavacConfig;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -1498,6 +1502,159 @@ public class GenericMethodTests extends NullAwayTestsBase {
         .doTest();
   }
 
+  @Test
+  public void nestedCallsEquateTypeVariables() {
+    makeHelper()
+        .addSourceLines(
+            "Test.java",
+            """
+            package com.uber;
+            import org.jspecify.annotations.Nullable;
+            class Test {
+              static class Box<T extends @Nullable Object> {}
+              static <A extends @Nullable Object> Box<A> box(A a) {
+                return new Box<>();
+              }
+              static <B extends @Nullable Object> Box<B> rebox(Box<B> b) {
+                return b;
+              }
+              static <U extends @Nullable Object> U unbox(Box<U> b) {
+                throw new RuntimeException();
+              }
+              static void test(@Nullable String s) {
+                // BUG: Diagnostic contains: dereferenced expression unbox
+                unbox(rebox(rebox(box(s)))).toString();
+                unbox(rebox(rebox(box("x")))).toString();
+                Box<@Nullable String> b1 = rebox(rebox(box(s)));
+                Box<String> b2 = rebox(rebox(box("x")));
+              }
+            }
+            """)
+        .doTest();
+  }
+
+  @Test
+  public void sameGenericCallInDifferentClasses() throws IOException {
+    Path telemetryDir = temporaryFolder.getRoot().toPath().resolve("perf");
+    makeTestHelperWithArgs(
+            JSpecifyJavacConfig.withJSpecifyModeArgs(
+                Arrays.asList(
+                    "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+                    "-XepOpt:NullAway:PerfTelemetryOutputDir=" + telemetryDir)))
+        .addSourceLines(
+            "Util.java",
+            """
+            package com.uber;
+            import org.jspecify.annotations.Nullable;
+            class Util {
+              static <T extends @Nullable Object> T id(T t) {
+                return t;
+              }
+            }
+            """)
+        .addSourceLines(
+            "Test1.java",
+            """
+            package com.uber;
+            import org.jspecify.annotations.Nullable;
+            class Test1 {
+              static void test(@Nullable String s) {
+                Util.id("x").toString();
+                // BUG: Diagnostic contains: dereferenced expression Util.id(s)
+                Util.id(s).toString();
+                if (s != null) {
+                  Util.id(s).toString();
+                }
+              }
+            }
+            """)
+        .addSourceLines(
+            "Test2.java",
+            """
+            package com.uber;
+            import org.jspecify.annotations.Nullable;
+            class Test2 {
+              static void test(@Nullable String s) {
+                if (s != null) {
+                  Util.id(s).toString();
+                }
+                // BUG: Diagnostic contains: dereferenced expression Util.id(s)
+                Util.id(s).toString();
+                Util.id("x").toString();
+              }
+            }
+            """)
+        .doTest();
+    // the calls in each class have distinct types, so any hit reuses a result from the other class
+    String probe = "GenericsChecks.callKeyCache.hits";
+    assertTrue(
+        telemetryCount(telemetryDir.resolve("com.uber.Test1.java.csv"), probe)
+                + telemetryCount(telemetryDir.resolve("com.uber.Test2.java.csv"), probe)
+            > 0);
+  }
+
+  /**
+   * Generic calls whose types are first queried by dataflow, before their inferred type arguments
+   * are stored, and then again when checking the call, so diagnostics must not depend on which
+   * query computes the (cached) substituted method type first.
+   */
+  @Test
+  public void sameGenericCallQueriedBeforeAndAfterInference() {
+    makeHelper()
+        .addSourceLines(
+            "Test.java",
+            """
+            package com.uber;
+            import org.jspecify.annotations.NullMarked;
+            import org.jspecify.annotations.Nullable;
+            @NullMarked
+            class Test {
+              static <T extends @Nullable Object> T id(T t) {
+                return t;
+              }
+              static void takesNonNull(Object o) {}
+              static class Box<T extends @Nullable Object> {
+                T get() {
+                  throw new RuntimeException();
+                }
+                <U extends @Nullable Object> U with(U u) {
+                  return u;
+                }
+              }
+              static void testAssignment(@Nullable String s) {
+                String t = id(s);
+                // BUG: Diagnostic contains: dereferenced expression t is @Nullable
+                t.hashCode();
+                t = id("x");
+                t.hashCode();
+              }
+              static void testReceiverThenArgument(@Nullable String s) {
+                // BUG: Diagnostic contains: dereferenced expression id(s) is @Nullable
+                id(s).toString();
+                // BUG: Diagnostic contains: passing @Nullable parameter 's'
+                takesNonNull(id(s));
+              }
+              static void testExplicitTypeArgs(@Nullable String s) {
+                // BUG: Diagnostic contains: dereferenced expression
+                Test.<@Nullable String>id(s).hashCode();
+                Test.<String>id("x").hashCode();
+              }
+              static void testMembers(Box<@Nullable String> box, Box<String> nonNullBox) {
+                // BUG: Diagnostic contains: dereferenced expression box.get() is @Nullable
+                box.get().hashCode();
+                nonNullBox.get().hashCode();
+                String u = box.with(nonNullBox.get());
+                u.hashCode();
+              }
+              static void testGenericMember(Box<@Nullable String> box) {
+                // BUG: Diagnostic contains: box.with(box.get()) is @Nullable
+                box.with(box.get()).hashCode();
+              }
+            }
+            """)
+        .doTest();
+  }
+
   private CompilationTestHelper makeHelper() {
     return makeTestHelperWithArgs(
         JSpecifyJavacConfig.withJSpecifyModeArgs(
@@ -22,9 +22,14 @@
 
 package com.uber.nullaway;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.cache.CacheStats;
 import com.google.errorprone.BugCheckerRefactoringTestHelper;
 import com.google.errorprone.CompilationTestHelper;
 import com.uber.nullaway.generics.JSpecifyJavacConfig;
+import com.uber.nullaway.handlers.LibraryModelsHandler;
 import java.util.Arrays;
 import java.util.List;
 import org.junit.Rule;
@@ -70,6 +75,39 @@ public class CustomLibraryModelsTests {
         .doTest();
   }
 
+  @Test
+  public void libraryModelsSharedAcrossCompilations() {
+    List<String> args =
+        Arrays.asList(
+            "-d",
+            temporaryFolder.getRoot().getAbsolutePath(),
+            "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+            // a skipped model no other test uses, so the first compilation builds the models
+            "-XepOpt:NullAway:IgnoreLibraryModelsFor=com.uber.Shared.unused");
+    String[] source = {
+      "package com.uber;",
+      "public class AnnotatedWithModels {",
+      "   Object returnsNullFromModel() {",
+      "      // null is valid here only because of the library model",
+      "      return null;",
+      "   }",
+      "}"
+    };
+    CacheStats before = LibraryModelsHandler.getSharedLibraryModelsCacheStats();
+    makeLibraryModelsTestHelperWithArgs(args)
+        .addSourceLines("AnnotatedWithModels.java", source)
+        .doTest();
+    CacheStats afterFirst = LibraryModelsHandler.getSharedLibraryModelsCacheStats();
+    assertTrue(afterFirst.minus(before).missCount() > 0);
+    makeLibraryModelsTestHelperWithArgs(args)
+        .addSourceLines("AnnotatedWithModels.java", source)
+        .doTest();
+    CacheStats afterSecond =
+        LibraryModelsHandler.getSharedLibraryModelsCacheStats().minus(afterFirst);
+    assertEquals(0, afterSecond.missCount());
+    assertTrue(afterSecond.hitCount() > 0);
+  }
+
   @Test
   public void libraryModelsOverrideRestrictiveAnnotations() {
     makeLibraryModelsTestHelperWithArgs(
@@ -259,6 +297,61 @@ public class CustomLibraryModelsTests {
         .doTest();
   }
 
+  @Test
+  public void libraryModelsResolvedThroughOverridesAndRepeatedLookups() {
+    makeLibraryModelsTestHelperWithArgs(
+            Arrays.asList(
+                "-d",
+                temporaryFolder.getRoot().getAbsolutePath(),
+                "-XepOpt:NullAway:AnnotatedPackages=com.uber",
+                "-XepOpt:NullAway:UnannotatedSubPackages=com.uber.unannotated"))
+        .addSourceLines(
+            "SubWithModels.java",
+            "package com.uber.unannotated;",
+            "import com.uber.lib.unannotated.UnannotatedWithModels;",
+            "public class SubWithModels extends UnannotatedWithModels {",
+            "   public Object plainField;",
+            "   @Override",
+            "   public Object returnsNullUnannotated() {",
+            "      return new Object();",
+            "   }",
+            "   public Object returnsWithoutModel() {",
+            "      return new Object();",
+            "   }",
+            "}")
+        .addSourceLines(
+            "Test.java",
+            "package com.uber;",
+            "import com.uber.unannotated.SubWithModels;",
+            "public class Test {",
+            "   SubWithModels sub = new SubWithModels();",
+            "   // dereference once per method, dataflow treats it as non-null afterwards",
+            "   String overrideOfModeledMethod() {",
+            "      // BUG: Diagnostic contains: sub.returnsNullUnannotated() is @Nullable",
+            "      return sub.returnsNullUnannotated().toString();",
+            "   }",
+            "   String overrideOfModeledMethodAgain() {",
+            "      // BUG: Diagnostic contains: sub.returnsNullUnannotated() is @Nullable",
+            "      return sub.returnsNullUnannotated().toString();",
+            "   }",
+            "   String methodWithoutModel() {",
+            "      return sub.returnsWithoutModel().toString();",
+            "   }",
+            "   String modeledField() {",
+            "      // BUG: Diagnostic contains: sub.nullableFieldUnannotated2 is @Nullable",
+            "      return sub.nullableFieldUnannotated2.toString();",
+            "   }",
+            "   String modeledFieldAgain() {",
+            "      // BUG: Diagnostic contains: sub.nullableFieldUnannotated2 is @Nullable",
+            "      return sub.nullableFieldUnannotated2.toString();",
+            "   }",
+            "   String unmodeledField() {",
+            "      return sub.plainField.toString();",
+            "   }",
+            "}")
+        .doTest();
+  }
+
   @Test
   public void issue1194() {
     makeLibraryModelsTestHelperWithArgs(